@@ -4,6 +4,8 @@ package yahoofinance;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import yahoofinance.cache.HistoryCache;
+import yahoofinance.cache.QuoteSummaryCache;
 import yahoofinance.exception.YFinanceException;
 import yahoofinance.model.*;
 import yahoofinance.model.financials.BalanceSheetSummary;
@@ -15,10 +17,18 @@ import yahoofinance.model.market.Region;
 import yahoofinance.model.financials.enums.TimescaleTranslation;
 import yahoofinance.model.market.RegionMarketSummary;
 import yahoofinance.requests.*;
+import yahoofinance.service.BulkHistoryFetcher;
+import yahoofinance.service.ChunkedHistoryFetcher;
 import yahoofinance.service.StockWebSocket;
+import yahoofinance.service.StockWebSocketPool;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class YFinance {
@@ -58,6 +68,45 @@ public class YFinance {
         return request.execute();
     }
 
+    /**
+     * Same as {@link #getStockQuoteSummary(String, QuoteSummaryRequest.Module...)}, but served from an in-memory
+     * cache: only modules which are not cached or have expired are downloaded.
+     *
+     * @param ticker  Valid ticker for a stock, ex. "AAPL"
+     * @param cache   QuoteSummaryCache holding previously downloaded modules
+     * @param modules Array of modules which should be included in the response object
+     * @return StockQuoteSummary object with selected or default modules
+     * @throws YFinanceException standard exception
+     */
+    public static StockQuoteSummary getStockQuoteSummary(String ticker, QuoteSummaryCache cache, QuoteSummaryRequest.Module... modules) throws YFinanceException {
+        return cache.getStockQuoteSummary(ticker, modules);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getStockQuoteSummary(String)}, parsing on
+     * {@link QuoteRequest#getDefaultAsyncExecutor()}.
+     *
+     * @param ticker valid ticker for a stock, ex. "AAPL"
+     * @return future completed with the StockQuoteSummary, or exceptionally with a YFinanceException
+     */
+    public static CompletableFuture<StockQuoteSummary> getStockQuoteSummaryAsync(String ticker) {
+        QuoteRequest<StockQuoteSummary> request = new QuoteSummaryRequest(ticker);
+        return request.executeAsync();
+    }
+
+    /**
+     * Asynchronous variant of {@link #getStockQuoteSummary(String, QuoteSummaryRequest.Module...)}, parsing on
+     * {@link QuoteRequest#getDefaultAsyncExecutor()}.
+     *
+     * @param ticker  Valid ticker for a stock, ex. "AAPL"
+     * @param modules Array of modules which should be included in the response object
+     * @return future completed with the StockQuoteSummary, or exceptionally with a YFinanceException
+     */
+    public static CompletableFuture<StockQuoteSummary> getStockQuoteSummaryAsync(String ticker, QuoteSummaryRequest.Module... modules) {
+        QuoteRequest<StockQuoteSummary> request = new QuoteSummaryRequest(ticker, modules);
+        return request.executeAsync();
+    }
+
     /**
      * @return New instance of StockWebSocket object
      */
@@ -66,6 +115,15 @@ public class YFinance {
         return new StockWebSocket();
     }
 
+    /**
+     * @param connections number of websocket connections the subscriptions are spread over
+     * @return New instance of StockWebSocketPool object
+     */
+    @Contract("_ -> new")
+    public static @NotNull StockWebSocketPool getStockWebSocketPool(int connections) {
+        return new StockWebSocketPool(connections);
+    }
+
 
     /**
      * <p>This method returns history stock quotes, meta and timestamps for a specified range and in specified interval
@@ -84,6 +142,21 @@ public class YFinance {
         return request.execute();
     }
 
+    /**
+     * Same as {@link #getStockHistory(String, StockHistoryRequest.ValidRanges, StockHistoryRequest.ValidIntervals)},
+     * but served from an on-disk cache: after the first call only bars newer than the last cached one are downloaded.
+     *
+     * @param ticker   Valid ticker for a stock, ex. "AAPL"
+     * @param range    StockHistoryRequest.ValidRanges
+     * @param interval StockHistoryRequest.ValidIntervals
+     * @param cache    HistoryCache holding previously downloaded bars
+     * @return StockHistory object
+     * @throws YFinanceException standard exception
+     */
+    public static StockHistory getStockHistory(String ticker, StockHistoryRequest.ValidRanges range, StockHistoryRequest.ValidIntervals interval, HistoryCache cache) throws YFinanceException {
+        return cache.getStockHistory(ticker, range, interval);
+    }
+
     public static StockHistory getStockHistory(String ticker, LocalDateTime startDate, LocalDateTime endDate, StockHistoryRequest.ValidIntervals interval) throws YFinanceException {
         QuoteRequest<StockHistory> request = new StockHistoryRequest(ticker, startDate, endDate, interval);
         return request.execute();
@@ -99,6 +172,83 @@ public class YFinance {
         return request.execute();
     }
 
+    /**
+     * <p>This method returns history stock quotes between two dates for intervals where Yahoo limits the span of a
+     * single request, e.g. more than 7 days of <code>ONE_MINUTE</code> or more than 60 days of <code>TWO_MINUTES</code> bars.</p>
+     * The range is split into windows allowed for the interval, the windows are fetched concurrently and merged
+     * into one StockHistory with duplicated timestamps removed.
+     *
+     * @param ticker    Valid ticker for a stock, ex. "AAPL"
+     * @param startDate start of the range
+     * @param endDate   end of the range
+     * @param interval  StockHistoryRequest.ValidIntervals
+     * @return StockHistory object covering the whole range
+     * @throws YFinanceException when any of the windows fails
+     */
+    public static StockHistory getStockHistoryChunked(String ticker, LocalDateTime startDate, LocalDateTime endDate, StockHistoryRequest.ValidIntervals interval) throws YFinanceException {
+        return new ChunkedHistoryFetcher().fetch(ticker, startDate, endDate, interval);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getStockHistory(String, StockHistoryRequest.ValidRanges, StockHistoryRequest.ValidIntervals)},
+     * parsing on {@link QuoteRequest#getDefaultAsyncExecutor()}.
+     *
+     * @param ticker   Valid ticker for a stock, ex. "AAPL"
+     * @param range    StockHistoryRequest.ValidRanges
+     * @param interval StockHistoryRequest.ValidIntervals
+     * @return future completed with the StockHistory, or exceptionally with a YFinanceException
+     */
+    public static CompletableFuture<StockHistory> getStockHistoryAsync(String ticker, StockHistoryRequest.ValidRanges range, StockHistoryRequest.ValidIntervals interval) {
+        QuoteRequest<StockHistory> request = new StockHistoryRequest(ticker, range, interval);
+        return request.executeAsync();
+    }
+
+    public static CompletableFuture<StockHistory> getStockHistoryAsync(String ticker, LocalDateTime startDate, LocalDateTime endDate, StockHistoryRequest.ValidIntervals interval) {
+        QuoteRequest<StockHistory> request = new StockHistoryRequest(ticker, startDate, endDate, interval);
+        return request.executeAsync();
+    }
+
+    /**
+     * Fetches stock history for every symbol concurrently on virtual threads, with at most
+     * {@link BulkHistoryFetcher#DEFAULT_MAX_CONCURRENCY} requests in flight. Symbols which fail are logged and
+     * left out of the result, use {@link #getStockHistories(Collection, StockHistoryRequest.ValidRanges, StockHistoryRequest.ValidIntervals, Consumer)}
+     * to receive failures as well.
+     *
+     * @param tickers  Valid tickers for stocks, ex. "AAPL"
+     * @param range    StockHistoryRequest.ValidRanges
+     * @param interval StockHistoryRequest.ValidIntervals
+     * @return map of ticker to StockHistory for all successfully fetched tickers
+     * @throws YFinanceException when the calling thread is interrupted
+     */
+    public static Map<String, StockHistory> getStockHistories(Collection<String> tickers, StockHistoryRequest.ValidRanges range, StockHistoryRequest.ValidIntervals interval) throws YFinanceException {
+        Map<String, StockHistory> histories = new LinkedHashMap<>();
+        getStockHistories(tickers, range, interval, result -> {
+            if (result.isSuccess()) {
+                histories.put(result.getSymbol(), result.getHistory());
+            }
+        });
+        return histories;
+    }
+
+    /**
+     * Fetches stock history for every symbol concurrently on virtual threads and streams each result,
+     * successful or not, to the callback as soon as it is available.
+     *
+     * @param tickers  Valid tickers for stocks, ex. "AAPL"
+     * @param range    StockHistoryRequest.ValidRanges
+     * @param interval StockHistoryRequest.ValidIntervals
+     * @param callback receives one result per ticker, invocations are serialized
+     * @throws YFinanceException when the calling thread is interrupted
+     */
+    public static void getStockHistories(Collection<String> tickers, StockHistoryRequest.ValidRanges range, StockHistoryRequest.ValidIntervals interval, Consumer<BulkHistoryFetcher.Result> callback) throws YFinanceException {
+        try {
+            new BulkHistoryFetcher().fetch(tickers, range, interval, callback);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new YFinanceException("Interrupted while fetching stock histories", e);
+        }
+    }
+
     /**
      * <p>This method returns history stock quotes, meta and timestamps for a default range ONE_MONTH and in default interval ONE_DAY
      * Start date in this case is range value subtracted from today date. </p>
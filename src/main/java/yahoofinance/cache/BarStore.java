@@ -0,0 +1,271 @@
+package yahoofinance.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.model.ColumnarStockHistory;
+import yahoofinance.model.StockHistory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Memory mapped file of fixed width OHLCV bars for a single symbol and interval.
+ * <p>
+ * The file starts with a {@value #HEADER_SIZE} byte header followed by {@value #RECORD_SIZE} byte records
+ * ({@code timestamp, open, high, low, close, volume}, little endian) ordered by timestamp. Missing prices are
+ * stored as {@link Double#NaN}, like in {@link ColumnarStockHistory}; the volume of a bar without all four prices
+ * reads back as missing. The bar count in the header is
+ * authoritative; the file may be longer because it grows in steps while appending.
+ * <p>
+ * Reads go straight to the mapping, so reopening a store costs no parsing. A store supports a single writer;
+ * concurrent readers of the same instance must not run while it is being appended to.
+ */
+@Slf4j
+public class BarStore implements Closeable {
+
+	public static final int HEADER_SIZE = 64;
+	public static final int RECORD_SIZE = 48;
+
+	private static final int MAGIC = 0x59464253; // "YFBS"
+	private static final int VERSION = 1;
+	private static final int COUNT_OFFSET = 16;
+	private static final int MIN_CAPACITY = 1024;
+	private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+	@Getter
+	private final Path file;
+	@Getter
+	private final boolean readOnly;
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int capacity;
+	private int size;
+
+	private BarStore(Path file, boolean readOnly) throws IOException {
+		this.file = file;
+		this.readOnly = readOnly;
+		this.channel = readOnly
+				? FileChannel.open(file, StandardOpenOption.READ)
+				: FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		try {
+			long fileSize = channel.size();
+			if (fileSize == 0 && !readOnly) {
+				map(MIN_CAPACITY);
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, VERSION);
+				buffer.putInt(8, RECORD_SIZE);
+				buffer.putLong(COUNT_OFFSET, 0);
+				return;
+			}
+
+			if (fileSize < HEADER_SIZE) {
+				throw new IOException("Not a bar store: " + file);
+			}
+			map((int) Math.min((fileSize - HEADER_SIZE) / RECORD_SIZE, MAX_CAPACITY));
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+				throw new IOException("Unsupported bar store format: " + file);
+			}
+			long count = buffer.getLong(COUNT_OFFSET);
+			if (count < 0 || count > capacity) {
+				throw new IOException("Corrupted bar store, header declares " + count + " bars: " + file);
+			}
+			size = (int) count;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens the store for reading and appending, creating the file when it does not exist.
+	 */
+	public static BarStore open(Path file) throws IOException {
+		return new BarStore(file, false);
+	}
+
+	public static BarStore openReadOnly(Path file) throws IOException {
+		return new BarStore(file, true);
+	}
+
+	/**
+	 * Appends the bars of {@code history} which are newer than the last stored bar. A bar with the same timestamp
+	 * as the last stored one replaces it (the last bar of a running session is refreshed); older bars are ignored.
+	 *
+	 * @return number of bars written
+	 */
+	public int append(ColumnarStockHistory history) throws IOException {
+		if (readOnly) {
+			throw new IOException("Bar store is opened read only: " + file);
+		}
+
+		int start = 0;
+		int written = 0;
+		if (size > 0 && history.size() > 0) {
+			int index = history.indexOf(getLastTimestamp());
+			if (index >= 0) {
+				writeRecord(size - 1, history, index);
+				written++;
+				start = index + 1;
+			} else {
+				start = -index - 1;
+			}
+		}
+
+		int appended = history.size() - start;
+		if (appended > 0) {
+			ensureCapacity(size + appended);
+			for (int i = start; i < history.size(); i++) {
+				writeRecord(size++, history, i);
+			}
+			written += appended;
+		}
+		buffer.putLong(COUNT_OFFSET, size);
+		return written;
+	}
+
+	public int append(StockHistory history) throws IOException {
+		return append(history.toColumnar());
+	}
+
+	/**
+	 * @return columns of the bars in {@code [fromIndex, toIndex)}, without meta
+	 */
+	public ColumnarStockHistory read(int fromIndex, int toIndex) {
+		Objects.checkFromToIndex(fromIndex, toIndex, size);
+		int length = toIndex - fromIndex;
+		long[] timestamps = new long[length];
+		double[] open = new double[length];
+		double[] high = new double[length];
+		double[] low = new double[length];
+		double[] close = new double[length];
+		long[] volume = new long[length];
+		BitSet valid = new BitSet(length);
+
+		MappedByteBuffer mapped = buffer;
+		int offset = offsetOf(fromIndex);
+		for (int i = 0; i < length; i++, offset += RECORD_SIZE) {
+			timestamps[i] = mapped.getLong(offset);
+			open[i] = mapped.getDouble(offset + 8);
+			high[i] = mapped.getDouble(offset + 16);
+			low[i] = mapped.getDouble(offset + 24);
+			close[i] = mapped.getDouble(offset + 32);
+			volume[i] = mapped.getLong(offset + 40);
+			if (!Double.isNaN(open[i]) && !Double.isNaN(high[i]) && !Double.isNaN(low[i]) && !Double.isNaN(close[i])) {
+				valid.set(i);
+			}
+		}
+		return new ColumnarStockHistory(null, timestamps, open, high, low, close, volume, valid);
+	}
+
+	/**
+	 * @return columns of the bars with {@code from <= timestamp < to}, without meta
+	 */
+	public ColumnarStockHistory readByTime(long from, long to) {
+		int fromIndex = lowerBound(from);
+		return read(fromIndex, Math.max(fromIndex, lowerBound(to)));
+	}
+
+	public ColumnarStockHistory readAll() {
+		return read(0, size);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long getTimestamp(int index) {
+		Objects.checkIndex(index, size);
+		return buffer.getLong(offsetOf(index));
+	}
+
+	public long getFirstTimestamp() {
+		return getTimestamp(0);
+	}
+
+	public long getLastTimestamp() {
+		return getTimestamp(size - 1);
+	}
+
+	/**
+	 * @return index of the bar with the given timestamp, or {@code -(insertion point) - 1} like
+	 * {@link java.util.Arrays#binarySearch(long[], long)}
+	 */
+	public int indexOf(long timestamp) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long value = buffer.getLong(offsetOf(mid));
+			if (value < timestamp) {
+				low = mid + 1;
+			} else if (value > timestamp) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * Writes appended bars through to the file.
+	 */
+	public void force() {
+		if (!readOnly) {
+			buffer.force();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		force();
+		buffer = null;
+		channel.close();
+	}
+
+	private int lowerBound(long timestamp) {
+		int index = indexOf(timestamp);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	private void writeRecord(int index, ColumnarStockHistory history, int source) {
+		int offset = offsetOf(index);
+		buffer.putLong(offset, history.getTimestamp(source));
+		buffer.putDouble(offset + 8, history.getOpen(source));
+		buffer.putDouble(offset + 16, history.getHigh(source));
+		buffer.putDouble(offset + 24, history.getLow(source));
+		buffer.putDouble(offset + 32, history.getClose(source));
+		buffer.putLong(offset + 40, history.getVolume(source));
+	}
+
+	private void ensureCapacity(int required) throws IOException {
+		if (required <= capacity) {
+			return;
+		}
+		if (required > MAX_CAPACITY) {
+			throw new IOException("Bar store cannot hold more than " + MAX_CAPACITY + " bars: " + file);
+		}
+		int grown = (int) Math.min(MAX_CAPACITY, Math.max(capacity + (capacity >> 1), (long) MIN_CAPACITY));
+		log.debug("Growing bar store {} to {} bars", file, Math.max(grown, required));
+		buffer.force();
+		map(Math.max(grown, required));
+	}
+
+	private void map(int records) throws IOException {
+		FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+		buffer = channel.map(mode, 0, HEADER_SIZE + (long) records * RECORD_SIZE);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		capacity = records;
+	}
+
+	private static int offsetOf(int index) {
+		return HEADER_SIZE + index * RECORD_SIZE;
+	}
+}
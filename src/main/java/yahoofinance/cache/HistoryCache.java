@@ -0,0 +1,274 @@
+package yahoofinance.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.exception.YFinanceException;
+import yahoofinance.model.ColumnarStockHistory;
+import yahoofinance.model.StockHistory;
+import yahoofinance.requests.StockHistoryRequest;
+import yahoofinance.service.ChunkedHistoryFetcher;
+import yahoofinance.util.Utils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persistent cache of stock history keyed by symbol and {@link StockHistoryRequest.ValidIntervals}.
+ * <p>
+ * The first request for a symbol and interval downloads the whole range and writes it to {@code directory}.
+ * Later requests only download the bars from the last cached timestamp onwards, merge them into the cached
+ * series (the refreshed last bar replaces the cached one) and write the result back. A request for a range
+ * reaching further back than the cached data triggers a full download again. The time of the last download is kept
+ * in the file; within {@link #getMaxAge()} of it the cached series is returned without any request.
+ */
+@Slf4j
+public class HistoryCache {
+
+	private static final int MAGIC = 0x59464843; // "YFHC"
+	private static final int VERSION = 3;
+	private static final String FILE_EXTENSION = ".bars";
+	/** Bytes per bar: timestamp, four prices and volume. */
+	private static final int BAR_BYTES = 6 * Long.BYTES;
+
+	public static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(1);
+
+	@Getter
+	private final Path directory;
+	private final Clock clock;
+	private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+	/**
+	 * Time since the last download of a series during which it is returned without requesting the latest bars.
+	 */
+	@Getter
+	@Setter
+	private Duration maxAge = DEFAULT_MAX_AGE;
+
+	public HistoryCache(Path directory) {
+		this(directory, Clock.systemUTC());
+	}
+
+	public HistoryCache(Path directory, Clock clock) {
+		this.directory = directory;
+		this.clock = clock;
+	}
+
+	/**
+	 * Returns history for the range ending now, refreshing the cached series with the bars published since the
+	 * last call.
+	 *
+	 * @param symbol   Valid ticker for a stock, ex. "AAPL"
+	 * @param range    StockHistoryRequest.ValidRanges
+	 * @param interval StockHistoryRequest.ValidIntervals
+	 * @return StockHistory covering the requested range
+	 * @throws YFinanceException when downloading fails, the cached data is left untouched
+	 */
+	public StockHistory getStockHistory(String symbol, StockHistoryRequest.ValidRanges range,
+	                                    StockHistoryRequest.ValidIntervals interval) throws YFinanceException {
+		long now = clock.instant().getEpochSecond();
+		long rangeStart = range == StockHistoryRequest.ValidRanges.MAX ? 0 : now - range.getTimeMilisecond();
+
+		ReentrantLock lock = locks.computeIfAbsent(key(symbol, interval), k -> new ReentrantLock());
+		lock.lock();
+		try {
+			CachedHistory cached = read(symbol, interval);
+			CachedHistory updated;
+
+			if (cached == null || cached.history.size() == 0 || rangeStart < cached.coveredFrom) {
+				log.debug("History cache miss for {} {}", symbol, interval.getInterval());
+				StockHistory history = fetchFull(symbol, range, interval);
+				updated = new CachedHistory(rangeStart, now, history != null ? history.toColumnar() : null);
+			} else if (now - cached.refreshedAt >= maxAge.getSeconds()) {
+				// the last bar may still have been forming when it was downloaded, so it is requested again
+				log.debug("Refreshing cached {} {} history after {}", symbol, interval.getInterval(),
+						cached.history.getLastTimestamp());
+				StockHistory tail = fetchTail(symbol, cached.history.getLastTimestamp(), now, interval);
+				ColumnarStockHistory merged = tail != null ?
+						ColumnarStockHistory.merge(List.of(cached.history, tail.toColumnar())) : cached.history;
+				updated = new CachedHistory(cached.coveredFrom, now, merged);
+			} else {
+				updated = cached;
+			}
+
+			if (updated.history == null) {
+				return null;
+			}
+			if (updated != cached) {
+				write(symbol, interval, updated);
+			}
+
+			ColumnarStockHistory result = updated.history;
+			if (result.size() > 0 && rangeStart > result.getFirstTimestamp()) {
+				result = result.sliceByTime(rangeStart, Long.MAX_VALUE);
+			}
+			return result.toStockHistory();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void invalidate(String symbol, StockHistoryRequest.ValidIntervals interval) {
+		try {
+			Files.deleteIfExists(fileOf(symbol, interval));
+		} catch (IOException e) {
+			log.warn("Failed to delete cached history for {} {}", symbol, interval.getInterval(), e);
+		}
+	}
+
+	protected StockHistory fetchFull(String symbol, StockHistoryRequest.ValidRanges range,
+	                                 StockHistoryRequest.ValidIntervals interval) throws YFinanceException {
+		return new StockHistoryRequest(symbol, range, interval).execute();
+	}
+
+	protected StockHistory fetchTail(String symbol, long from, long to,
+	                                 StockHistoryRequest.ValidIntervals interval) throws YFinanceException {
+		return new ChunkedHistoryFetcher().fetch(symbol,
+				LocalDateTime.ofEpochSecond(from, 0, ZoneOffset.UTC),
+				LocalDateTime.ofEpochSecond(to, 0, ZoneOffset.UTC), interval);
+	}
+
+	private CachedHistory read(String symbol, StockHistoryRequest.ValidIntervals interval) {
+		Path file = fileOf(symbol, interval);
+		if (!Files.exists(file)) {
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			long fileSize = Files.size(file);
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				log.warn("Ignoring cached history with unknown format: {}", file);
+				return null;
+			}
+
+			long coveredFrom = in.readLong();
+			long refreshedAt = in.readLong();
+			byte[] metaJson = new byte[checkLength(in.readInt(), 1, fileSize, file)];
+			in.readFully(metaJson);
+			StockHistory.Meta meta = metaJson.length > 0 ?
+					Utils.getObjectMapper().readValue(metaJson, StockHistory.Meta.class) : null;
+
+			int size = checkLength(in.readInt(), BAR_BYTES, fileSize, file);
+			long[] timestamps = readLongs(in, size);
+			double[] open = readDoubles(in, size);
+			double[] high = readDoubles(in, size);
+			double[] low = readDoubles(in, size);
+			double[] close = readDoubles(in, size);
+			long[] volume = readLongs(in, size);
+			BitSet valid = readBits(in, fileSize, file);
+			BitSet missingVolume = readBits(in, fileSize, file);
+
+			return new CachedHistory(coveredFrom, refreshedAt,
+					new ColumnarStockHistory(meta, timestamps, open, high, low, close, volume, valid, missingVolume));
+		} catch (IOException e) {
+			log.warn("Failed to read cached history {}, it will be downloaded again", file, e);
+			return null;
+		}
+	}
+
+	private void write(String symbol, StockHistoryRequest.ValidIntervals interval, CachedHistory cached) {
+		Path file = fileOf(symbol, interval);
+		try {
+			Files.createDirectories(directory);
+			Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+			ColumnarStockHistory history = cached.history;
+			int size = history.size();
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(cached.coveredFrom);
+				out.writeLong(cached.refreshedAt);
+
+				byte[] metaJson = history.getMeta() != null ?
+						Utils.getObjectMapper().writeValueAsBytes(history.getMeta()) : new byte[0];
+				out.writeInt(metaJson.length);
+				out.write(metaJson);
+
+				out.writeInt(size);
+				for (int i = 0; i < size; i++) out.writeLong(history.getTimestamp(i));
+				for (int i = 0; i < size; i++) out.writeDouble(history.getOpen(i));
+				for (int i = 0; i < size; i++) out.writeDouble(history.getHigh(i));
+				for (int i = 0; i < size; i++) out.writeDouble(history.getLow(i));
+				for (int i = 0; i < size; i++) out.writeDouble(history.getClose(i));
+				for (int i = 0; i < size; i++) out.writeLong(history.getVolume(i));
+
+				BitSet valid = new BitSet(size);
+				BitSet missingVolume = new BitSet(size);
+				for (int i = 0; i < size; i++) {
+					valid.set(i, history.isValid(i));
+					missingVolume.set(i, !history.hasVolume(i));
+				}
+				writeBits(out, valid);
+				writeBits(out, missingVolume);
+			}
+
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("Failed to write cached history {}", file, e);
+		}
+	}
+
+	/**
+	 * Rejects a length read from a cache file which the file cannot hold, so a corrupt file does not allocate
+	 * arbitrary arrays.
+	 */
+	private static int checkLength(int length, int bytesPerElement, long fileSize, Path file) throws IOException {
+		if (length < 0 || (long) length * bytesPerElement > fileSize) {
+			throw new IOException("Corrupt cached history " + file + ": invalid length " + length);
+		}
+		return length;
+	}
+
+	private static BitSet readBits(DataInputStream in, long fileSize, Path file) throws IOException {
+		return BitSet.valueOf(readLongs(in, checkLength(in.readInt(), Long.BYTES, fileSize, file)));
+	}
+
+	private static void writeBits(DataOutputStream out, BitSet bits) throws IOException {
+		long[] words = bits.toLongArray();
+		out.writeInt(words.length);
+		for (long word : words) out.writeLong(word);
+	}
+
+	private static long[] readLongs(DataInputStream in, int size) throws IOException {
+		long[] values = new long[size];
+		for (int i = 0; i < size; i++) values[i] = in.readLong();
+		return values;
+	}
+
+	private static double[] readDoubles(DataInputStream in, int size) throws IOException {
+		double[] values = new double[size];
+		for (int i = 0; i < size; i++) values[i] = in.readDouble();
+		return values;
+	}
+
+	private Path fileOf(String symbol, StockHistoryRequest.ValidIntervals interval) {
+		return directory.resolve(key(symbol, interval) + FILE_EXTENSION);
+	}
+
+	private static String key(String symbol, StockHistoryRequest.ValidIntervals interval) {
+		return symbol.toUpperCase().replaceAll("[^A-Z0-9.\\-]", "_") + "_" + interval.getInterval();
+	}
+
+	private static final class CachedHistory {
+		private final long coveredFrom;
+		/** Epoch second of the last download. */
+		private final long refreshedAt;
+		private final ColumnarStockHistory history;
+
+		private CachedHistory(long coveredFrom, long refreshedAt, ColumnarStockHistory history) {
+			this.coveredFrom = coveredFrom;
+			this.refreshedAt = refreshedAt;
+			this.history = history;
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package yahoofinance.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.exception.YFinanceException;
+import yahoofinance.model.StockQuoteSummary;
+import yahoofinance.model.common.QuoteSummaryModule;
+import yahoofinance.requests.QuoteSummaryRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory cache of quote summary modules keyed by symbol and {@link QuoteSummaryRequest.Module}.
+ * <p>
+ * Every module has its own time to live: profiles and filings barely change and are kept for a day, statements and
+ * ownership for hours, prices and key statistics for a minute. A request only downloads the modules which are
+ * missing or expired and merges them with the cached ones. Modules Yahoo does not return for a symbol are cached as
+ * absent too, so they are not requested again until they expire. At most {@code maxSymbols} symbols are kept, the
+ * least recently used one is evicted first.
+ */
+@Slf4j
+public class QuoteSummaryCache {
+
+	public static final int DEFAULT_MAX_SYMBOLS = 1000;
+	public static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+	private static final Map<QuoteSummaryRequest.Module, Duration> DEFAULT_TTLS = defaultTtls();
+
+	@Getter
+	private final int maxSymbols;
+	private final EnumMap<QuoteSummaryRequest.Module, Duration> ttls = new EnumMap<>(DEFAULT_TTLS);
+	private final LinkedHashMap<String, EnumMap<QuoteSummaryRequest.Module, Entry>> entries =
+			new LinkedHashMap<>(16, 0.75f, true);
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long fetches;
+
+	public QuoteSummaryCache() {
+		this(DEFAULT_MAX_SYMBOLS);
+	}
+
+	public QuoteSummaryCache(int maxSymbols) {
+		if (maxSymbols < 1) {
+			throw new IllegalArgumentException("Cache must hold at least one symbol");
+		}
+		this.maxSymbols = maxSymbols;
+	}
+
+	public StockQuoteSummary getStockQuoteSummary(String symbol) throws YFinanceException {
+		return getStockQuoteSummary(symbol, QuoteSummaryRequest.DEFAULT_MODULES);
+	}
+
+	public StockQuoteSummary getStockQuoteSummary(String symbol, QuoteSummaryRequest.Module... modules)
+			throws YFinanceException {
+		return getStockQuoteSummary(symbol, modules.length > 0 ? Set.of(modules) : QuoteSummaryRequest.DEFAULT_MODULES);
+	}
+
+	/**
+	 * Returns the requested modules, downloading only the ones missing from the cache or expired.
+	 *
+	 * @throws YFinanceException when downloading fails, the cached modules are left untouched
+	 */
+	public StockQuoteSummary getStockQuoteSummary(String symbol, Set<QuoteSummaryRequest.Module> modules)
+			throws YFinanceException {
+		EnumSet<QuoteSummaryRequest.Module> requested = modules.isEmpty() ?
+				EnumSet.copyOf(QuoteSummaryRequest.DEFAULT_MODULES) : EnumSet.copyOf(modules);
+		EnumMap<QuoteSummaryRequest.Module, QuoteSummaryModule<?>> found = new EnumMap<>(QuoteSummaryRequest.Module.class);
+		EnumSet<QuoteSummaryRequest.Module> missing = EnumSet.noneOf(QuoteSummaryRequest.Module.class);
+
+		long now = now();
+		synchronized (this) {
+			EnumMap<QuoteSummaryRequest.Module, Entry> cached = entries.get(symbol);
+			for (QuoteSummaryRequest.Module module : requested) {
+				Entry entry = cached != null ? cached.get(module) : null;
+				if (entry != null && entry.expiresAt - now > 0) {
+					hits++;
+					if (entry.value != null) {
+						found.put(module, entry.value);
+					}
+				} else {
+					misses++;
+					missing.add(module);
+				}
+			}
+			if (!missing.isEmpty()) {
+				fetches++;
+			}
+		}
+
+		String error = null;
+		if (!missing.isEmpty()) {
+			log.debug("Quote summary cache miss for {} modules {}", symbol, missing);
+			StockQuoteSummary fetched = fetch(symbol, missing);
+			error = fetched != null ? fetched.getError() : null;
+			long fetchedAt = now();
+			synchronized (this) {
+				EnumMap<QuoteSummaryRequest.Module, Entry> cached =
+						entries.computeIfAbsent(symbol, s -> new EnumMap<>(QuoteSummaryRequest.Module.class));
+				for (QuoteSummaryRequest.Module module : missing) {
+					QuoteSummaryModule<?> value = fetched != null ? fetched.getModule(module.getModuleName()) : null;
+					if (value != null) {
+						found.put(module, value);
+					}
+					if (value != null || error == null) {
+						cached.put(module, new Entry(value, fetchedAt + getTtl(module).toNanos()));
+					}
+				}
+				evict();
+			}
+		}
+
+		StockQuoteSummary summary = new StockQuoteSummary();
+		summary.setModules(new ArrayList<>());
+		summary.setError(error);
+		found.forEach((module, value) -> summary.putModule(module.getModuleName(), value));
+		return summary;
+	}
+
+	public synchronized Duration getTtl(QuoteSummaryRequest.Module module) {
+		return ttls.getOrDefault(module, DEFAULT_TTL);
+	}
+
+	/**
+	 * Changes the time to live of a module; entries already cached keep their expiry.
+	 */
+	public synchronized void setTtl(QuoteSummaryRequest.Module module, Duration ttl) {
+		if (ttl.isNegative()) {
+			throw new IllegalArgumentException("TTL cannot be negative");
+		}
+		ttls.put(module, ttl);
+	}
+
+	public synchronized void invalidate(String symbol) {
+		entries.remove(symbol);
+	}
+
+	public synchronized void invalidate(String symbol, QuoteSummaryRequest.Module... modules) {
+		EnumMap<QuoteSummaryRequest.Module, Entry> cached = entries.get(symbol);
+		if (cached != null) {
+			Arrays.asList(modules).forEach(cached::remove);
+		}
+	}
+
+	public synchronized void invalidateAll() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized Stats getStats() {
+		return new Stats(hits, misses, evictions, fetches, entries.size());
+	}
+
+	protected StockQuoteSummary fetch(String symbol, Set<QuoteSummaryRequest.Module> modules)
+			throws YFinanceException {
+		return new QuoteSummaryRequest(symbol, modules).execute();
+	}
+
+	/**
+	 * Monotonic clock in nanoseconds.
+	 */
+	protected long now() {
+		return System.nanoTime();
+	}
+
+	private void evict() {
+		while (entries.size() > maxSymbols) {
+			String eldest = entries.keySet().iterator().next();
+			entries.remove(eldest);
+			evictions++;
+			log.debug("Evicted quote summary of {} from cache", eldest);
+		}
+	}
+
+	private static Map<QuoteSummaryRequest.Module, Duration> defaultTtls() {
+		EnumMap<QuoteSummaryRequest.Module, Duration> defaults = new EnumMap<>(QuoteSummaryRequest.Module.class);
+		for (QuoteSummaryRequest.Module module : EnumSet.of(
+				QuoteSummaryRequest.Module.SUMMARY_PROFILE,
+				QuoteSummaryRequest.Module.ASSET_PROFILE,
+				QuoteSummaryRequest.Module.FUND_PROFILE,
+				QuoteSummaryRequest.Module.QUOTE_TYPE,
+				QuoteSummaryRequest.Module.SEC_FILINGS,
+				QuoteSummaryRequest.Module.ESG_SCORES)) {
+			defaults.put(module, Duration.ofDays(1));
+		}
+		for (QuoteSummaryRequest.Module module : EnumSet.of(
+				QuoteSummaryRequest.Module.INCOME_STATEMENT_HISTORY,
+				QuoteSummaryRequest.Module.INCOME_STATEMENT_HISTORY_QUARTERLY,
+				QuoteSummaryRequest.Module.BALANCE_SHEET_HISTORY,
+				QuoteSummaryRequest.Module.BALANCE_SHEET_HISTORY_QUARTERLY,
+				QuoteSummaryRequest.Module.CASH_FLOW_STATEMENT_HISTORY,
+				QuoteSummaryRequest.Module.CASH_FLOW_STATEMENT_HISTORY_QUARTERLY,
+				QuoteSummaryRequest.Module.EARNINGS,
+				QuoteSummaryRequest.Module.EARNINGS_HISTORY,
+				QuoteSummaryRequest.Module.CALENDAR_EVENTS,
+				QuoteSummaryRequest.Module.INSTITUTION_OWNERSHIP,
+				QuoteSummaryRequest.Module.FUND_OWNERSHIP,
+				QuoteSummaryRequest.Module.MAJOR_DIRECT_HOLDERS,
+				QuoteSummaryRequest.Module.MAJOR_HOLDERS_BREAKDOWN,
+				QuoteSummaryRequest.Module.INSIDER_HOLDERS,
+				QuoteSummaryRequest.Module.INSIDER_TRANSACTIONS,
+				QuoteSummaryRequest.Module.NET_SHARE_PURCHASE_ACTIVITY,
+				QuoteSummaryRequest.Module.UPGRADE_DOWNGRADE_HISTORY)) {
+			defaults.put(module, Duration.ofHours(6));
+		}
+		return defaults;
+	}
+
+	private static final class Entry {
+		/** Null when Yahoo did not return the module for the symbol. */
+		private final QuoteSummaryModule<?> value;
+		private final long expiresAt;
+
+		private Entry(QuoteSummaryModule<?> value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class Stats {
+		/** Modules served from the cache. */
+		private final long hitCount;
+		/** Modules missing or expired. */
+		private final long missCount;
+		private final long evictionCount;
+		/** Requests sent to Yahoo. */
+		private final long fetchCount;
+		private final int size;
+
+		public double getHitRate() {
+			long total = hitCount + missCount;
+			return total == 0 ? 0 : (double) hitCount / total;
+		}
+	}
+}
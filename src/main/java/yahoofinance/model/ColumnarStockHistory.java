@@ -0,0 +1,412 @@
+package yahoofinance.model;
+
+import lombok.Getter;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Column oriented, primitive backed representation of {@link StockHistory} bars.
+ * <p>
+ * Timestamps, prices and volumes are kept in {@code long[]}/{@code double[]} arrays. Each column keeps its own
+ * missing values: a price Yahoo reported as {@code null} is stored as {@link Double#NaN} and a missing volume is
+ * stored as zero with its bit set in a separate {@link BitSet}. A bar is {@linkplain #isValid(int) valid} when all
+ * four prices are present, which another {@link BitSet} records for fast scans.
+ * <p>
+ * {@link #asStockHistory()} exposes the columns through the familiar boxed {@link StockHistory} getters without
+ * copying them, returning {@code null} exactly where the JSON did; the lists of such a view are read only.
+ * {@link #toStockHistory()} copies them into ordinary mutable lists instead.
+ */
+public class ColumnarStockHistory {
+
+	@Getter
+	private final StockHistory.Meta meta;
+	private final long[] timestamps;
+	private final double[] open;
+	private final double[] high;
+	private final double[] low;
+	private final double[] close;
+	private final long[] volume;
+	private final BitSet valid;
+	private final BitSet missingVolume;
+
+	/**
+	 * Creates columns whose volume is missing exactly for the bars which are not valid.
+	 */
+	public ColumnarStockHistory(StockHistory.Meta meta, long[] timestamps, double[] open, double[] high,
+	                            double[] low, double[] close, long[] volume, BitSet valid) {
+		this(meta, timestamps, open, high, low, close, volume, valid, invalidBars(valid, timestamps.length));
+	}
+
+	/**
+	 * @param valid         bars with all four prices, missing prices are {@link Double#NaN}
+	 * @param missingVolume bars for which no volume was reported
+	 */
+	public ColumnarStockHistory(StockHistory.Meta meta, long[] timestamps, double[] open, double[] high,
+	                            double[] low, double[] close, long[] volume, BitSet valid, BitSet missingVolume) {
+		int size = timestamps.length;
+		if (open.length != size || high.length != size || low.length != size || close.length != size
+		    || volume.length != size) {
+			throw new IllegalArgumentException("All columns must have the same length as timestamps");
+		}
+		this.meta = meta;
+		this.timestamps = timestamps;
+		this.open = open;
+		this.high = high;
+		this.low = low;
+		this.close = close;
+		this.volume = volume;
+		this.valid = valid;
+		this.missingVolume = missingVolume;
+	}
+
+	/**
+	 * Converts a boxed StockHistory into columns. If the history is a view created by {@link #asStockHistory()},
+	 * the backing instance is returned without copying.
+	 */
+	public static ColumnarStockHistory from(StockHistory history) {
+		ColumnarStockHistory backing = backingOf(history);
+		if (backing != null) {
+			return backing;
+		}
+
+		List<Long> timestampList = history.getTimestamp();
+		StockHistory.Quote quote = history.getIndicators() != null && history.getIndicators().getQuote() != null
+		                           && !history.getIndicators().getQuote().isEmpty()
+				? history.getIndicators().getQuote().get(0) : null;
+
+		int size = timestampList != null ? timestampList.size() : 0;
+		long[] timestamps = new long[size];
+		double[] open = new double[size];
+		double[] high = new double[size];
+		double[] low = new double[size];
+		double[] close = new double[size];
+		long[] volume = new long[size];
+		BitSet valid = new BitSet(size);
+		BitSet missingVolume = new BitSet(size);
+
+		for (int i = 0; i < size; i++) {
+			timestamps[i] = timestampList.get(i);
+			Double o = quote != null ? valueAt(quote.getOpen(), i) : null;
+			Double h = quote != null ? valueAt(quote.getHigh(), i) : null;
+			Double l = quote != null ? valueAt(quote.getLow(), i) : null;
+			Double c = quote != null ? valueAt(quote.getClose(), i) : null;
+			Long v = quote != null ? valueAt(quote.getVolume(), i) : null;
+
+			open[i] = o != null ? o : Double.NaN;
+			high[i] = h != null ? h : Double.NaN;
+			low[i] = l != null ? l : Double.NaN;
+			close[i] = c != null ? c : Double.NaN;
+			if (v != null) {
+				volume[i] = v;
+			} else {
+				missingVolume.set(i);
+			}
+			if (o != null && h != null && l != null && c != null) {
+				valid.set(i);
+			}
+		}
+
+		return new ColumnarStockHistory(history.getMeta(), timestamps, open, high, low, close, volume, valid,
+				missingVolume);
+	}
+
+	/**
+	 * Merges histories into a single one ordered by timestamp. When several parts contain the same timestamp the
+	 * bar from the later part wins, so overlapping request windows are de-duplicated and a refreshed tail replaces
+	 * stale bars. The meta of the last part with meta is kept.
+	 */
+	public static ColumnarStockHistory merge(List<ColumnarStockHistory> parts) {
+		ColumnarStockHistory merged = null;
+		for (ColumnarStockHistory part : parts) {
+			if (part == null) {
+				continue;
+			}
+			merged = merged == null ? part : merge(merged, part);
+		}
+		return merged;
+	}
+
+	private static ColumnarStockHistory merge(ColumnarStockHistory first, ColumnarStockHistory second) {
+		int capacity = first.size() + second.size();
+		long[] timestamps = new long[capacity];
+		double[] open = new double[capacity];
+		double[] high = new double[capacity];
+		double[] low = new double[capacity];
+		double[] close = new double[capacity];
+		long[] volume = new long[capacity];
+		BitSet valid = new BitSet(capacity);
+		BitSet missingVolume = new BitSet(capacity);
+
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < first.size() || j < second.size()) {
+			ColumnarStockHistory source;
+			int index;
+			if (j >= second.size() || (i < first.size() && first.timestamps[i] < second.timestamps[j])) {
+				source = first;
+				index = i++;
+			} else {
+				if (i < first.size() && first.timestamps[i] == second.timestamps[j]) {
+					i++;
+				}
+				source = second;
+				index = j++;
+			}
+
+			if (n > 0 && timestamps[n - 1] == source.timestamps[index]) {
+				n--;
+			}
+			timestamps[n] = source.timestamps[index];
+			open[n] = source.open[index];
+			high[n] = source.high[index];
+			low[n] = source.low[index];
+			close[n] = source.close[index];
+			volume[n] = source.volume[index];
+			valid.set(n, source.valid.get(index));
+			missingVolume.set(n, source.missingVolume.get(index));
+			n++;
+		}
+
+		StockHistory.Meta meta = second.meta != null ? second.meta : first.meta;
+		if (n < capacity) {
+			valid.clear(n, capacity);
+			missingVolume.clear(n, capacity);
+			return new ColumnarStockHistory(meta, Arrays.copyOf(timestamps, n), Arrays.copyOf(open, n),
+					Arrays.copyOf(high, n), Arrays.copyOf(low, n), Arrays.copyOf(close, n), Arrays.copyOf(volume, n),
+					valid, missingVolume);
+		}
+		return new ColumnarStockHistory(meta, timestamps, open, high, low, close, volume, valid, missingVolume);
+	}
+
+	/**
+	 * @return copy of the bars in {@code [fromIndex, toIndex)}
+	 */
+	public ColumnarStockHistory slice(int fromIndex, int toIndex) {
+		Objects.checkFromToIndex(fromIndex, toIndex, timestamps.length);
+		return new ColumnarStockHistory(meta,
+				Arrays.copyOfRange(timestamps, fromIndex, toIndex),
+				Arrays.copyOfRange(open, fromIndex, toIndex),
+				Arrays.copyOfRange(high, fromIndex, toIndex),
+				Arrays.copyOfRange(low, fromIndex, toIndex),
+				Arrays.copyOfRange(close, fromIndex, toIndex),
+				Arrays.copyOfRange(volume, fromIndex, toIndex),
+				valid.get(fromIndex, toIndex),
+				missingVolume.get(fromIndex, toIndex));
+	}
+
+	/**
+	 * @return copy of the bars with {@code from <= timestamp < to}
+	 */
+	public ColumnarStockHistory sliceByTime(long from, long to) {
+		return slice(lowerBound(from), lowerBound(to));
+	}
+
+	private int lowerBound(long timestamp) {
+		int index = Arrays.binarySearch(timestamps, timestamp);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	/**
+	 * @return history sharing these (never modified) columns with the given meta
+	 */
+	public ColumnarStockHistory withMeta(StockHistory.Meta meta) {
+		return new ColumnarStockHistory(meta, timestamps, open, high, low, close, volume, valid, missingVolume);
+	}
+
+	public int size() {
+		return timestamps.length;
+	}
+
+	public boolean isValid(int index) {
+		Objects.checkIndex(index, timestamps.length);
+		return valid.get(index);
+	}
+
+	/**
+	 * @return whether a volume was reported for the bar, {@link #getVolume(int)} is zero otherwise
+	 */
+	public boolean hasVolume(int index) {
+		Objects.checkIndex(index, timestamps.length);
+		return !missingVolume.get(index);
+	}
+
+	public int validCount() {
+		return valid.cardinality();
+	}
+
+	public long getTimestamp(int index) {
+		return timestamps[index];
+	}
+
+	public double getOpen(int index) {
+		return open[index];
+	}
+
+	public double getHigh(int index) {
+		return high[index];
+	}
+
+	public double getLow(int index) {
+		return low[index];
+	}
+
+	public double getClose(int index) {
+		return close[index];
+	}
+
+	public long getVolume(int index) {
+		return volume[index];
+	}
+
+	public long getFirstTimestamp() {
+		return timestamps[0];
+	}
+
+	public long getLastTimestamp() {
+		return timestamps[timestamps.length - 1];
+	}
+
+	/**
+	 * @return index of the bar with the given timestamp, or {@code -(insertion point) - 1} like
+	 * {@link Arrays#binarySearch(long[], long)}
+	 */
+	public int indexOf(long timestamp) {
+		return Arrays.binarySearch(timestamps, timestamp);
+	}
+
+	/**
+	 * @return StockHistory whose timestamp and quote lists are read only views of these columns
+	 */
+	public StockHistory asStockHistory() {
+		StockHistory.Quote quote = new StockHistory.Quote();
+		quote.setOpen(new PriceView(open));
+		quote.setHigh(new PriceView(high));
+		quote.setLow(new PriceView(low));
+		quote.setClose(new PriceView(close));
+		quote.setVolume(new VolumeView());
+
+		StockHistory.Indicators indicators = new StockHistory.Indicators();
+		indicators.setQuote(List.of(quote));
+
+		StockHistory history = new StockHistory();
+		history.setMeta(meta);
+		history.setTimestamp(new TimestampView());
+		history.setIndicators(indicators);
+		return history;
+	}
+
+	/**
+	 * @return StockHistory with its own mutable lists, missing values are {@code null}
+	 */
+	public StockHistory toStockHistory() {
+		StockHistory.Quote quote = new StockHistory.Quote();
+		quote.setOpen(new ArrayList<>(new PriceView(open)));
+		quote.setHigh(new ArrayList<>(new PriceView(high)));
+		quote.setLow(new ArrayList<>(new PriceView(low)));
+		quote.setClose(new ArrayList<>(new PriceView(close)));
+		quote.setVolume(new ArrayList<>(new VolumeView()));
+
+		StockHistory.Indicators indicators = new StockHistory.Indicators();
+		indicators.setQuote(new ArrayList<>(List.of(quote)));
+
+		StockHistory history = new StockHistory();
+		history.setMeta(meta);
+		history.setTimestamp(new ArrayList<>(new TimestampView()));
+		history.setIndicators(indicators);
+		return history;
+	}
+
+	private static ColumnarStockHistory backingOf(StockHistory history) {
+		if (!(history.getTimestamp() instanceof TimestampView timestampView)) {
+			return null;
+		}
+		ColumnarStockHistory owner = timestampView.owner();
+		if (history.getMeta() != owner.meta || history.getIndicators() == null
+		    || history.getIndicators().getQuote() == null || history.getIndicators().getQuote().size() != 1) {
+			return null;
+		}
+
+		StockHistory.Quote quote = history.getIndicators().getQuote().get(0);
+		boolean sameColumns = quote.getOpen() instanceof PriceView o && o.owner() == owner && o.values == owner.open
+		                      && quote.getHigh() instanceof PriceView h && h.owner() == owner && h.values == owner.high
+		                      && quote.getLow() instanceof PriceView l && l.owner() == owner && l.values == owner.low
+		                      && quote.getClose() instanceof PriceView c && c.owner() == owner && c.values == owner.close
+		                      && quote.getVolume() instanceof VolumeView v && v.owner() == owner;
+		return sameColumns ? owner : null;
+	}
+
+	private static BitSet invalidBars(BitSet valid, int size) {
+		BitSet invalid = new BitSet(size);
+		invalid.set(0, size);
+		invalid.andNot(valid);
+		return invalid;
+	}
+
+	private static <T> T valueAt(List<T> values, int index) {
+		return values != null && index < values.size() ? values.get(index) : null;
+	}
+
+	private final class TimestampView extends AbstractList<Long> implements RandomAccess {
+		@Override
+		public Long get(int index) {
+			return timestamps[index];
+		}
+
+		@Override
+		public int size() {
+			return timestamps.length;
+		}
+
+		ColumnarStockHistory owner() {
+			return ColumnarStockHistory.this;
+		}
+	}
+
+	private final class PriceView extends AbstractList<Double> implements RandomAccess {
+		private final double[] values;
+
+		private PriceView(double[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public Double get(int index) {
+			Objects.checkIndex(index, values.length);
+			double value = values[index];
+			return Double.isNaN(value) ? null : value;
+		}
+
+		@Override
+		public int size() {
+			return values.length;
+		}
+
+		ColumnarStockHistory owner() {
+			return ColumnarStockHistory.this;
+		}
+	}
+
+	private final class VolumeView extends AbstractList<Long> implements RandomAccess {
+		@Override
+		public Long get(int index) {
+			Objects.checkIndex(index, volume.length);
+			return missingVolume.get(index) ? null : volume[index];
+		}
+
+		@Override
+		public int size() {
+			return volume.length;
+		}
+
+		ColumnarStockHistory owner() {
+			return ColumnarStockHistory.this;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package yahoofinance.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Mutable counterpart of {@link Pricing.PricingData} with primitive fields.
+ * <p>
+ * Instances are reused by the streaming decoder: a tick handed to a consumer is only valid until the consumer
+ * returns. Use {@link #copy()} or {@link #toPricingData()} to keep it.
+ */
+@Getter
+@Setter
+public class PricingTick {
+
+	private String id = "";
+	private float price;
+	private long time;
+	private String currency = "";
+	private String exchange = "";
+	private int quoteType;
+	private int marketHours;
+	private float changePercent;
+	private long dayVolume;
+	private float dayHigh;
+	private float dayLow;
+	private float change;
+	private String shortName = "";
+	private long expireDate;
+	private float openPrice;
+	private float previousClose;
+	private float strikePrice;
+	private String underlyingSymbol = "";
+	private long openInterest;
+	private long optionsType;
+	private long miniOption;
+	private long lastSize;
+	private float bid;
+	private long bidSize;
+	private float ask;
+	private long askSize;
+	private long priceHint;
+	private long vol24hr;
+	private long volAllCurrencies;
+	private String fromCurrency = "";
+	private String lastMarket = "";
+	private double circulatingSupply;
+	private double marketCap;
+
+	/**
+	 * Resets every field to its protobuf default.
+	 */
+	public void clear() {
+		id = currency = exchange = shortName = underlyingSymbol = fromCurrency = lastMarket = "";
+		price = changePercent = dayHigh = dayLow = change = openPrice = previousClose = strikePrice = bid = ask = 0f;
+		time = dayVolume = expireDate = openInterest = optionsType = miniOption = lastSize = 0L;
+		bidSize = askSize = priceHint = vol24hr = volAllCurrencies = 0L;
+		quoteType = marketHours = 0;
+		circulatingSupply = marketCap = 0d;
+	}
+
+	public PricingTick copyFrom(PricingTick other) {
+		id = other.id;
+		price = other.price;
+		time = other.time;
+		currency = other.currency;
+		exchange = other.exchange;
+		quoteType = other.quoteType;
+		marketHours = other.marketHours;
+		changePercent = other.changePercent;
+		dayVolume = other.dayVolume;
+		dayHigh = other.dayHigh;
+		dayLow = other.dayLow;
+		change = other.change;
+		shortName = other.shortName;
+		expireDate = other.expireDate;
+		openPrice = other.openPrice;
+		previousClose = other.previousClose;
+		strikePrice = other.strikePrice;
+		underlyingSymbol = other.underlyingSymbol;
+		openInterest = other.openInterest;
+		optionsType = other.optionsType;
+		miniOption = other.miniOption;
+		lastSize = other.lastSize;
+		bid = other.bid;
+		bidSize = other.bidSize;
+		ask = other.ask;
+		askSize = other.askSize;
+		priceHint = other.priceHint;
+		vol24hr = other.vol24hr;
+		volAllCurrencies = other.volAllCurrencies;
+		fromCurrency = other.fromCurrency;
+		lastMarket = other.lastMarket;
+		circulatingSupply = other.circulatingSupply;
+		marketCap = other.marketCap;
+		return this;
+	}
+
+	public PricingTick copy() {
+		return new PricingTick().copyFrom(this);
+	}
+
+	public Pricing.PricingData toPricingData() {
+		return Pricing.PricingData.newBuilder()
+				.setId(id)
+				.setPrice(price)
+				.setTime(time)
+				.setCurrency(currency)
+				.setExchange(exchange)
+				.setQuoteType(quoteType)
+				.setMarketHours(marketHours)
+				.setChangePercent(changePercent)
+				.setDayVolume(dayVolume)
+				.setDayHigh(dayHigh)
+				.setDayLow(dayLow)
+				.setChange(change)
+				.setShortName(shortName)
+				.setExpireDate(expireDate)
+				.setOpenPrice(openPrice)
+				.setPreviousClose(previousClose)
+				.setStrikePrice(strikePrice)
+				.setUnderlyingSymbol(underlyingSymbol)
+				.setOpenInterest(openInterest)
+				.setOptionsType(optionsType)
+				.setMiniOption(miniOption)
+				.setLastSize(lastSize)
+				.setBid(bid)
+				.setBidSize(bidSize)
+				.setAsk(ask)
+				.setAskSize(askSize)
+				.setPriceHint(priceHint)
+				.setVol24Hr(vol24hr)
+				.setVolAllCurrencies(volAllCurrencies)
+				.setFromCurrency(fromCurrency)
+				.setLastMarket(lastMarket)
+				.setCirculatingSupply(circulatingSupply)
+				.setMarketCap(marketCap)
+				.build();
+	}
+}
@@ -85,6 +85,14 @@ public class StockHistory {
 		private Long gmtoffset;
 	}
 
+	/**
+	 * @return primitive column representation of the bars, without copying when this history is already a view
+	 * of a {@link ColumnarStockHistory}
+	 */
+	public ColumnarStockHistory toColumnar() {
+		return ColumnarStockHistory.from(this);
+	}
+
 	public String prettyPrintChart() {
 		if (this.meta == null || this.timestamp == null || this.indicators == null ||
 		    this.indicators.getQuote() == null || this.indicators.getQuote().isEmpty()) {
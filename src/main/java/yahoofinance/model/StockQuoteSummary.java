@@ -1,10 +1,13 @@
 package yahoofinance.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import yahoofinance.model.common.QuoteSummaryModule;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -13,8 +16,41 @@ import java.util.Optional;
 @Setter
 @Getter
 public class StockQuoteSummary {
+	@Setter(AccessLevel.NONE)
 	private List<QuoteSummaryModule<?>> modules;
 	private String error;
+	@Getter(AccessLevel.NONE)
+	private final Map<String, QuoteSummaryModule<?>> modulesByName = new LinkedHashMap<>();
+
+	/**
+	 * Replaces the modules. Names added through {@link #putModule(String, QuoteSummaryModule)} are kept only for
+	 * modules still in the list.
+	 */
+	public void setModules(List<QuoteSummaryModule<?>> modules) {
+		this.modules = modules;
+		modulesByName.values().removeIf(module -> modules == null || modules.stream().noneMatch(m -> m == module));
+	}
+
+	/**
+	 * Adds a module under its Yahoo module name, e.g. {@code "assetProfile"}.
+	 */
+	public void putModule(String moduleName, QuoteSummaryModule<?> module) {
+		if (modules == null) {
+			modules = new ArrayList<>();
+		}
+		QuoteSummaryModule<?> previous = modulesByName.put(moduleName, module);
+		if (previous != null) {
+			modules.remove(previous);
+		}
+		modules.add(module);
+	}
+
+	/**
+	 * @return the module added under the Yahoo module name, or null
+	 */
+	public QuoteSummaryModule<?> getModule(String moduleName) {
+		return modulesByName.get(moduleName);
+	}
 
 	@SuppressWarnings("unchecked")
 	public <T extends QuoteSummaryModule<T>> Optional<T> getModule(Class<T> moduleClass) {
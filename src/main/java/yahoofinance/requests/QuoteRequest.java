@@ -1,29 +1,44 @@
 package yahoofinance.requests;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import yahoofinance.exception.ConnectionException;
 import yahoofinance.exception.YFinanceException;
 import yahoofinance.util.Utils;
-import yahoofinance.web.RedirectableRequest;
+import yahoofinance.web.HttpTransport;
 
 import javax.xml.bind.ValidationException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.URL;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public abstract class QuoteRequest<T> {
 
 	private final String symbol;
-	private final ObjectMapper objectMapper = new ObjectMapper();
-	private static final int CONNECTION_TIMEOUT = 10000;
-	private static final int READ_TIMEOUT = 15000;
+	private static final Duration READ_TIMEOUT = Duration.ofMillis(15000);
+	private static final int PROTOCOL_REDIRECT_LIMIT = 5;
+	private static volatile Executor defaultAsyncExecutor = ForkJoinPool.commonPool();
+	/**
+	 * Requests in flight keyed by request type and URL, see {@link #setRequestCoalescing(boolean)}.
+	 */
+	private static final ConcurrentHashMap<String, CompletableFuture<Object>> IN_FLIGHT = new ConcurrentHashMap<>();
+	private static final AtomicLong COALESCED_REQUESTS = new AtomicLong();
+	private static volatile boolean requestCoalescing = true;
 
 	protected QuoteRequest(String symbol) {
 		this.symbol = symbol;
@@ -88,62 +103,99 @@ public abstract class QuoteRequest<T> {
 		return urlBuilder.toString();
 	}
 
-	protected HttpURLConnection setupConnection(URL url) throws YFinanceException {
-		RedirectableRequest redirectableRequest = new RedirectableRequest(url, 5);
-		redirectableRequest.setConnectTimeout(CONNECTION_TIMEOUT);
-		redirectableRequest.setReadTimeout(READ_TIMEOUT);
-		return (HttpURLConnection) redirectableRequest.openConnection(useCookieAndCrumb());
+	protected HttpResponse<InputStream> sendRequest(URI uri) throws YFinanceException {
+		return HttpTransport.send(uri, useCookieAndCrumb(), READ_TIMEOUT, PROTOCOL_REDIRECT_LIMIT);
 	}
 
-	protected void handleErrorResponse(HttpURLConnection connection) throws IOException {
-		int responseCode = connection.getResponseCode();
-		String responseMessage = connection.getResponseMessage();
+	protected CompletableFuture<HttpResponse<byte[]>> sendRequestAsync(URI uri, Executor executor) {
+		return HttpTransport.sendAsync(uri, useCookieAndCrumb(), READ_TIMEOUT, PROTOCOL_REDIRECT_LIMIT, executor);
+	}
 
-		log.error("HTTP Error {}: {}", responseCode, responseMessage);
-		log.error("Request URL: {}", connection.getURL());
+	protected void handleErrorResponse(int responseCode, URI uri, InputStream body) throws ConnectionException {
+		log.error("HTTP Error {}", responseCode);
+		log.error("Request URL: {}", uri);
 
-		try (InputStreamReader errorStream = new InputStreamReader(
-				connection.getErrorStream() != null ? connection.getErrorStream() : connection.getInputStream())) {
-			JsonNode errorNode = objectMapper.readTree(errorStream);
+		try {
+			JsonNode errorNode = Utils.getObjectReader().readTree(body);
 			log.error("Error response body: {}", errorNode.toPrettyString());
 		} catch (Exception e) {
 			log.error("Could not parse error response", e);
 		}
 
-		throw new IOException(String.format("HTTP %d: %s", responseCode, responseMessage));
+		throw new ConnectionException(String.format("HTTP error response: %d", responseCode),
+				responseCode, uri.toString());
 	}
 
+	/**
+	 * Reads the response body into the result object. The default implementation builds the whole JSON tree and
+	 * hands the result node to {@link #parseJson(JsonNode)}; requests with large payloads may override it to decode
+	 * the body while streaming.
+	 */
+	protected T readResponse(InputStream body) throws IOException, YFinanceException {
+		JsonNode node = Utils.getObjectReader().readTree(body);
+
+		if (log.isTraceEnabled()) {
+			log.trace("Response JSON: {}", node.toPrettyString());
+		}
+		try {
+			if (extractResultNode())
+				node = getResultNode(node, node.fieldNames().next());
+		} catch (ValidationException e) {
+			throw new YFinanceException(e.getMessage());
+		}
+
+		return parseJson(node);
+	}
+
+	/**
+	 * Executes the request. While an identical request (same type and URL) is in flight the call waits for it and
+	 * returns the same result instance instead of sending another one, unless coalescing is disabled.
+	 */
+	@SuppressWarnings("unchecked")
 	public final T execute() throws YFinanceException {
 		if (requiresSymbol() && (symbol == null || symbol.trim().isEmpty())) {
 			throw new IllegalArgumentException("Symbol is required for this request type");
 		}
 
 		String requestUrl = buildRequestURL();
-		HttpURLConnection connection = null;
-		log.debug("Executing request: {}", requestUrl);
+		if (!requestCoalescing) {
+			return send(requestUrl);
+		}
+
+		String key = coalescingKey(requestUrl);
+		CompletableFuture<Object> flight = new CompletableFuture<>();
+		CompletableFuture<Object> inFlight = IN_FLIGHT.putIfAbsent(key, flight);
+		if (inFlight != null) {
+			COALESCED_REQUESTS.incrementAndGet();
+			log.debug("Joining in-flight request: {}", requestUrl);
+			return (T) await(inFlight);
+		}
 
 		try {
-			URL url = URI.create(requestUrl).toURL();
-			connection = setupConnection(url);
-			int responseCode = connection.getResponseCode();
+			T result = send(requestUrl);
+			flight.complete(result);
+			return result;
+		} catch (Throwable e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			IN_FLIGHT.remove(key, flight);
+		}
+	}
 
-			if (responseCode >= 400) {
-				handleErrorResponse(connection);
-				return null;
-			}
+	private T send(String requestUrl) throws YFinanceException {
+		log.debug("Executing request: {}", requestUrl);
 
-			try (InputStreamReader inputStream = new InputStreamReader(connection.getInputStream())) {
-				JsonNode node = objectMapper.readTree(inputStream);
+		try {
+			HttpResponse<InputStream> response = sendRequest(URI.create(requestUrl));
 
-				if (log.isTraceEnabled()) {
-					log.trace("Response JSON: {}", node.toPrettyString());
+			try (InputStream inputStream = response.body()) {
+				if (response.statusCode() >= 400) {
+					handleErrorResponse(response.statusCode(), response.uri(), inputStream);
+					return null;
 				}
-				if (extractResultNode())
-					node = getResultNode(node, node.fieldNames().next());
 
-				return parseJson(node);
-			} catch (ValidationException e) {
-				throw new YFinanceException(e.getMessage());
+				return readResponse(inputStream);
 			}
 
 		} catch (IOException e) {
@@ -151,12 +203,160 @@ public abstract class QuoteRequest<T> {
 			log.error("Failed to execute request for {}: {}",
 					requiresSymbol() ? symbol : "market data", e.getMessage());
 			throw new ConnectionException("Failed to execute request for " + ticker + ": " + e.getMessage());
-		} finally {
-			if (connection != null)
-				connection.disconnect();
 		}
 	}
 
+	/**
+	 * Executes the request without blocking the calling thread, parsing the response on the default executor
+	 * (see {@link #setDefaultAsyncExecutor(Executor)}).
+	 *
+	 * @return future completed with the parsed result, or exceptionally with a {@link YFinanceException}
+	 */
+	public final CompletableFuture<T> executeAsync() {
+		return executeAsync(defaultAsyncExecutor);
+	}
+
+	/**
+	 * Executes the request without blocking the calling thread. The HTTP exchange is driven by the shared
+	 * asynchronous client and only response parsing runs on {@code executor}.
+	 *
+	 * @param executor executor used for parsing the response
+	 * @return future completed with the parsed result, or exceptionally with a {@link YFinanceException}
+	 */
+	@SuppressWarnings("unchecked")
+	public final CompletableFuture<T> executeAsync(Executor executor) {
+		if (requiresSymbol() && (symbol == null || symbol.trim().isEmpty())) {
+			return CompletableFuture.failedFuture(
+					new IllegalArgumentException("Symbol is required for this request type"));
+		}
+
+		String requestUrl = buildRequestURL();
+		if (!requestCoalescing) {
+			try {
+				return sendAsync(requestUrl, executor);
+			} catch (RuntimeException e) {
+				return CompletableFuture.failedFuture(e);
+			}
+		}
+
+		String key = coalescingKey(requestUrl);
+		CompletableFuture<Object> flight = new CompletableFuture<>();
+		CompletableFuture<Object> inFlight = IN_FLIGHT.putIfAbsent(key, flight);
+		if (inFlight != null) {
+			COALESCED_REQUESTS.incrementAndGet();
+			log.debug("Joining in-flight async request: {}", requestUrl);
+			return inFlight.thenApply(result -> (T) result);
+		}
+
+		CompletableFuture<T> sent;
+		try {
+			sent = sendAsync(requestUrl, executor);
+		} catch (RuntimeException e) {
+			// failed before a future existed (invalid URL, no session), release the waiters right away
+			IN_FLIGHT.remove(key, flight);
+			flight.completeExceptionally(e);
+			return flight.thenApply(result -> (T) result);
+		}
+		sent.whenComplete((result, failure) -> {
+			IN_FLIGHT.remove(key, flight);
+			if (failure != null) {
+				flight.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null ?
+						failure.getCause() : failure);
+			} else {
+				flight.complete(result);
+			}
+		});
+		return flight.thenApply(result -> (T) result);
+	}
+
+	private CompletableFuture<T> sendAsync(String requestUrl, Executor executor) {
+		log.debug("Executing async request: {}", requestUrl);
+
+		return sendRequestAsync(URI.create(requestUrl), executor)
+				.thenApplyAsync(response -> {
+					try (InputStream inputStream = new ByteArrayInputStream(response.body())) {
+						if (response.statusCode() >= 400) {
+							handleErrorResponse(response.statusCode(), response.uri(), inputStream);
+							return null;
+						}
+
+						return readResponse(inputStream);
+					} catch (YFinanceException e) {
+						throw new CompletionException(e);
+					} catch (IOException e) {
+						String ticker = requiresSymbol() ? symbol : "market data";
+						log.error("Failed to execute request for {}: {}", ticker, e.getMessage());
+						throw new CompletionException(new ConnectionException(
+								"Failed to execute request for " + ticker + ": " + e.getMessage()));
+					}
+				}, executor);
+	}
+
+	/**
+	 * Enables or disables sharing one network call between identical requests in flight at the same time.
+	 * Enabled by default. Callers sharing a call receive the same result instance, which must therefore not be
+	 * modified.
+	 */
+	public static void setRequestCoalescing(boolean enabled) {
+		requestCoalescing = enabled;
+	}
+
+	public static boolean isRequestCoalescing() {
+		return requestCoalescing;
+	}
+
+	/**
+	 * @return number of requests served by joining an identical request in flight
+	 */
+	public static long getCoalescedRequestCount() {
+		return COALESCED_REQUESTS.get();
+	}
+
+	private String coalescingKey(String requestUrl) {
+		return getClass().getName() + ' ' + requestUrl;
+	}
+
+	/**
+	 * Waits for an identical request in flight, at most as long as that request may take with all its retries.
+	 */
+	private static Object await(CompletableFuture<Object> flight) throws YFinanceException {
+		int retries = HttpTransport.getMaxRetries();
+		// one read timeout per attempt, including the retry with a renewed session, plus the waits between retries
+		Duration maxWait = READ_TIMEOUT.multipliedBy(retries + 2L)
+				.plus(HttpTransport.getRetryMaxDelay().multipliedBy(retries));
+		try {
+			return flight.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new ConnectionException("Timed out waiting for an in-flight request", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConnectionException("Interrupted while waiting for an in-flight request", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof YFinanceException yFinanceException) {
+				throw yFinanceException;
+			}
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new ConnectionException("In-flight request failed: " + cause.getMessage(), cause);
+		}
+	}
+
+	public static Executor getDefaultAsyncExecutor() {
+		return defaultAsyncExecutor;
+	}
+
+	/**
+	 * Sets the executor used to parse responses of {@link #executeAsync()}. Defaults to the common pool.
+	 */
+	public static void setDefaultAsyncExecutor(Executor executor) {
+		if (executor == null) {
+			throw new IllegalArgumentException("Executor cannot be null");
+		}
+		defaultAsyncExecutor = executor;
+	}
+
 	protected final String getSymbol() {
 		return symbol;
 	}
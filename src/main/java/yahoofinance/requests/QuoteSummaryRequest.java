@@ -145,8 +145,8 @@ public class QuoteSummaryRequest extends QuoteRequest<StockQuoteSummary> {
 
 		if (quoteSummaryNode != null && quoteSummaryNode.isArray() && !quoteSummaryNode.isEmpty()) {
 			JsonNode firstResult = quoteSummaryNode.get(0);
-			List<QuoteSummaryModule<?>> modules = parseModules(firstResult);
-			quoteSummary.setModules(modules);
+			quoteSummary.setModules(new ArrayList<>());
+			parseModules(quoteSummary, firstResult);
 		} else {
 			log.error("Quote Summary node is null or empty");
 		}
@@ -154,54 +154,51 @@ public class QuoteSummaryRequest extends QuoteRequest<StockQuoteSummary> {
 		return quoteSummary;
 	}
 
-	private List<QuoteSummaryModule<?>> parseModules(JsonNode resultNode) {
-		List<QuoteSummaryModule<?>> modules = new ArrayList<>();
-
-		parseAndAddModule(modules, Module.ASSET_PROFILE, resultNode, "assetProfile", AssetProfile::fromJson);
-		parseAndAddModule(modules, Module.SUMMARY_DETAIL, resultNode, "summaryDetail", SummaryDetail::fromJson);
-		parseAndAddModule(modules, Module.DEFAULT_KEY_STATISTICS, resultNode, "defaultKeyStatistics", DefaultKeyStatistics::fromJson);
-		parseAndAddModule(modules, Module.QUOTE_TYPE, resultNode, "quoteType", QuoteType::fromJson);
-		parseAndAddModule(modules, Module.FINANCIAL_DATA, resultNode, "financialData", FinancialData::fromJson);
-		parseAndAddModule(modules, Module.CALENDAR_EVENTS, resultNode, "calendarEvents", CalendarEvents::fromJson);
-		parseAndAddModule(modules, Module.SUMMARY_PROFILE, resultNode, "summaryProfile", SummaryProfile::fromJson);
-		parseAndAddModule(modules, Module.ESG_SCORES, resultNode, "esgScores", EsgScores::fromJson);
-		parseAndAddModule(modules, Module.PRICE, resultNode, "price", Price::fromJson);
-		parseAndAddModule(modules, Module.EARNINGS, resultNode, "earnings", Earnings::fromJson);
-		parseAndAddModule(modules, Module.EARNINGS_HISTORY, resultNode, "earningsHistory", EarningsHistory::fromJson);
-		parseAndAddModule(modules, Module.EARNINGS_TREND, resultNode, "earningsTrend", EarningsTrend::fromJson);
-		parseAndAddModule(modules, Module.RECOMMENDATION_TREND, resultNode, "recommendationTrend", RecommendationTrend::fromJson);
-		parseAndAddModule(modules, Module.INDEX_TREND, resultNode, "indexTrend", IndexTrend::fromJson);
-		parseAndAddModule(modules, Module.INDUSTRY_TREND, resultNode, "industryTrend", IndustryTrend::fromJson);
+	private void parseModules(StockQuoteSummary summary, JsonNode resultNode) {
+
+		parseAndAddModule(summary, Module.ASSET_PROFILE, resultNode, "assetProfile", AssetProfile::fromJson);
+		parseAndAddModule(summary, Module.SUMMARY_DETAIL, resultNode, "summaryDetail", SummaryDetail::fromJson);
+		parseAndAddModule(summary, Module.DEFAULT_KEY_STATISTICS, resultNode, "defaultKeyStatistics", DefaultKeyStatistics::fromJson);
+		parseAndAddModule(summary, Module.QUOTE_TYPE, resultNode, "quoteType", QuoteType::fromJson);
+		parseAndAddModule(summary, Module.FINANCIAL_DATA, resultNode, "financialData", FinancialData::fromJson);
+		parseAndAddModule(summary, Module.CALENDAR_EVENTS, resultNode, "calendarEvents", CalendarEvents::fromJson);
+		parseAndAddModule(summary, Module.SUMMARY_PROFILE, resultNode, "summaryProfile", SummaryProfile::fromJson);
+		parseAndAddModule(summary, Module.ESG_SCORES, resultNode, "esgScores", EsgScores::fromJson);
+		parseAndAddModule(summary, Module.PRICE, resultNode, "price", Price::fromJson);
+		parseAndAddModule(summary, Module.EARNINGS, resultNode, "earnings", Earnings::fromJson);
+		parseAndAddModule(summary, Module.EARNINGS_HISTORY, resultNode, "earningsHistory", EarningsHistory::fromJson);
+		parseAndAddModule(summary, Module.EARNINGS_TREND, resultNode, "earningsTrend", EarningsTrend::fromJson);
+		parseAndAddModule(summary, Module.RECOMMENDATION_TREND, resultNode, "recommendationTrend", RecommendationTrend::fromJson);
+		parseAndAddModule(summary, Module.INDEX_TREND, resultNode, "indexTrend", IndexTrend::fromJson);
+		parseAndAddModule(summary, Module.INDUSTRY_TREND, resultNode, "industryTrend", IndustryTrend::fromJson);
 
 		// Financial statements
-		parseAndAddModule(modules, Module.INCOME_STATEMENT_HISTORY, resultNode, "incomeStatementHistory", IncomeStatementHistory::fromJson);
-		parseAndAddModule(modules, Module.INCOME_STATEMENT_HISTORY_QUARTERLY, resultNode, "incomeStatementHistoryQuarterly", IncomeStatementHistoryQuarterly::fromJson);
-		parseAndAddModule(modules, Module.BALANCE_SHEET_HISTORY, resultNode, "balanceSheetHistory", BalanceSheetHistory::fromJson);
-		parseAndAddModule(modules, Module.BALANCE_SHEET_HISTORY_QUARTERLY, resultNode, "balanceSheetHistoryQuarterly", BalanceSheetHistoryQuarterly::fromJson);
-		parseAndAddModule(modules, Module.CASH_FLOW_STATEMENT_HISTORY, resultNode, "cashFlowStatementHistory", CashflowStatementHistory::fromJson);
-		parseAndAddModule(modules, Module.CASH_FLOW_STATEMENT_HISTORY_QUARTERLY, resultNode, "cashFlowStatementHistoryQuarterly", CashflowStatementHistoryQuarterly::fromJson);
+		parseAndAddModule(summary, Module.INCOME_STATEMENT_HISTORY, resultNode, "incomeStatementHistory", IncomeStatementHistory::fromJson);
+		parseAndAddModule(summary, Module.INCOME_STATEMENT_HISTORY_QUARTERLY, resultNode, "incomeStatementHistoryQuarterly", IncomeStatementHistoryQuarterly::fromJson);
+		parseAndAddModule(summary, Module.BALANCE_SHEET_HISTORY, resultNode, "balanceSheetHistory", BalanceSheetHistory::fromJson);
+		parseAndAddModule(summary, Module.BALANCE_SHEET_HISTORY_QUARTERLY, resultNode, "balanceSheetHistoryQuarterly", BalanceSheetHistoryQuarterly::fromJson);
+		parseAndAddModule(summary, Module.CASH_FLOW_STATEMENT_HISTORY, resultNode, "cashFlowStatementHistory", CashflowStatementHistory::fromJson);
+		parseAndAddModule(summary, Module.CASH_FLOW_STATEMENT_HISTORY_QUARTERLY, resultNode, "cashFlowStatementHistoryQuarterly", CashflowStatementHistoryQuarterly::fromJson);
 
 		// Ownership and transactions
-		parseAndAddModule(modules, Module.INSTITUTION_OWNERSHIP, resultNode, "institutionOwnership", InstitutionOwnership::fromJson);
-		parseAndAddModule(modules, Module.FUND_OWNERSHIP, resultNode, "fundOwnership", FundOwnership::fromJson);
-		parseAndAddModule(modules, Module.MAJOR_DIRECT_HOLDERS, resultNode, "majorDirectHolders", MajorDirectHolders::fromJson);
-		parseAndAddModule(modules, Module.MAJOR_HOLDERS_BREAKDOWN, resultNode, "majorHoldersBreakdown", MajorHoldersBreakdown::fromJson);
-		parseAndAddModule(modules, Module.INSIDER_HOLDERS, resultNode, "insiderHolders", InsiderHolders::fromJson);
-		parseAndAddModule(modules, Module.INSIDER_TRANSACTIONS, resultNode, "insiderTransactions", InsiderTransactions::fromJson);
-		parseAndAddModule(modules, Module.NET_SHARE_PURCHASE_ACTIVITY, resultNode, "netSharePurchaseActivity", NetSharePurchaseActivity::fromJson);
+		parseAndAddModule(summary, Module.INSTITUTION_OWNERSHIP, resultNode, "institutionOwnership", InstitutionOwnership::fromJson);
+		parseAndAddModule(summary, Module.FUND_OWNERSHIP, resultNode, "fundOwnership", FundOwnership::fromJson);
+		parseAndAddModule(summary, Module.MAJOR_DIRECT_HOLDERS, resultNode, "majorDirectHolders", MajorDirectHolders::fromJson);
+		parseAndAddModule(summary, Module.MAJOR_HOLDERS_BREAKDOWN, resultNode, "majorHoldersBreakdown", MajorHoldersBreakdown::fromJson);
+		parseAndAddModule(summary, Module.INSIDER_HOLDERS, resultNode, "insiderHolders", InsiderHolders::fromJson);
+		parseAndAddModule(summary, Module.INSIDER_TRANSACTIONS, resultNode, "insiderTransactions", InsiderTransactions::fromJson);
+		parseAndAddModule(summary, Module.NET_SHARE_PURCHASE_ACTIVITY, resultNode, "netSharePurchaseActivity", NetSharePurchaseActivity::fromJson);
 
 		// Additional modules
-		parseAndAddModule(modules, Module.SEC_FILINGS, resultNode, "secFilings", SecFilings::fromJson);
-		parseAndAddModule(modules, Module.UPGRADE_DOWNGRADE_HISTORY, resultNode, "upgradeDowngradeHistory", UpgradeDowngradeHistory::fromJson);
-
-		return modules;
+		parseAndAddModule(summary, Module.SEC_FILINGS, resultNode, "secFilings", SecFilings::fromJson);
+		parseAndAddModule(summary, Module.UPGRADE_DOWNGRADE_HISTORY, resultNode, "upgradeDowngradeHistory", UpgradeDowngradeHistory::fromJson);
 	}
 
 	/**
 	 * Helper method to parse and add a module if it's requested and exists in the JSON
 	 */
 	private <T extends QuoteSummaryModule<T>> void parseAndAddModule(
-			List<QuoteSummaryModule<?>> modules,
+			StockQuoteSummary summary,
 			Module moduleType,
 			JsonNode resultNode,
 			String jsonFieldName,
@@ -213,7 +210,7 @@ public class QuoteSummaryRequest extends QuoteRequest<StockQuoteSummary> {
 				try {
 					T parsedModule = parser.parse(moduleNode);
 					if (parsedModule != null) {
-						modules.add(parsedModule);
+						summary.putModule(moduleType.getModuleName(), parsedModule);
 						log.debug("Successfully parsed module: {}", moduleType.name());
 					}
 				} catch (Exception e) {
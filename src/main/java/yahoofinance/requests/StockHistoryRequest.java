@@ -1,13 +1,21 @@
 package yahoofinance.requests;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import yahoofinance.exception.YFinanceException;
+import yahoofinance.model.ColumnarStockHistory;
 import yahoofinance.model.StockHistory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -83,11 +91,48 @@ public class StockHistoryRequest extends QuoteRequest<StockHistory> {
 		ONE_MONTH("1mo"),
 		THREE_MONTHS("3mo");
 
+		private static final long MINUTE = 60;
+		private static final long DAY = 24 * 60 * MINUTE;
+
 		private final String interval;
 
 		ValidIntervals(String interval) {
 			this.interval = interval;
 		}
+
+		/**
+		 * @return nominal length of a single bar in seconds, months are approximated by 30 days
+		 */
+		public long getDurationSeconds() {
+			return switch (this) {
+				case ONE_MINUTE -> MINUTE;
+				case TWO_MINUTES -> 2 * MINUTE;
+				case FIVE_MINUTES -> 5 * MINUTE;
+				case FIFTEEN_MINUTES -> 15 * MINUTE;
+				case THIRTY_MINUTES -> 30 * MINUTE;
+				case SIXTY_MINUTES, ONE_HOUR -> 60 * MINUTE;
+				case NINETY_MINUTES -> 90 * MINUTE;
+				case FOUR_HOURS -> 240 * MINUTE;
+				case ONE_DAY -> DAY;
+				case FIVE_DAYS -> 5 * DAY;
+				case ONE_WEEK -> 7 * DAY;
+				case ONE_MONTH -> 30 * DAY;
+				case THREE_MONTHS -> 90 * DAY;
+			};
+		}
+
+		/**
+		 * @return widest period1/period2 span Yahoo serves in a single request for this interval,
+		 * {@link Long#MAX_VALUE} when it is not limited
+		 */
+		public long getMaxRequestWindowSeconds() {
+			return switch (this) {
+				case ONE_MINUTE -> 7 * DAY;
+				case TWO_MINUTES, FIVE_MINUTES, FIFTEEN_MINUTES, THIRTY_MINUTES, NINETY_MINUTES -> 59 * DAY;
+				case SIXTY_MINUTES, ONE_HOUR, FOUR_HOURS -> 729 * DAY;
+				default -> Long.MAX_VALUE;
+			};
+		}
 	}
 
 
@@ -202,6 +247,293 @@ public class StockHistoryRequest extends QuoteRequest<StockHistory> {
 		return stockHistory;
 	}
 
+	@Override
+	protected StockHistory readResponse(InputStream body) throws IOException, YFinanceException {
+		return toStockHistory(readColumnar(body));
+	}
+
+	/**
+	 * Same request decoded into a {@link ColumnarStockHistory}, skipping the boxed lists. Executed separately from
+	 * this request, so the two never share a result.
+	 */
+	public QuoteRequest<ColumnarStockHistory> columnar() {
+		return new ColumnarRequest(this);
+	}
+
+	/**
+	 * Like {@link #parseColumnarStream(JsonParser)}, returning the bars in ordinary mutable lists.
+	 */
+	public StockHistory parseStream(JsonParser parser) throws IOException, YFinanceException {
+		return toStockHistory(parseColumnarStream(parser));
+	}
+
+	/**
+	 * Decodes a complete v8 chart response (<code>{"chart":{"result":[...],"error":...}}</code>) token by token.
+	 * Only the small meta object is materialized as a tree; timestamps and OHLCV values are read straight into
+	 * primitive columns.
+	 *
+	 * @param parser parser positioned before the root object
+	 * @return parsed history, or null when the response contains no result
+	 * @throws YFinanceException when the response reports an error or has no result node
+	 */
+	public ColumnarStockHistory parseColumnarStream(JsonParser parser) throws IOException, YFinanceException {
+		if (parser.nextToken() != JsonToken.START_OBJECT || parser.nextToken() != JsonToken.FIELD_NAME) {
+			throw new YFinanceException("No node chart available");
+		}
+
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new YFinanceException("No node " + parser.currentName() + " available");
+		}
+
+		ColumnarStockHistory stockHistory = null;
+		boolean hasResult = false;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = parser.currentName();
+			JsonToken token = parser.nextToken();
+
+			if ("error".equals(fieldName) && token != JsonToken.VALUE_NULL) {
+				JsonNode errorNode = parser.readValueAsTree();
+				String description = getStringValue(errorNode, "description");
+				throw new YFinanceException(description != null ? description : errorNode.asText());
+			} else if ("result".equals(fieldName) && token != JsonToken.VALUE_NULL) {
+				hasResult = true;
+				stockHistory = parseResultArray(parser);
+			} else {
+				parser.skipChildren();
+			}
+		}
+
+		if (!hasResult) {
+			throw new YFinanceException("No result node available");
+		}
+
+		return stockHistory;
+	}
+
+	private ColumnarStockHistory readColumnar(InputStream body) throws IOException, YFinanceException {
+		try (JsonParser parser = getObjectReader().createParser(body)) {
+			return parseColumnarStream(parser);
+		}
+	}
+
+	/**
+	 * A result without timestamps becomes a history with only its meta, like the tree parser returns it.
+	 */
+	private static StockHistory toStockHistory(ColumnarStockHistory columnar) {
+		if (columnar == null) {
+			return null;
+		}
+		if (columnar.size() == 0) {
+			StockHistory stockHistory = new StockHistory();
+			stockHistory.setMeta(columnar.getMeta());
+			return stockHistory;
+		}
+		return columnar.toStockHistory();
+	}
+
+	private ColumnarStockHistory parseResultArray(JsonParser parser) throws IOException {
+		if (parser.currentToken() != JsonToken.START_ARRAY) {
+			parser.skipChildren();
+			return null;
+		}
+
+		ColumnarStockHistory stockHistory = null;
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			if (stockHistory == null && parser.currentToken() == JsonToken.START_OBJECT) {
+				stockHistory = parseResultObject(parser);
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return stockHistory;
+	}
+
+	private ColumnarStockHistory parseResultObject(JsonParser parser) throws IOException {
+		StockHistory.Meta meta = null;
+		LongColumn timestamps = null;
+		QuoteColumns quoteColumns = null;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = parser.currentName();
+			JsonToken token = parser.nextToken();
+
+			if ("meta".equals(fieldName) && token == JsonToken.START_OBJECT) {
+				meta = parseMeta(parser.readValueAsTree());
+			} else if ("timestamp".equals(fieldName) && token == JsonToken.START_ARRAY) {
+				timestamps = readTimestamps(parser);
+			} else if ("indicators".equals(fieldName) && token == JsonToken.START_OBJECT) {
+				quoteColumns = parseIndicators(parser);
+			} else {
+				parser.skipChildren();
+			}
+		}
+
+		return buildColumnar(meta, timestamps != null ? timestamps : new LongColumn(), quoteColumns);
+	}
+
+	private static ColumnarStockHistory buildColumnar(StockHistory.Meta meta, LongColumn timestamps,
+	                                                  QuoteColumns columns) {
+		int size = timestamps.size;
+		if (columns == null) {
+			columns = new QuoteColumns();
+		}
+		double[] open = columns.open.toArray(size);
+		double[] high = columns.high.toArray(size);
+		double[] low = columns.low.toArray(size);
+		double[] close = columns.close.toArray(size);
+		long[] volume = columns.volume.toArray(size);
+
+		// each price column holds NaN where its value is missing, a bar is valid when none of them does
+		BitSet valid = new BitSet(size);
+		int pricedBars = Math.min(Math.min(columns.open.size, columns.high.size),
+				Math.min(columns.low.size, columns.close.size));
+		valid.set(0, Math.min(size, pricedBars));
+		valid.andNot(columns.nulls);
+
+		BitSet missingVolume = columns.volumeNulls.get(0, size);
+		if (columns.volume.size < size) {
+			missingVolume.set(columns.volume.size, size);
+		}
+
+		return new ColumnarStockHistory(meta, timestamps.toArray(size), open, high, low, close, volume, valid,
+				missingVolume);
+	}
+
+	private static LongColumn readTimestamps(JsonParser parser) throws IOException {
+		LongColumn timestamps = new LongColumn();
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (token.isNumeric()) {
+				timestamps.add(parser.getLongValue());
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return timestamps;
+	}
+
+	private QuoteColumns parseIndicators(JsonParser parser) throws IOException {
+		QuoteColumns quoteColumns = null;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = parser.currentName();
+			JsonToken token = parser.nextToken();
+
+			if ("quote".equals(fieldName) && token == JsonToken.START_ARRAY) {
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					if (quoteColumns == null && parser.currentToken() == JsonToken.START_OBJECT) {
+						quoteColumns = parseQuote(parser);
+					} else {
+						parser.skipChildren();
+					}
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+
+		return quoteColumns;
+	}
+
+	private QuoteColumns parseQuote(JsonParser parser) throws IOException {
+		QuoteColumns columns = new QuoteColumns();
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = parser.currentName();
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				parser.skipChildren();
+				continue;
+			}
+
+			switch (fieldName) {
+				case "high" -> readPrices(parser, columns.high, columns.nulls);
+				case "low" -> readPrices(parser, columns.low, columns.nulls);
+				case "open" -> readPrices(parser, columns.open, columns.nulls);
+				case "close" -> readPrices(parser, columns.close, columns.nulls);
+				case "volume" -> readVolumes(parser, columns.volume, columns.volumeNulls);
+				default -> parser.skipChildren();
+			}
+		}
+
+		return columns;
+	}
+
+	private static void readPrices(JsonParser parser, DoubleColumn column, BitSet nulls) throws IOException {
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (token.isNumeric()) {
+				column.add(parser.getDoubleValue());
+			} else {
+				parser.skipChildren();
+				nulls.set(column.size);
+				column.add(Double.NaN);
+			}
+		}
+	}
+
+	private static void readVolumes(JsonParser parser, LongColumn column, BitSet nulls) throws IOException {
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (token.isNumeric()) {
+				column.add(parser.getLongValue());
+			} else {
+				parser.skipChildren();
+				nulls.set(column.size);
+				column.add(0L);
+			}
+		}
+	}
+
+	private static final class QuoteColumns {
+		private final DoubleColumn open = new DoubleColumn();
+		private final DoubleColumn high = new DoubleColumn();
+		private final DoubleColumn low = new DoubleColumn();
+		private final DoubleColumn close = new DoubleColumn();
+		private final LongColumn volume = new LongColumn();
+		private final BitSet nulls = new BitSet();
+		private final BitSet volumeNulls = new BitSet();
+	}
+
+	private static final class DoubleColumn {
+		private double[] values = new double[256];
+		private int size;
+
+		private void add(double value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size << 1);
+			}
+			values[size++] = value;
+		}
+
+		/**
+		 * @return the values, padded with NaN when the column is shorter than {@code length}
+		 */
+		private double[] toArray(int length) {
+			double[] array = values.length == length ? values : Arrays.copyOf(values, length);
+			if (size < length) {
+				Arrays.fill(array, size, length, Double.NaN);
+			}
+			return array;
+		}
+	}
+
+	private static final class LongColumn {
+		private long[] values = new long[256];
+		private int size;
+
+		private void add(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size << 1);
+			}
+			values[size++] = value;
+		}
+
+		private long[] toArray(int length) {
+			return values.length == length ? values : Arrays.copyOf(values, length);
+		}
+	}
+
 	private StockHistory.Meta parseMeta(JsonNode metaNode) {
 		StockHistory.Meta meta = new StockHistory.Meta();
 
@@ -354,4 +686,34 @@ public class StockHistoryRequest extends QuoteRequest<StockHistory> {
 
 		return quote;
 	}
+
+	private static final class ColumnarRequest extends QuoteRequest<ColumnarStockHistory> {
+		private final StockHistoryRequest request;
+
+		private ColumnarRequest(StockHistoryRequest request) {
+			super(request.getSymbol());
+			this.request = request;
+		}
+
+		@Override
+		public String getURL() {
+			return request.getURL();
+		}
+
+		@Override
+		public Map<String, String> getParams() {
+			return request.getParams();
+		}
+
+		@Override
+		public ColumnarStockHistory parseJson(JsonNode node) {
+			StockHistory stockHistory = request.parseJson(node);
+			return stockHistory != null ? stockHistory.toColumnar() : null;
+		}
+
+		@Override
+		protected ColumnarStockHistory readResponse(InputStream body) throws IOException, YFinanceException {
+			return request.readColumnar(body);
+		}
+	}
 }
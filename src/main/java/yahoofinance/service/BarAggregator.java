@@ -0,0 +1,246 @@
+package yahoofinance.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.model.Pricing;
+import yahoofinance.model.PricingTick;
+import yahoofinance.model.StockHistory;
+import yahoofinance.requests.StockHistoryRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Builds OHLCV bars from streamed ticks, incrementally and without allocating per tick.
+ * <p>
+ * Every symbol keeps one mutable bar per interval. A bar starts at the interval boundary containing its first tick
+ * (boundaries are aligned to the epoch shifted by {@code alignmentOffsetSeconds}, e.g. {@code -4 * 3600} for
+ * New York daylight time) and is closed when a tick of a later bar arrives or {@link #advanceTo(long)} passes its
+ * end. Volume is the increase of {@code day_volume} during the bar, or the sum of {@code last_size} when the feed
+ * does not report a day volume. Ticks older than the current bar, or belonging to a bar already closed, are counted
+ * as late and ignored, so a closed bar is never emitted twice.
+ * <p>
+ * Only intervals with fixed boundaries up to one day are supported. All methods are synchronized, so ticks and
+ * {@link #advanceTo(long)} may come from different threads.
+ */
+@Slf4j
+public class BarAggregator implements Consumer<PricingTick> {
+
+	private final StockHistoryRequest.ValidIntervals[] intervals;
+	private final long[] durations;
+	@Getter
+	private final long alignmentOffsetSeconds;
+	private final BarListener listener;
+	private final Map<String, Bar[]> bars = new HashMap<>();
+	@Getter
+	private long lateTickCount;
+
+	/**
+	 * Receives closed bars. The bar instance is reused, use {@link Bar#copy()} or {@link Bar#toQuote()} to keep it.
+	 */
+	@FunctionalInterface
+	public interface BarListener {
+		void onBar(Bar bar);
+	}
+
+	public BarAggregator(Collection<StockHistoryRequest.ValidIntervals> intervals, BarListener listener) {
+		this(intervals, 0, listener);
+	}
+
+	public BarAggregator(Collection<StockHistoryRequest.ValidIntervals> intervals, long alignmentOffsetSeconds,
+	                     BarListener listener) {
+		if (intervals.isEmpty()) {
+			throw new IllegalArgumentException("At least one interval is required");
+		}
+		this.intervals = intervals.stream().distinct().toArray(StockHistoryRequest.ValidIntervals[]::new);
+		this.durations = new long[this.intervals.length];
+		for (int i = 0; i < this.intervals.length; i++) {
+			long duration = this.intervals[i].getDurationSeconds();
+			if (duration > StockHistoryRequest.ValidIntervals.ONE_DAY.getDurationSeconds()) {
+				throw new IllegalArgumentException("Interval " + this.intervals[i].getInterval()
+				                                   + " has no fixed boundaries and cannot be aggregated from ticks");
+			}
+			durations[i] = duration;
+		}
+		this.alignmentOffsetSeconds = alignmentOffsetSeconds;
+		this.listener = listener;
+	}
+
+	@Override
+	public void accept(PricingTick tick) {
+		onTick(tick.getId(), tick.getPrice(), tick.getTime(), tick.getDayVolume(), tick.getLastSize());
+	}
+
+	public void accept(Pricing.PricingData data) {
+		onTick(data.getId(), data.getPrice(), data.getTime(), data.getDayVolume(), data.getLastSize());
+	}
+
+	/**
+	 * @param time      tick time in epoch milliseconds
+	 * @param dayVolume cumulative volume of the day, 0 when unknown
+	 * @param lastSize  size of the last trade, used when the day volume is unknown
+	 */
+	public synchronized void onTick(String symbol, double price, long time, long dayVolume, long lastSize) {
+		Bar[] symbolBars = bars.get(symbol);
+		if (symbolBars == null) {
+			symbolBars = new Bar[intervals.length];
+			for (int i = 0; i < intervals.length; i++) {
+				symbolBars[i] = new Bar(symbol, intervals[i]);
+			}
+			bars.put(symbol, symbolBars);
+		}
+
+		long seconds = Math.floorDiv(time, 1000L);
+		for (int i = 0; i < symbolBars.length; i++) {
+			Bar bar = symbolBars[i];
+			long start = Math.floorDiv(seconds + alignmentOffsetSeconds, durations[i]) * durations[i]
+			             - alignmentOffsetSeconds;
+			if (bar.active ? start < bar.start : start <= bar.lastClosedStart) {
+				lateTickCount++;
+				continue;
+			}
+			if (bar.active && start > bar.start) {
+				close(bar);
+			}
+			if (!bar.active) {
+				bar.begin(start, durations[i], price);
+			}
+			bar.update(price, dayVolume, lastSize);
+		}
+	}
+
+	/**
+	 * Closes every bar that ends at or before {@code time}, so quiet symbols still produce their bars on time.
+	 *
+	 * @param time epoch milliseconds, usually the current time
+	 */
+	public synchronized void advanceTo(long time) {
+		long seconds = Math.floorDiv(time, 1000L);
+		for (Bar[] symbolBars : bars.values()) {
+			for (Bar bar : symbolBars) {
+				if (bar.active && bar.end <= seconds) {
+					close(bar);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return copy of the bar being built, or null when there is none
+	 */
+	public synchronized Bar getCurrentBar(String symbol, StockHistoryRequest.ValidIntervals interval) {
+		Bar[] symbolBars = bars.get(symbol);
+		if (symbolBars == null) {
+			return null;
+		}
+		for (Bar bar : symbolBars) {
+			if (bar.interval == interval && bar.active) {
+				return bar.copy();
+			}
+		}
+		return null;
+	}
+
+	public synchronized void remove(String symbol) {
+		bars.remove(symbol);
+	}
+
+	private void close(Bar bar) {
+		bar.active = false;
+		bar.lastClosedStart = bar.start;
+		try {
+			listener.onBar(bar);
+		} catch (Exception e) {
+			log.error("Bar listener failed for {} {}", bar.symbol, bar.interval.getInterval(), e);
+		}
+	}
+
+	@Getter
+	public static final class Bar {
+		private final String symbol;
+		private final StockHistoryRequest.ValidIntervals interval;
+		/** Start of the bar in epoch seconds, like {@link StockHistory#getTimestamp()}. */
+		private long start;
+		private long end;
+		private double open;
+		private double high;
+		private double low;
+		private double close;
+		private long volume;
+		private int tickCount;
+		@Getter(AccessLevel.NONE)
+		private long lastDayVolume;
+		@Getter(AccessLevel.NONE)
+		private boolean active;
+		@Getter(AccessLevel.NONE)
+		private long lastClosedStart = Long.MIN_VALUE;
+
+		private Bar(String symbol, StockHistoryRequest.ValidIntervals interval) {
+			this.symbol = symbol;
+			this.interval = interval;
+		}
+
+		private void begin(long start, long duration, double price) {
+			this.start = start;
+			this.end = start + duration;
+			this.open = price;
+			this.high = price;
+			this.low = price;
+			this.volume = 0;
+			this.tickCount = 0;
+			this.active = true;
+		}
+
+		private void update(double price, long dayVolume, long lastSize) {
+			high = Math.max(high, price);
+			low = Math.min(low, price);
+			close = price;
+			tickCount++;
+
+			if (dayVolume > 0) {
+				if (lastDayVolume > 0 && dayVolume >= lastDayVolume) {
+					volume += dayVolume - lastDayVolume;
+				} else {
+					volume += Math.max(lastSize, 0); // first tick seen or a new trading day
+				}
+				lastDayVolume = dayVolume;
+			} else {
+				volume += Math.max(lastSize, 0);
+			}
+		}
+
+		public Bar copy() {
+			Bar copy = new Bar(symbol, interval);
+			copy.start = start;
+			copy.end = end;
+			copy.open = open;
+			copy.high = high;
+			copy.low = low;
+			copy.close = close;
+			copy.volume = volume;
+			copy.tickCount = tickCount;
+			copy.lastDayVolume = lastDayVolume;
+			copy.active = active;
+			copy.lastClosedStart = lastClosedStart;
+			return copy;
+		}
+
+		/**
+		 * @return single bar quote in the shape returned by {@link StockHistoryRequest}
+		 */
+		public StockHistory.Quote toQuote() {
+			StockHistory.Quote quote = new StockHistory.Quote();
+			quote.setOpen(new ArrayList<>(List.of(open)));
+			quote.setHigh(new ArrayList<>(List.of(high)));
+			quote.setLow(new ArrayList<>(List.of(low)));
+			quote.setClose(new ArrayList<>(List.of(close)));
+			quote.setVolume(new ArrayList<>(List.of(volume)));
+			return quote;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package yahoofinance.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.model.StockHistory;
+import yahoofinance.requests.QuoteRequest;
+import yahoofinance.requests.StockHistoryRequest;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fetches stock history for many symbols at once, running every request on its own virtual thread.
+ * <p>
+ * At most {@code maxConcurrency} requests are in flight at any time. A failure for one symbol is reported
+ * through its {@link Result} and never affects the others. Results are streamed to the callback as soon as
+ * each symbol completes; callback invocations are serialized, so the callback does not need to be thread safe.
+ */
+@Slf4j
+@Getter
+public class BulkHistoryFetcher {
+
+	public static final int DEFAULT_MAX_CONCURRENCY = 32;
+
+	private final int maxConcurrency;
+
+	public BulkHistoryFetcher() {
+		this(DEFAULT_MAX_CONCURRENCY);
+	}
+
+	public BulkHistoryFetcher(int maxConcurrency) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("Max concurrency must be at least 1");
+		}
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	public void fetch(Collection<String> symbols, StockHistoryRequest.ValidRanges range,
+	                  StockHistoryRequest.ValidIntervals interval, Consumer<Result> callback) throws InterruptedException {
+		fetch(symbols, symbol -> new StockHistoryRequest(symbol, range, interval), callback);
+	}
+
+	/**
+	 * Executes one request per distinct symbol and blocks until all of them completed.
+	 *
+	 * @param symbols        symbols to fetch, duplicates are fetched once
+	 * @param requestFactory creates the request for a single symbol
+	 * @param callback       receives the result of every symbol, successful or not
+	 * @throws InterruptedException when the calling thread is interrupted, symbols not started yet are skipped
+	 */
+	public void fetch(Collection<String> symbols, Function<String, QuoteRequest<StockHistory>> requestFactory,
+	                  Consumer<Result> callback) throws InterruptedException {
+		Semaphore permits = new Semaphore(maxConcurrency);
+		ReentrantLock callbackLock = new ReentrantLock();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (String symbol : new LinkedHashSet<>(symbols)) {
+				permits.acquire();
+				try {
+					executor.execute(() -> {
+						try {
+							Result result = execute(symbol, requestFactory);
+							callbackLock.lock();
+							try {
+								callback.accept(result);
+							} finally {
+								callbackLock.unlock();
+							}
+						} catch (Exception e) {
+							log.error("Result callback failed for {}", symbol, e);
+						} finally {
+							permits.release();
+						}
+					});
+				} catch (RuntimeException e) {
+					permits.release();
+					throw e;
+				}
+			}
+		} catch (InterruptedException e) {
+			log.warn("Bulk history fetch interrupted, pending symbols are skipped");
+			throw e;
+		}
+	}
+
+	private Result execute(String symbol, Function<String, QuoteRequest<StockHistory>> requestFactory) {
+		try {
+			StockHistory history = requestFactory.apply(symbol).execute();
+			return new Result(symbol, history, null);
+		} catch (Exception e) {
+			log.warn("Failed to fetch stock history for {}: {}", symbol, e.getMessage());
+			return new Result(symbol, null, e);
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class Result {
+		private final String symbol;
+		private final StockHistory history;
+		private final Exception exception;
+
+		public boolean isSuccess() {
+			return exception == null && history != null;
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package yahoofinance.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.exception.YFinanceException;
+import yahoofinance.model.ColumnarStockHistory;
+import yahoofinance.model.StockHistory;
+import yahoofinance.requests.QuoteRequest;
+import yahoofinance.requests.StockHistoryRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads a date range which is wider than Yahoo serves in one request for the given interval (for example
+ * more than 7 days of {@code 1m} bars) by splitting it into windows of
+ * {@link StockHistoryRequest.ValidIntervals#getMaxRequestWindowSeconds()}, fetching the windows concurrently
+ * and merging them into a single history with overlapping timestamps de-duplicated.
+ * <p>
+ * At most {@code maxConcurrency} windows are in flight at any time; the next window starts when one completes.
+ */
+@Slf4j
+@Getter
+public class ChunkedHistoryFetcher {
+
+	public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+	private final Executor executor;
+	private final int maxConcurrency;
+	private final WindowRequestFactory requestFactory;
+
+	/**
+	 * Creates the request of a single window.
+	 */
+	@FunctionalInterface
+	public interface WindowRequestFactory {
+		QuoteRequest<ColumnarStockHistory> create(String symbol, LocalDateTime from, LocalDateTime to,
+		                                          StockHistoryRequest.ValidIntervals interval);
+	}
+
+	public ChunkedHistoryFetcher() {
+		this(null);
+	}
+
+	/**
+	 * @param executor executor parsing the window responses, null for {@link QuoteRequest#getDefaultAsyncExecutor()}
+	 */
+	public ChunkedHistoryFetcher(Executor executor) {
+		this(executor, DEFAULT_MAX_CONCURRENCY);
+	}
+
+	/**
+	 * @param executor       executor parsing the window responses, null for
+	 *                       {@link QuoteRequest#getDefaultAsyncExecutor()}
+	 * @param maxConcurrency windows requested at the same time
+	 */
+	public ChunkedHistoryFetcher(Executor executor, int maxConcurrency) {
+		this(executor, maxConcurrency, (symbol, from, to, interval) ->
+				new StockHistoryRequest(symbol, from, to, interval).columnar());
+	}
+
+	/**
+	 * @param executor       executor parsing the window responses, null for
+	 *                       {@link QuoteRequest#getDefaultAsyncExecutor()}
+	 * @param maxConcurrency windows requested at the same time
+	 * @param requestFactory creates the request of a single window
+	 */
+	public ChunkedHistoryFetcher(Executor executor, int maxConcurrency, WindowRequestFactory requestFactory) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("Max concurrency must be at least 1");
+		}
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+		this.requestFactory = requestFactory;
+	}
+
+	/**
+	 * @throws YFinanceException when any of the windows fails, a partial history is never returned
+	 */
+	public StockHistory fetch(String symbol, LocalDateTime startDate, LocalDateTime endDate,
+	                          StockHistoryRequest.ValidIntervals interval) throws YFinanceException {
+		try {
+			return fetchAsync(symbol, startDate, endDate, interval).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new YFinanceException("Interrupted while fetching stock history for " + symbol, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof YFinanceException yFinanceException) {
+				throw yFinanceException;
+			}
+			throw new YFinanceException("Failed to fetch stock history for " + symbol, e.getCause());
+		}
+	}
+
+	public CompletableFuture<StockHistory> fetchAsync(String symbol, LocalDateTime startDate, LocalDateTime endDate,
+	                                                  StockHistoryRequest.ValidIntervals interval) {
+		List<long[]> windows = splitWindows(startDate.toEpochSecond(ZoneOffset.UTC),
+				endDate.toEpochSecond(ZoneOffset.UTC), interval);
+		log.debug("Fetching {} history for {} in {} windows", interval.getInterval(), symbol, windows.size());
+
+		List<CompletableFuture<ColumnarStockHistory>> parts = new ArrayList<>(windows.size());
+		for (int i = 0; i < windows.size(); i++) {
+			parts.add(new CompletableFuture<>());
+		}
+		AtomicInteger next = new AtomicInteger();
+		for (int i = 0; i < Math.min(maxConcurrency, windows.size()); i++) {
+			startNext(symbol, interval, windows, parts, next);
+		}
+
+		return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+				.thenApply(ignored -> {
+					List<ColumnarStockHistory> columns = new ArrayList<>(parts.size());
+					for (CompletableFuture<ColumnarStockHistory> part : parts) {
+						ColumnarStockHistory history = part.join();
+						if (history != null) {
+							columns.add(history);
+						}
+					}
+					ColumnarStockHistory merged = ColumnarStockHistory.merge(columns);
+					if (merged == null) {
+						throw new CompletionException(new YFinanceException("No stock history returned for " + symbol));
+					}
+					return merged.toStockHistory();
+				})
+				.exceptionallyCompose(e -> CompletableFuture.failedFuture(
+						e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+	}
+
+	/**
+	 * Starts the next window not started yet and, once it completes, the one after it. After a failure the
+	 * remaining windows are not requested; they fail with the same cause.
+	 */
+	private void startNext(String symbol, StockHistoryRequest.ValidIntervals interval, List<long[]> windows,
+	                       List<CompletableFuture<ColumnarStockHistory>> parts, AtomicInteger next) {
+		int index = next.getAndIncrement();
+		if (index >= windows.size()) {
+			return;
+		}
+
+		CompletableFuture<ColumnarStockHistory> fetched;
+		try {
+			QuoteRequest<ColumnarStockHistory> request = requestFactory.create(symbol,
+					LocalDateTime.ofEpochSecond(windows.get(index)[0], 0, ZoneOffset.UTC),
+					LocalDateTime.ofEpochSecond(windows.get(index)[1], 0, ZoneOffset.UTC), interval);
+			fetched = executor != null ? request.executeAsync(executor) : request.executeAsync();
+		} catch (RuntimeException e) {
+			fetched = CompletableFuture.failedFuture(e);
+		}
+		fetched.whenComplete((history, failure) -> {
+			if (failure == null) {
+				parts.get(index).complete(history);
+				startNext(symbol, interval, windows, parts, next);
+				return;
+			}
+			Throwable cause = failure instanceof CompletionException && failure.getCause() != null ?
+					failure.getCause() : failure;
+			parts.get(index).completeExceptionally(cause);
+			int skipped;
+			while ((skipped = next.getAndIncrement()) < windows.size()) {
+				parts.get(skipped).completeExceptionally(cause);
+			}
+		});
+	}
+
+	/**
+	 * Splits {@code [start, end]} (epoch seconds) into consecutive windows no wider than the request limit of
+	 * {@code interval}. Neighbouring windows share their boundary so no bar is lost between them.
+	 *
+	 * @return list of {@code {period1, period2}} pairs
+	 */
+	public static List<long[]> splitWindows(long start, long end, StockHistoryRequest.ValidIntervals interval) {
+		if (end <= start) {
+			throw new IllegalArgumentException("End date must be after start date");
+		}
+
+		long maxWindow = interval.getMaxRequestWindowSeconds();
+		List<long[]> windows = new ArrayList<>();
+		long windowStart = start;
+		while (windowStart < end) {
+			long windowEnd = end - windowStart > maxWindow ? windowStart + maxWindow : end;
+			windows.add(new long[]{windowStart, windowEnd});
+			windowStart = windowEnd;
+		}
+		return windows;
+	}
+}
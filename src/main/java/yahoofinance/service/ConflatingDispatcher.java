@@ -0,0 +1,165 @@
+package yahoofinance.service;
+
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.model.PricingTick;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Last value cache of ticks keyed by {@link PricingTick#getId() symbol}.
+ * <p>
+ * Every tick overwrites the slot of its symbol and marks the symbol dirty for each {@link Reader}. Readers pull at
+ * their own pace with {@link Reader#drain(Consumer)} and only see the symbols updated since their previous drain,
+ * each with its latest values. Memory is bounded by the number of symbols and the work of a reader by the number of
+ * symbols that changed, however fast the feed is.
+ * <p>
+ * Ticks may be accepted from one thread at a time (the websocket I/O thread); readers may drain concurrently.
+ */
+@Slf4j
+public class ConflatingDispatcher implements TickDispatcher {
+
+	public static final int MAX_READERS = 64;
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final CopyOnWriteArrayList<Reader> readers = new CopyOnWriteArrayList<>();
+	private final AtomicLong received = new AtomicLong();
+	private volatile long readerMask;
+	private volatile boolean running = true;
+
+	@Override
+	public void accept(PricingTick tick) {
+		if (!running) {
+			return;
+		}
+
+		Entry entry = entries.get(tick.getId());
+		if (entry == null) {
+			entry = entries.computeIfAbsent(tick.getId(), id -> new Entry());
+		}
+		synchronized (entry) {
+			entry.tick.copyFrom(tick);
+		}
+		received.lazySet(received.get() + 1);
+
+		// Set, never overwrite: a reader registered after the mask was read may already have marked the entry
+		long mask = readerMask;
+		long previous = entry.dirty.getAndAccumulate(mask, (current, added) -> current | added);
+		long newlyDirty = mask & ~previous;
+		while (newlyDirty != 0) {
+			int index = Long.numberOfTrailingZeros(newlyDirty);
+			newlyDirty &= newlyDirty - 1;
+			readers.get(index).queue.offer(entry);
+		}
+	}
+
+	/**
+	 * Registers a reader. It sees every symbol with a value as dirty on its first drain.
+	 */
+	public synchronized Reader newReader() {
+		if (readers.size() >= MAX_READERS) {
+			throw new IllegalStateException("At most " + MAX_READERS + " readers are supported");
+		}
+		Reader reader = new Reader(readers.size());
+		readers.add(reader);
+		readerMask |= reader.bit;
+		for (Entry entry : entries.values()) {
+			if ((entry.dirty.getAndUpdate(mask -> mask | reader.bit) & reader.bit) == 0) {
+				reader.queue.offer(entry);
+			}
+		}
+		return reader;
+	}
+
+	/**
+	 * @return copy of the latest tick of the symbol, or null when none was received
+	 */
+	public PricingTick getLatest(String symbol) {
+		Entry entry = entries.get(symbol);
+		if (entry == null) {
+			return null;
+		}
+		synchronized (entry) {
+			return entry.tick.copy();
+		}
+	}
+
+	public int getSymbolCount() {
+		return entries.size();
+	}
+
+	public long getReceivedCount() {
+		return received.get();
+	}
+
+	/**
+	 * Stops accepting ticks. Values received so far can still be drained.
+	 */
+	@Override
+	public void close() {
+		running = false;
+	}
+
+	private static final class Entry {
+		private final PricingTick tick = new PricingTick();
+		private final AtomicLong dirty = new AtomicLong();
+	}
+
+	/**
+	 * Independent view of the dirty symbols. A reader is meant to be drained by one thread at a time.
+	 */
+	public final class Reader {
+		private final long bit;
+		private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+		private final PricingTick tick = new PricingTick();
+
+		private Reader(int index) {
+			this.bit = 1L << index;
+		}
+
+		/**
+		 * Passes the latest tick of every symbol updated since the previous drain to the consumer. The tick is
+		 * reused between calls of the consumer.
+		 *
+		 * @return number of symbols delivered
+		 */
+		public int drain(Consumer<PricingTick> consumer) {
+			return drain(consumer, Integer.MAX_VALUE);
+		}
+
+		/**
+		 * Like {@link #drain(Consumer)} but delivers at most {@code limit} symbols, the rest stays dirty.
+		 */
+		public int drain(Consumer<PricingTick> consumer, int limit) {
+			int delivered = 0;
+			Entry entry;
+			while (delivered < limit && (entry = queue.poll()) != null) {
+				// Clear the flag before copying: an update racing with the copy marks the symbol dirty again
+				long mask;
+				do {
+					mask = entry.dirty.get();
+				} while (!entry.dirty.compareAndSet(mask, mask & ~bit));
+				synchronized (entry) {
+					tick.copyFrom(entry.tick);
+				}
+				delivered++;
+				try {
+					consumer.accept(tick);
+				} catch (Exception e) {
+					log.error("Conflated tick consumer failed for {}", tick.getId(), e);
+				}
+			}
+			return delivered;
+		}
+
+		/**
+		 * @return number of symbols waiting to be drained
+		 */
+		public int getDirtyCount() {
+			return queue.size();
+		}
+	}
+}
@@ -0,0 +1,295 @@
+package yahoofinance.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tick rates, silence per symbol and latency histograms of one {@link StockWebSocket}.
+ * <p>
+ * Recording is done by the websocket I/O thread only and does not allocate after a symbol's first tick;
+ * {@link #snapshot()} and the stale symbol check may run on any thread and see slightly racy, but never torn, values.
+ * Rates are averaged over the last {@value #RATE_WINDOW_SECONDS} complete seconds.
+ */
+public class FeedMetrics {
+
+	/** {@code market_hours} value of ticks sent during the regular session. */
+	public static final int REGULAR_MARKET = 1;
+	public static final int RATE_WINDOW_SECONDS = 10;
+
+	private final ConcurrentHashMap<String, SymbolStats> symbols = new ConcurrentHashMap<>();
+	private final Rate totalRate = new Rate();
+	private final Histogram receiveLatency = new Histogram();
+	private final Histogram decodeTime = new Histogram();
+	private volatile long totalCount;
+	private volatile long lastRegularTickNanos;
+
+	/**
+	 * @param exchangeTime   tick time in epoch milliseconds as sent by the exchange
+	 * @param receivedMillis receive time in epoch milliseconds
+	 * @param decodeNanos    time spent decoding the message
+	 * @param nowNanos       {@link System#nanoTime()} at receive
+	 */
+	void record(String symbol, long exchangeTime, int marketHours, long receivedMillis, long decodeNanos,
+	            long nowNanos) {
+		SymbolStats stats = symbols.get(symbol);
+		if (stats == null) {
+			stats = symbols.computeIfAbsent(symbol, s -> new SymbolStats(nowNanos));
+		}
+		stats.count++;
+		stats.lastTickNanos = nowNanos;
+		stats.lastExchangeTime = exchangeTime;
+		stats.marketHours = marketHours;
+		if (stats.staleReported) {
+			stats.staleReported = false;
+		}
+		stats.rate.record(nowNanos);
+
+		totalCount++;
+		totalRate.record(nowNanos);
+		if (marketHours == REGULAR_MARKET) {
+			lastRegularTickNanos = nowNanos;
+		}
+		if (exchangeTime > 0) {
+			receiveLatency.record(Math.max(0, receivedMillis - exchangeTime));
+		}
+		decodeTime.record(decodeNanos);
+	}
+
+	/**
+	 * Starts tracking a subscribed symbol, so it can be reported as silent before its first tick.
+	 */
+	void track(String symbol, long nowNanos) {
+		symbols.computeIfAbsent(symbol, s -> new SymbolStats(nowNanos));
+	}
+
+	void untrack(String symbol) {
+		symbols.remove(symbol);
+	}
+
+	/**
+	 * Finds the symbols silent for longer than the threshold during market hours. A symbol counts as in market
+	 * hours when its last tick was sent during the regular session or, before its first tick, when any symbol of the
+	 * feed ticked in the regular session within the threshold. Every silence is reported once.
+	 *
+	 * @return the newly silent symbols with the time since their last tick
+	 */
+	Map<String, Duration> findStale(Collection<String> subscribed, long thresholdNanos, long nowNanos) {
+		Map<String, Duration> stale = null;
+		boolean feedInRegularHours = lastRegularTickNanos != 0 && nowNanos - lastRegularTickNanos <= thresholdNanos;
+		for (String symbol : subscribed) {
+			SymbolStats stats = symbols.get(symbol);
+			if (stats == null || stats.staleReported) {
+				continue;
+			}
+			boolean marketHours = stats.count == 0 ? feedInRegularHours : stats.marketHours == REGULAR_MARKET;
+			long silence = nowNanos - stats.lastTickNanos;
+			if (marketHours && silence > thresholdNanos) {
+				stats.staleReported = true;
+				if (stale == null) {
+					stale = new HashMap<>();
+				}
+				stale.put(symbol, Duration.ofNanos(silence));
+			}
+		}
+		return stale == null ? Map.of() : stale;
+	}
+
+	public Snapshot snapshot() {
+		long now = System.nanoTime();
+		Map<String, SymbolSnapshot> symbolSnapshots = new HashMap<>();
+		symbols.forEach((symbol, stats) -> symbolSnapshots.put(symbol, new SymbolSnapshot(symbol, stats.count,
+				stats.rate.perSecond(now), stats.count == 0 ? null : Duration.ofNanos(now - stats.lastTickNanos),
+				stats.lastExchangeTime, stats.marketHours)));
+		return new Snapshot(totalCount, totalRate.perSecond(now), Map.copyOf(symbolSnapshots),
+				receiveLatency.snapshot(), decodeTime.snapshot());
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class Snapshot {
+		private final long tickCount;
+		private final double ticksPerSecond;
+		private final Map<String, SymbolSnapshot> symbols;
+		/** Receive time minus exchange time of every tick, in milliseconds. */
+		private final HistogramSnapshot receiveLatency;
+		/** Time from receiving a message to a decoded tick, in nanoseconds. */
+		private final HistogramSnapshot decodeTime;
+
+		/**
+		 * @return symbols ordered by rate, busiest first
+		 */
+		public List<SymbolSnapshot> getBusiestSymbols(int limit) {
+			List<SymbolSnapshot> sorted = new ArrayList<>(symbols.values());
+			sorted.sort((a, b) -> Double.compare(b.getTicksPerSecond(), a.getTicksPerSecond()));
+			return sorted.subList(0, Math.min(limit, sorted.size()));
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class SymbolSnapshot {
+		private final String symbol;
+		private final long tickCount;
+		private final double ticksPerSecond;
+		/** Null before the first tick. */
+		private final Duration timeSinceLastTick;
+		private final long lastExchangeTime;
+		private final int marketHours;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class HistogramSnapshot {
+		private final long count;
+		private final long min;
+		private final long max;
+		private final double mean;
+		private final long p50;
+		private final long p90;
+		private final long p99;
+		private final long p999;
+	}
+
+	private static final class SymbolStats {
+		private final Rate rate = new Rate();
+		private volatile long count;
+		private volatile long lastTickNanos;
+		private volatile long lastExchangeTime;
+		private volatile int marketHours = -1;
+		private volatile boolean staleReported;
+
+		private SymbolStats(long trackedSinceNanos) {
+			this.lastTickNanos = trackedSinceNanos;
+		}
+	}
+
+	/**
+	 * Counts per second in a ring of one second slots.
+	 */
+	static final class Rate {
+		private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+		private final AtomicLongArray slots = new AtomicLongArray(RATE_WINDOW_SECONDS + 1);
+		private volatile long second = Long.MIN_VALUE;
+
+		void record(long nowNanos) {
+			long current = Math.floorDiv(nowNanos, NANOS_PER_SECOND);
+			long previous = second;
+			if (current != previous) {
+				long stale = previous == Long.MIN_VALUE ? slots.length() : Math.min(current - previous, slots.length());
+				for (long s = current - stale + 1; s <= current; s++) {
+					slots.lazySet(index(s), 0);
+				}
+				second = current;
+			}
+			int index = index(current);
+			slots.lazySet(index, slots.get(index) + 1);
+		}
+
+		double perSecond(long nowNanos) {
+			long current = Math.floorDiv(nowNanos, NANOS_PER_SECOND);
+			long last = second;
+			long sum = 0;
+			for (long s = current - RATE_WINDOW_SECONDS; s < current; s++) {
+				if (s <= last && last - s < slots.length()) {
+					sum += slots.get(index(s));
+				}
+			}
+			return (double) sum / RATE_WINDOW_SECONDS;
+		}
+
+		private int index(long second) {
+			return (int) Math.floorMod(second, (long) slots.length());
+		}
+	}
+
+	/**
+	 * Log linear histogram of non-negative values: exact below 16, then eight buckets per power of two, so every
+	 * reported percentile is within 12.5% of the recorded value.
+	 */
+	static final class Histogram {
+		private static final int SUB_BUCKET_BITS = 3;
+		private static final int LINEAR = 16;
+		private static final int BUCKETS = LINEAR + (63 - 4) * (1 << SUB_BUCKET_BITS);
+
+		private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+		private volatile long count;
+		private volatile long sum;
+		private volatile long min = Long.MAX_VALUE;
+		private volatile long max;
+
+		void record(long value) {
+			int index = index(value);
+			counts.lazySet(index, counts.get(index) + 1);
+			sum += value;
+			count++;
+			if (value < min) {
+				min = value;
+			}
+			if (value > max) {
+				max = value;
+			}
+		}
+
+		HistogramSnapshot snapshot() {
+			long[] copy = new long[BUCKETS];
+			long total = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				copy[i] = counts.get(i);
+				total += copy[i];
+			}
+			if (total == 0) {
+				return new HistogramSnapshot(0, 0, 0, 0, 0, 0, 0, 0);
+			}
+			long maximum = max;
+			return new HistogramSnapshot(total, min, maximum, (double) sum / Math.max(count, 1),
+					percentile(copy, total, 0.5, maximum), percentile(copy, total, 0.9, maximum),
+					percentile(copy, total, 0.99, maximum), percentile(copy, total, 0.999, maximum));
+		}
+
+		static int index(long value) {
+			if (value < LINEAR) {
+				return (int) Math.max(value, 0);
+			}
+			int exponent = 63 - Long.numberOfLeadingZeros(value);
+			int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+			return LINEAR + (exponent - 4) * (1 << SUB_BUCKET_BITS) + subBucket;
+		}
+
+		/**
+		 * @return highest value that falls into the bucket
+		 */
+		static long upperBound(int index) {
+			if (index < LINEAR) {
+				return index;
+			}
+			int exponent = (index - LINEAR >> SUB_BUCKET_BITS) + 4;
+			int subBucket = (index - LINEAR) & ((1 << SUB_BUCKET_BITS) - 1);
+			long base = 1L << exponent;
+			long width = 1L << (exponent - SUB_BUCKET_BITS);
+			return base + (subBucket + 1) * width - 1;
+		}
+
+		private static long percentile(long[] counts, long total, double quantile, long max) {
+			long rank = Math.max(1, (long) Math.ceil(quantile * total));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return Math.min(upperBound(i), max);
+				}
+			}
+			return max;
+		}
+	}
+}
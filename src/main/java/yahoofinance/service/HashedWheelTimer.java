@@ -0,0 +1,279 @@
+package yahoofinance.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timer for a large number of coarse timeouts, such as the heartbeats and reconnects of many {@link StockWebSocket}
+ * connections, driven by a single thread.
+ * <p>
+ * Timeouts are hashed into the buckets of a wheel that advances one bucket per tick, so scheduling and cancelling
+ * are O(1) and a timeout fires up to one tick late. Expired tasks are handed to an executor, so a blocking task
+ * (a reconnect, a ping on a slow connection) does not delay the other timeouts. The worker thread starts with the
+ * first timeout and is a daemon thread.
+ */
+@Slf4j
+public class HashedWheelTimer {
+
+	public static final long DEFAULT_TICK_MILLIS = 100;
+	public static final int DEFAULT_WHEEL_SIZE = 512;
+
+	private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+	private final long tickNanos;
+	private final int mask;
+	private final Bucket[] wheel;
+	private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+	private final Executor executor;
+	private final Thread worker;
+	private final AtomicInteger state = new AtomicInteger();
+	private final AtomicLong pendingTimeouts = new AtomicLong();
+	private final long startNanos = System.nanoTime();
+	private long tick;
+
+	/**
+	 * Shared by all connections unless they are given a timer of their own.
+	 */
+	private static final class Shared {
+		private static final HashedWheelTimer INSTANCE = new HashedWheelTimer(DEFAULT_TICK_MILLIS,
+				TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE, Executors.newCachedThreadPool(runnable -> {
+					Thread thread = new Thread(runnable, "yfinance-timer-task");
+					thread.setDaemon(true);
+					return thread;
+				}));
+	}
+
+	public static HashedWheelTimer shared() {
+		return Shared.INSTANCE;
+	}
+
+	/**
+	 * @param tickDuration resolution of the timer
+	 * @param wheelSize    number of buckets, rounded up to a power of two
+	 * @param executor     runs expired tasks, null to run them on the timer thread
+	 */
+	public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, Executor executor) {
+		if (tickDuration <= 0) {
+			throw new IllegalArgumentException("Tick duration must be positive");
+		}
+		if (wheelSize < 1 || wheelSize > 1 << 20) {
+			throw new IllegalArgumentException("Wheel size must be between 1 and " + (1 << 20));
+		}
+		int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+		this.tickNanos = unit.toNanos(tickDuration);
+		this.mask = size - 1;
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.executor = executor;
+		this.worker = new Thread(this::run, "yfinance-timer-" + INSTANCES.getAndIncrement());
+		this.worker.setDaemon(true);
+	}
+
+	/**
+	 * Runs the task once after the delay.
+	 */
+	public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+		return schedule(task, unit.toNanos(Math.max(delay, 0)), 0);
+	}
+
+	/**
+	 * Runs the task after the initial delay and then every period until the timeout is cancelled. Runs never
+	 * overlap: the next run is planned relative to the expiry of the previous one and skipped while that one is
+	 * still running.
+	 */
+	public Timeout newPeriodicTimeout(Runnable task, long initialDelay, long period, TimeUnit unit) {
+		if (period <= 0) {
+			throw new IllegalArgumentException("Period must be positive");
+		}
+		return schedule(task, unit.toNanos(Math.max(initialDelay, 0)), unit.toNanos(period));
+	}
+
+	/**
+	 * @return number of scheduled timeouts which have neither expired nor been cancelled
+	 */
+	public long getPendingTimeouts() {
+		return pendingTimeouts.get();
+	}
+
+	/**
+	 * Stops the worker thread. Timeouts which did not expire yet are dropped.
+	 */
+	public void stop() {
+		if (state.getAndSet(2) == 1) {
+			worker.interrupt();
+		}
+	}
+
+	private Timeout schedule(Runnable task, long delayNanos, long periodNanos) {
+		if (state.get() == 2) {
+			throw new IllegalStateException("Timer has been stopped");
+		}
+		if (state.get() == 0 && state.compareAndSet(0, 1)) {
+			worker.start();
+		}
+		Timeout timeout = new Timeout(task, System.nanoTime() - startNanos + delayNanos, periodNanos);
+		pendingTimeouts.incrementAndGet();
+		pending.add(timeout);
+		return timeout;
+	}
+
+	private void run() {
+		tick = (System.nanoTime() - startNanos) / tickNanos;
+		while (state.get() == 1) {
+			long deadline = waitForNextTick();
+			if (deadline < 0) {
+				break;
+			}
+			transferPending();
+			expire(wheel[(int) (tick & mask)], deadline);
+			tick++;
+		}
+	}
+
+	/**
+	 * @return time of the tick relative to the start, or -1 when the timer was stopped
+	 */
+	private long waitForNextTick() {
+		long deadline = tickNanos * (tick + 1);
+		while (true) {
+			long remaining = deadline - (System.nanoTime() - startNanos);
+			if (remaining <= 0) {
+				return deadline;
+			}
+			try {
+				TimeUnit.NANOSECONDS.sleep(remaining);
+			} catch (InterruptedException e) {
+				if (state.get() == 2) {
+					return -1;
+				}
+			}
+		}
+	}
+
+	private void transferPending() {
+		Timeout timeout;
+		while ((timeout = pending.poll()) != null) {
+			if (timeout.state.get() == Timeout.CANCELLED) {
+				continue;
+			}
+			long expiryTick = Math.max(timeout.deadline / tickNanos, tick);
+			timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+			wheel[(int) (expiryTick & mask)].timeouts.add(timeout);
+		}
+	}
+
+	private void expire(Bucket bucket, long deadline) {
+		Iterator<Timeout> iterator = bucket.timeouts.iterator();
+		while (iterator.hasNext()) {
+			Timeout timeout = iterator.next();
+			if (timeout.state.get() == Timeout.CANCELLED) {
+				iterator.remove();
+			} else if (timeout.remainingRounds > 0) {
+				timeout.remainingRounds--;
+			} else if (timeout.deadline <= deadline) {
+				iterator.remove();
+				fire(timeout, deadline);
+			}
+		}
+	}
+
+	private void fire(Timeout timeout, long now) {
+		if (timeout.period > 0) {
+			timeout.deadline = now + timeout.period;
+			pending.add(timeout);
+		} else if (timeout.state.compareAndSet(Timeout.ACTIVE, Timeout.EXPIRED)) {
+			pendingTimeouts.decrementAndGet();
+		} else {
+			return;
+		}
+
+		try {
+			if (executor == null) {
+				timeout.run();
+			} else {
+				executor.execute(timeout::run);
+			}
+		} catch (RuntimeException e) {
+			log.error("Failed to run timer task", e);
+		}
+	}
+
+	/**
+	 * Timeouts hashed to one slot of the wheel, only touched by the timer thread.
+	 */
+	private static final class Bucket {
+		private final ArrayDeque<Timeout> timeouts = new ArrayDeque<>();
+	}
+
+	/**
+	 * Handle of a scheduled task.
+	 */
+	public final class Timeout {
+		private static final int ACTIVE = 0;
+		private static final int CANCELLED = 1;
+		private static final int EXPIRED = 2;
+
+		private final Runnable task;
+		private final long period;
+		private final AtomicInteger state = new AtomicInteger(ACTIVE);
+		private final AtomicBoolean running = new AtomicBoolean();
+		private long deadline;
+		private long remainingRounds;
+		@Getter
+		private volatile long runCount;
+
+		private Timeout(Runnable task, long deadline, long period) {
+			this.task = task;
+			this.deadline = deadline;
+			this.period = period;
+		}
+
+		/**
+		 * Prevents further runs. A run which already started is not interrupted.
+		 *
+		 * @return false when the timeout had already expired or been cancelled
+		 */
+		public boolean cancel() {
+			if (state.compareAndSet(ACTIVE, CANCELLED)) {
+				pendingTimeouts.decrementAndGet();
+				return true;
+			}
+			return false;
+		}
+
+		public boolean isCancelled() {
+			return state.get() == CANCELLED;
+		}
+
+		public boolean isExpired() {
+			return state.get() == EXPIRED;
+		}
+
+		private void run() {
+			if (isCancelled() || !running.compareAndSet(false, true)) {
+				return;
+			}
+			try {
+				runCount++;
+				task.run();
+			} catch (Exception e) {
+				log.error("Timer task failed", e);
+			} finally {
+				running.set(false);
+			}
+		}
+	}
+}
@@ -0,0 +1,329 @@
+package yahoofinance.service;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import yahoofinance.model.Pricing;
+import yahoofinance.model.PricingTick;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Allocation free decoder for the pricing messages of the Yahoo Finance streamer.
+ * <p>
+ * A message looks like <code>{"type":"pricing","message":"&lt;base64 protobuf&gt;"}</code>.
+ * {@link #decodeEnvelope(String)} locates the payload without building a JSON tree and decodes the base64 text into
+ * a buffer owned by the decoder. {@link #readTick()} then reads the protobuf wire format straight into a reused
+ * {@link PricingTick}; string fields are resolved through a small cache, so steady state decoding of known symbols
+ * allocates nothing.
+ * <p>
+ * A decoder holds per message state and must be used by one thread at a time.
+ */
+public final class PricingDecoder {
+
+	private static final String PRICING_TYPE = "\"type\":\"pricing\"";
+	private static final String MESSAGE_FIELD = "\"message\":\"";
+	private static final int[] BASE64 = new int[128];
+
+	static {
+		Arrays.fill(BASE64, -1);
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+		for (int i = 0; i < alphabet.length(); i++) {
+			BASE64[alphabet.charAt(i)] = i;
+		}
+	}
+
+	private final PricingTick tick = new PricingTick();
+	private final StringCache strings = new StringCache(4096);
+	private byte[] buffer = new byte[512];
+	private int length;
+	private int position;
+
+	/**
+	 * Decodes the payload of a pricing envelope into the internal buffer.
+	 *
+	 * @return false when the message is not a pricing message in the compact form sent by Yahoo (other types,
+	 * escaped characters, whitespace); such messages have to be handled by a regular JSON parser
+	 */
+	public boolean decodeEnvelope(String message) {
+		if (!message.contains(PRICING_TYPE)) {
+			return false;
+		}
+		int start = message.indexOf(MESSAGE_FIELD);
+		if (start < 0) {
+			return false;
+		}
+		start += MESSAGE_FIELD.length();
+		int end = message.indexOf('"', start);
+		if (end < 0 || message.lastIndexOf('\\', end) >= start) {
+			return false;
+		}
+		decodeBase64(message, start, end);
+		return true;
+	}
+
+	/**
+	 * Decodes standard base64 text (padding optional) from {@code text[from, to)} into the internal buffer.
+	 *
+	 * @throws IllegalArgumentException when the text is not valid base64
+	 */
+	public void decodeBase64(CharSequence text, int from, int to) {
+		int end = to;
+		while (end > from && text.charAt(end - 1) == '=') {
+			end--;
+		}
+		int chars = end - from;
+		if (chars % 4 == 1) {
+			throw new IllegalArgumentException("Invalid base64 length: " + (to - from));
+		}
+
+		int required = chars / 4 * 3 + Math.max(0, chars % 4 - 1);
+		if (buffer.length < required) {
+			buffer = new byte[Math.max(required, buffer.length * 2)];
+		}
+
+		int out = 0;
+		int bits = 0;
+		int accumulator = 0;
+		for (int i = from; i < end; i++) {
+			char c = text.charAt(i);
+			int value = c < 128 ? BASE64[c] : -1;
+			if (value < 0) {
+				throw new IllegalArgumentException("Illegal base64 character at " + (i - from));
+			}
+			accumulator = (accumulator << 6) | value;
+			bits += 6;
+			if (bits >= 8) {
+				bits -= 8;
+				buffer[out++] = (byte) (accumulator >> bits);
+			}
+		}
+		length = out;
+	}
+
+	/**
+	 * Copies an already decoded protobuf payload (e.g. from a {@link TickJournal}) into the internal buffer.
+	 */
+	public void decodePayload(byte[] bytes, int offset, int size) {
+		if (buffer.length < size) {
+			buffer = new byte[Math.max(size, buffer.length * 2)];
+		}
+		System.arraycopy(bytes, offset, buffer, 0, size);
+		length = size;
+	}
+
+	/**
+	 * @return the reused tick filled from the current payload, valid until the next call
+	 */
+	public PricingTick readTick() throws InvalidProtocolBufferException {
+		PricingTick t = tick;
+		t.clear();
+		position = 0;
+		while (position < length) {
+			int tag = readVarint32();
+			int field = WireFormat.getTagFieldNumber(tag);
+			int wireType = WireFormat.getTagWireType(tag);
+			if (!readField(t, field, wireType)) {
+				skipField(wireType);
+			}
+		}
+		return t;
+	}
+
+	/**
+	 * @return a new message parsed from the current payload
+	 */
+	public Pricing.PricingData readPricingData() throws InvalidProtocolBufferException {
+		return Pricing.PricingData.parser().parseFrom(buffer, 0, length);
+	}
+
+	public int getPayloadLength() {
+		return length;
+	}
+
+	/**
+	 * @return internal buffer holding the current payload in its first {@link #getPayloadLength()} bytes
+	 */
+	byte[] getPayloadBuffer() {
+		return buffer;
+	}
+
+	private boolean readField(PricingTick t, int field, int wireType) throws InvalidProtocolBufferException {
+		switch (wireType) {
+			case WireFormat.WIRETYPE_LENGTH_DELIMITED -> {
+				switch (field) {
+					case 1 -> t.setId(readString());
+					case 4 -> t.setCurrency(readString());
+					case 5 -> t.setExchange(readString());
+					case 13 -> t.setShortName(readString());
+					case 18 -> t.setUnderlyingSymbol(readString());
+					case 30 -> t.setFromCurrency(readString());
+					case 31 -> t.setLastMarket(readString());
+					default -> {
+						return false;
+					}
+				}
+			}
+			case WireFormat.WIRETYPE_FIXED32 -> {
+				switch (field) {
+					case 2 -> t.setPrice(readFloat());
+					case 8 -> t.setChangePercent(readFloat());
+					case 10 -> t.setDayHigh(readFloat());
+					case 11 -> t.setDayLow(readFloat());
+					case 12 -> t.setChange(readFloat());
+					case 15 -> t.setOpenPrice(readFloat());
+					case 16 -> t.setPreviousClose(readFloat());
+					case 17 -> t.setStrikePrice(readFloat());
+					case 23 -> t.setBid(readFloat());
+					case 25 -> t.setAsk(readFloat());
+					default -> {
+						return false;
+					}
+				}
+			}
+			case WireFormat.WIRETYPE_FIXED64 -> {
+				switch (field) {
+					case 32 -> t.setCirculatingSupply(Double.longBitsToDouble(readFixed64()));
+					case 33 -> t.setMarketCap(Double.longBitsToDouble(readFixed64()));
+					default -> {
+						return false;
+					}
+				}
+			}
+			case WireFormat.WIRETYPE_VARINT -> {
+				switch (field) {
+					case 3 -> t.setTime(readSint64());
+					case 6 -> t.setQuoteType((int) readVarint64());
+					case 7 -> t.setMarketHours((int) readVarint64());
+					case 9 -> t.setDayVolume(readSint64());
+					case 14 -> t.setExpireDate(readSint64());
+					case 19 -> t.setOpenInterest(readSint64());
+					case 20 -> t.setOptionsType(readSint64());
+					case 21 -> t.setMiniOption(readSint64());
+					case 22 -> t.setLastSize(readSint64());
+					case 24 -> t.setBidSize(readSint64());
+					case 26 -> t.setAskSize(readSint64());
+					case 27 -> t.setPriceHint(readSint64());
+					case 28 -> t.setVol24hr(readSint64());
+					case 29 -> t.setVolAllCurrencies(readSint64());
+					default -> {
+						return false;
+					}
+				}
+			}
+			default -> {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void skipField(int wireType) throws InvalidProtocolBufferException {
+		switch (wireType) {
+			case WireFormat.WIRETYPE_VARINT -> readVarint64();
+			case WireFormat.WIRETYPE_FIXED32 -> advance(4);
+			case WireFormat.WIRETYPE_FIXED64 -> advance(8);
+			case WireFormat.WIRETYPE_LENGTH_DELIMITED -> advance(readVarint32());
+			default -> throw new InvalidProtocolBufferException("Unsupported wire type " + wireType);
+		}
+	}
+
+	private String readString() throws InvalidProtocolBufferException {
+		int size = readVarint32();
+		int start = position;
+		advance(size);
+		return strings.get(buffer, start, size);
+	}
+
+	private float readFloat() throws InvalidProtocolBufferException {
+		int start = position;
+		advance(4);
+		return Float.intBitsToFloat((buffer[start] & 0xff)
+		                            | (buffer[start + 1] & 0xff) << 8
+		                            | (buffer[start + 2] & 0xff) << 16
+		                            | (buffer[start + 3] & 0xff) << 24);
+	}
+
+	private long readFixed64() throws InvalidProtocolBufferException {
+		int start = position;
+		advance(8);
+		long value = 0;
+		for (int i = 7; i >= 0; i--) {
+			value = (value << 8) | (buffer[start + i] & 0xffL);
+		}
+		return value;
+	}
+
+	private long readSint64() throws InvalidProtocolBufferException {
+		long value = readVarint64();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private int readVarint32() throws InvalidProtocolBufferException {
+		long value = readVarint64();
+		if (value < 0 || value > Integer.MAX_VALUE) {
+			throw new InvalidProtocolBufferException("Length or tag out of range: " + value);
+		}
+		return (int) value;
+	}
+
+	private long readVarint64() throws InvalidProtocolBufferException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			if (position >= length) {
+				throw new InvalidProtocolBufferException("Truncated pricing message");
+			}
+			byte b = buffer[position++];
+			value |= (long) (b & 0x7f) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new InvalidProtocolBufferException("Malformed varint in pricing message");
+	}
+
+	private void advance(int count) throws InvalidProtocolBufferException {
+		if (count < 0 || count > length - position) {
+			throw new InvalidProtocolBufferException("Truncated pricing message");
+		}
+		position += count;
+	}
+
+	/**
+	 * Direct mapped cache from UTF-8 bytes to strings. Symbols, currencies and exchange names repeat on every tick,
+	 * so after warm up they are returned without decoding or allocating.
+	 */
+	private static final class StringCache {
+		private final byte[][] keys;
+		private final String[] values;
+		private final int mask;
+
+		private StringCache(int capacity) {
+			int size = Integer.highestOneBit(capacity - 1) << 1;
+			this.keys = new byte[size][];
+			this.values = new String[size];
+			this.mask = size - 1;
+		}
+
+		private String get(byte[] bytes, int offset, int size) {
+			if (size == 0) {
+				return "";
+			}
+			int hash = 1;
+			for (int i = offset; i < offset + size; i++) {
+				hash = 31 * hash + bytes[i];
+			}
+			int slot = (hash ^ (hash >>> 16)) & mask;
+
+			byte[] key = keys[slot];
+			if (key != null && Arrays.equals(key, 0, key.length, bytes, offset, offset + size)) {
+				return values[slot];
+			}
+
+			String value = new String(bytes, offset, size, StandardCharsets.UTF_8);
+			keys[slot] = Arrays.copyOfRange(bytes, offset, offset + size);
+			values[slot] = value;
+			return value;
+		}
+	}
+}
@@ -0,0 +1,311 @@
+package yahoofinance.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.model.Pricing;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Multicasts the pricing messages of a {@link StockWebSocket} to any number of {@link Flow.Subscriber subscribers}.
+ * <p>
+ * Every subscription has its own bounded buffer, demand and optional symbol filter, and is signalled on the
+ * executor, one signal at a time, as required by the reactive streams rules. A subscriber that falls behind only
+ * affects its own buffer; what happens when that buffer is full is decided by the
+ * {@link RingBufferDispatcher.OverflowPolicy}. {@code BLOCK} stalls the websocket I/O thread and with it every other
+ * subscriber, so it is meant for replays and tests rather than live feeds.
+ * <p>
+ * {@link #close()} completes every subscriber once it has received the messages already buffered.
+ */
+@Slf4j
+public class PricingPublisher implements Flow.Publisher<Pricing.PricingData>, Consumer<Pricing.PricingData>,
+		AutoCloseable {
+
+	public static final int DEFAULT_BUFFER_SIZE = Flow.defaultBufferSize();
+
+	private final CopyOnWriteArrayList<PricingSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final Executor executor;
+	@Getter
+	private final int bufferSize;
+	@Getter
+	private final RingBufferDispatcher.OverflowPolicy overflowPolicy;
+	private volatile boolean closed;
+
+	public PricingPublisher() {
+		this(DEFAULT_BUFFER_SIZE, RingBufferDispatcher.OverflowPolicy.DROP_OLDEST);
+	}
+
+	public PricingPublisher(int bufferSize, RingBufferDispatcher.OverflowPolicy overflowPolicy) {
+		this(bufferSize, overflowPolicy, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param bufferSize     messages buffered per subscriber
+	 * @param overflowPolicy what to do when a subscriber's buffer is full
+	 * @param executor       delivers the signals to the subscribers
+	 */
+	public PricingPublisher(int bufferSize, RingBufferDispatcher.OverflowPolicy overflowPolicy, Executor executor) {
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException("Buffer size must be positive");
+		}
+		this.bufferSize = bufferSize;
+		this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+		this.executor = Objects.requireNonNull(executor);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super Pricing.PricingData> subscriber) {
+		subscribe(subscriber, null);
+	}
+
+	/**
+	 * Subscribes to the messages of the given symbols only.
+	 *
+	 * @param symbols symbols to receive, null for all
+	 */
+	public void subscribe(Flow.Subscriber<? super Pricing.PricingData> subscriber, Collection<String> symbols) {
+		Objects.requireNonNull(subscriber, "subscriber");
+		PricingSubscription subscription = new PricingSubscription(subscriber,
+				symbols == null ? null : Set.copyOf(symbols));
+		subscriptions.add(subscription);
+		if (closed) {
+			subscription.complete();
+		}
+		subscription.schedule();
+	}
+
+	@Override
+	public void accept(Pricing.PricingData data) {
+		if (closed) {
+			return;
+		}
+		for (PricingSubscription subscription : subscriptions) {
+			subscription.offer(data);
+		}
+	}
+
+	/**
+	 * Stops accepting messages and completes the subscribers after their buffered messages.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for (PricingSubscription subscription : subscriptions) {
+			subscription.complete();
+		}
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	public int getSubscriberCount() {
+		return subscriptions.size();
+	}
+
+	/**
+	 * @return messages dropped or conflated by all current subscriptions
+	 */
+	public long getDroppedCount() {
+		return subscriptions.stream().mapToLong(PricingSubscription::getDroppedCount).sum();
+	}
+
+	/**
+	 * Subscription handed to {@link Flow.Subscriber#onSubscribe(Flow.Subscription)}. Signals are serialized by a
+	 * work-in-progress counter, so at most one executor task delivers to the subscriber at any time.
+	 */
+	public final class PricingSubscription implements Flow.Subscription, Runnable {
+		private final Flow.Subscriber<? super Pricing.PricingData> subscriber;
+		private final Set<String> symbols;
+		private final ArrayDeque<Pricing.PricingData> buffer = new ArrayDeque<>();
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition notFull = lock.newCondition();
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicLong dropped = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private boolean subscribed;
+		private volatile boolean cancelled;
+		private volatile boolean completed;
+		private volatile Throwable error;
+
+		private PricingSubscription(Flow.Subscriber<? super Pricing.PricingData> subscriber, Set<String> symbols) {
+			this.subscriber = subscriber;
+			this.symbols = symbols;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				error = new IllegalArgumentException("Requested " + n + " items, must be positive (rule 3.9)");
+			} else {
+				demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			subscriptions.remove(this);
+			lock.lock();
+			try {
+				buffer.clear();
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public long getDroppedCount() {
+			return dropped.get();
+		}
+
+		/**
+		 * @return messages buffered for this subscriber
+		 */
+		public int getBacklog() {
+			lock.lock();
+			try {
+				return buffer.size();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void offer(Pricing.PricingData data) {
+			if (cancelled || symbols != null && !symbols.contains(data.getId())) {
+				return;
+			}
+			lock.lock();
+			try {
+				if (buffer.size() >= bufferSize && !makeRoom(data)) {
+					return;
+				}
+				buffer.add(data);
+			} finally {
+				lock.unlock();
+			}
+			schedule();
+		}
+
+		/**
+		 * @return false when the message should not be buffered
+		 */
+		private boolean makeRoom(Pricing.PricingData data) {
+			return switch (overflowPolicy) {
+				case BLOCK -> {
+					while (buffer.size() >= bufferSize && !cancelled) {
+						notFull.awaitUninterruptibly();
+					}
+					yield !cancelled;
+				}
+				case CONFLATE -> dropPending(data.getId()) || dropOldest();
+				case DROP_OLDEST -> dropOldest();
+			};
+		}
+
+		/**
+		 * @return true when a pending message of the symbol was dropped
+		 */
+		private boolean dropPending(String id) {
+			Iterator<Pricing.PricingData> iterator = buffer.iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().getId().equals(id)) {
+					iterator.remove();
+					dropped.incrementAndGet();
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean dropOldest() {
+			buffer.poll();
+			dropped.incrementAndGet();
+			return true;
+		}
+
+		private void complete() {
+			completed = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() == 0) {
+				try {
+					executor.execute(this);
+				} catch (RejectedExecutionException e) {
+					log.error("Pricing publisher executor rejected delivery, cancelling subscription", e);
+					cancel();
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				if (!subscribed) {
+					subscribed = true;
+					try {
+						subscriber.onSubscribe(this);
+					} catch (Throwable e) {
+						log.error("Subscriber failed in onSubscribe, cancelling subscription", e);
+						cancel();
+					}
+				}
+				drain();
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void drain() {
+			while (!cancelled && demand.get() > 0) {
+				Pricing.PricingData data;
+				lock.lock();
+				try {
+					data = buffer.poll();
+					notFull.signal();
+				} finally {
+					lock.unlock();
+				}
+				if (data == null) {
+					break;
+				}
+				demand.getAndUpdate(current -> current == Long.MAX_VALUE ? current : current - 1);
+				try {
+					subscriber.onNext(data);
+				} catch (Throwable e) {
+					log.error("Subscriber failed in onNext, cancelling subscription", e);
+					cancel();
+				}
+			}
+
+			if (cancelled) {
+				return;
+			}
+			Throwable failure = error;
+			if (failure != null) {
+				cancel();
+				subscriber.onError(failure);
+			} else if (completed && getBacklog() == 0) {
+				cancel();
+				subscriber.onComplete();
+			}
+		}
+	}
+}
@@ -0,0 +1,309 @@
+package yahoofinance.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.model.PricingTick;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Single producer ring buffer of preallocated {@link PricingTick} slots, drained by one thread per consumer.
+ * <p>
+ * The websocket I/O thread copies each tick into the next slot and returns immediately; every consumer sees every
+ * tick in order on its own thread, so a slow consumer never stalls socket reads. What happens when the slowest
+ * consumer is a full ring behind is decided by the {@link OverflowPolicy}.
+ * <p>
+ * Only one thread may call {@link #accept(PricingTick)} (the websocket delivers messages of a session sequentially).
+ * The tick passed to a consumer is owned by its thread and is reused for the next tick.
+ */
+@Slf4j
+public class RingBufferDispatcher implements TickDispatcher {
+
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	public enum WaitStrategy {
+		/** Lowest latency, burns a core per waiting thread. */
+		BUSY_SPIN,
+		/** Spins but yields the core to other runnable threads. */
+		YIELD,
+		/** Parks for a short period, lowest CPU usage at the cost of latency. */
+		PARK
+	}
+
+	public enum OverflowPolicy {
+		/** Overwrites the oldest ticks, consumers which fell behind skip them. */
+		DROP_OLDEST,
+		/** Blocks the producer (and therefore socket reads) until the slowest consumer frees a slot. */
+		BLOCK,
+		/** Keeps only the latest pending tick per symbol until the ring has room again. */
+		CONFLATE
+	}
+
+	private static final VarHandle SEQUENCE;
+	private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	static {
+		try {
+			SEQUENCE = MethodHandles.lookup().findVarHandle(Slot.class, "sequence", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	@Getter
+	private final int capacity;
+	@Getter
+	private final WaitStrategy waitStrategy;
+	@Getter
+	private final OverflowPolicy overflowPolicy;
+	private final int mask;
+	private final Slot[] slots;
+	private final List<Worker> workers = new ArrayList<>();
+	private final AtomicLong cursor = new AtomicLong(-1);
+	private final AtomicLong conflated = new AtomicLong();
+	private final LinkedHashMap<String, PricingTick> pending = new LinkedHashMap<>();
+	private final ArrayDeque<PricingTick> pendingPool = new ArrayDeque<>();
+	private long cachedGate = -1;
+	private volatile boolean running = true;
+
+	public RingBufferDispatcher(List<Consumer<PricingTick>> consumers) {
+		this(DEFAULT_CAPACITY, WaitStrategy.YIELD, OverflowPolicy.DROP_OLDEST, consumers);
+	}
+
+	/**
+	 * @param capacity       number of slots, rounded up to a power of two
+	 * @param waitStrategy   how consumers wait for ticks (and the producer for space with {@link OverflowPolicy#BLOCK})
+	 * @param overflowPolicy what to do when the slowest consumer is {@code capacity} ticks behind
+	 * @param consumers      consumers, each drained by its own thread
+	 */
+	public RingBufferDispatcher(int capacity, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy,
+	                            List<Consumer<PricingTick>> consumers) {
+		if (capacity < 2 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity must be between 2 and 2^30");
+		}
+		if (consumers == null || consumers.isEmpty()) {
+			throw new IllegalArgumentException("At least one consumer is required");
+		}
+		this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.waitStrategy = waitStrategy;
+		this.overflowPolicy = overflowPolicy;
+		this.slots = new Slot[this.capacity];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = new Slot();
+		}
+
+		for (int i = 0; i < consumers.size(); i++) {
+			Worker worker = new Worker(consumers.get(i));
+			Thread thread = new Thread(worker, "yfinance-tick-consumer-" + i);
+			thread.setDaemon(true);
+			worker.thread = thread;
+			workers.add(worker);
+		}
+		workers.forEach(worker -> worker.thread.start());
+	}
+
+	@Override
+	public void accept(PricingTick tick) {
+		if (!running) {
+			return;
+		}
+		if (!pending.isEmpty()) {
+			flushPending();
+		}
+
+		long next = cursor.get() + 1;
+		if (overflowPolicy != OverflowPolicy.DROP_OLDEST && !hasCapacity(next)) {
+			if (overflowPolicy == OverflowPolicy.CONFLATE) {
+				conflate(tick);
+				return;
+			}
+			while (!hasCapacity(next)) {
+				if (!running) {
+					return;
+				}
+				idle(waitStrategy);
+			}
+		}
+		publish(next, tick);
+	}
+
+	/**
+	 * Publishes the ticks kept back by {@link OverflowPolicy#CONFLATE} as far as the ring has room. Happens
+	 * automatically on the next tick; call it from the producer thread when the feed goes quiet.
+	 */
+	public void flushPending() {
+		var iterator = pending.values().iterator();
+		while (iterator.hasNext()) {
+			long next = cursor.get() + 1;
+			if (!hasCapacity(next)) {
+				return;
+			}
+			PricingTick tick = iterator.next();
+			iterator.remove();
+			publish(next, tick);
+			pendingPool.push(tick);
+		}
+	}
+
+	public long getPublishedCount() {
+		return cursor.get() + 1;
+	}
+
+	/**
+	 * @return ticks replaced by a newer tick of the same symbol while the ring was full
+	 */
+	public long getConflatedCount() {
+		return conflated.get();
+	}
+
+	/**
+	 * @return ticks overwritten before a consumer read them, summed over all consumers
+	 */
+	public long getDroppedCount() {
+		long dropped = 0;
+		for (Worker worker : workers) {
+			dropped += worker.dropped.get();
+		}
+		return dropped;
+	}
+
+	/**
+	 * @return number of published ticks the slowest consumer has not processed yet
+	 */
+	public long getBacklog() {
+		return cursor.get() - minimumSequence();
+	}
+
+	/**
+	 * Stops accepting ticks, lets the consumers finish the ticks already published and waits for their threads.
+	 */
+	@Override
+	public void close() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		for (Worker worker : workers) {
+			LockSupport.unpark(worker.thread);
+			try {
+				worker.thread.join(TimeUnit.SECONDS.toMillis(5));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void publish(long sequence, PricingTick tick) {
+		Slot slot = slots[(int) sequence & mask];
+		SEQUENCE.setOpaque(slot, -1L);
+		VarHandle.storeStoreFence();
+		slot.tick.copyFrom(tick);
+		SEQUENCE.setRelease(slot, sequence);
+		cursor.set(sequence);
+	}
+
+	private void conflate(PricingTick tick) {
+		PricingTick kept = pending.get(tick.getId());
+		if (kept != null) {
+			kept.copyFrom(tick);
+			conflated.incrementAndGet();
+			return;
+		}
+		PricingTick copy = pendingPool.isEmpty() ? new PricingTick() : pendingPool.pop();
+		pending.put(tick.getId(), copy.copyFrom(tick));
+	}
+
+	private boolean hasCapacity(long sequence) {
+		if (sequence - cachedGate <= capacity) {
+			return true;
+		}
+		cachedGate = minimumSequence();
+		return sequence - cachedGate <= capacity;
+	}
+
+	private long minimumSequence() {
+		long minimum = Long.MAX_VALUE;
+		for (Worker worker : workers) {
+			minimum = Math.min(minimum, worker.sequence);
+		}
+		return minimum;
+	}
+
+	private static void idle(WaitStrategy waitStrategy) {
+		switch (waitStrategy) {
+			case BUSY_SPIN -> Thread.onSpinWait();
+			case YIELD -> Thread.yield();
+			case PARK -> LockSupport.parkNanos(PARK_NANOS);
+		}
+	}
+
+	private static final class Slot {
+		private final PricingTick tick = new PricingTick();
+		@SuppressWarnings("unused") // accessed through SEQUENCE
+		private volatile long sequence = -1;
+	}
+
+	private final class Worker implements Runnable {
+		private final Consumer<PricingTick> consumer;
+		private final PricingTick tick = new PricingTick();
+		private final AtomicLong dropped = new AtomicLong();
+		private volatile long sequence = -1;
+		private Thread thread;
+
+		private Worker(Consumer<PricingTick> consumer) {
+			this.consumer = consumer;
+		}
+
+		@Override
+		public void run() {
+			long next = sequence + 1;
+			while (true) {
+				long available = cursor.get();
+				if (next > available) {
+					if (!running) {
+						return;
+					}
+					idle(waitStrategy);
+					continue;
+				}
+
+				if (available - next >= capacity) {
+					long skipTo = available - capacity + 1;
+					dropped.addAndGet(skipTo - next);
+					next = skipTo;
+				}
+				if (!read(next)) {
+					continue; // overwritten while reading, recompute the position
+				}
+
+				sequence = next++;
+				try {
+					consumer.accept(tick);
+				} catch (Exception e) {
+					log.error("Tick consumer failed for {}", tick.getId(), e);
+				}
+			}
+		}
+
+		private boolean read(long sequence) {
+			Slot slot = slots[(int) sequence & mask];
+			if ((long) SEQUENCE.getAcquire(slot) != sequence) {
+				return false;
+			}
+			tick.copyFrom(slot.tick);
+			VarHandle.loadLoadFence();
+			return (long) SEQUENCE.getOpaque(slot) == sequence;
+		}
+	}
+}
@@ -1,21 +1,30 @@
 package yahoofinance.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import yahoofinance.model.Pricing;
+import yahoofinance.model.PricingTick;
 import yahoofinance.util.Utils;
 
 import javax.websocket.*;
 import java.io.IOException;
 import java.net.URI;
-import java.util.Base64;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 @Getter
@@ -24,23 +33,141 @@ import java.util.function.Consumer;
 public class StockWebSocket {
 
 	private Session webSocketSession;
-	private ScheduledExecutorService heartbeatExecutor;
+	/**
+	 * Drives heartbeats, idle and stale feed detection and reconnects; shared by all connections by default.
+	 */
+	@Setter(AccessLevel.NONE)
+	private final HashedWheelTimer timer;
 	private final WebSocketContainer container;
 	private static final String YAHOO_WEBSOCKET_URL = "wss://streamer.finance.yahoo.com/?version=2";
 	private Consumer<Pricing.PricingData> messageConsumer;
+	private Consumer<PricingTick> tickConsumer;
 	private Endpoint endpoint;
+	/**
+	 * Optional recorder of every pricing message, see {@link TickJournalReplayer}.
+	 */
+	private TickJournal journal;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private final PricingDecoder decoder = new PricingDecoder();
+
+	/**
+	 * Reconnect with jittered exponential backoff when the connection drops without {@link #close()}.
+	 */
+	private boolean autoReconnect = true;
+	private Duration reconnectInitialDelay = Duration.ofMillis(500);
+	private Duration reconnectMaxDelay = Duration.ofSeconds(30);
+	private int maxReconnectAttempts = Integer.MAX_VALUE;
+
+	private Duration heartbeatInterval = Duration.ofSeconds(30);
+	/**
+	 * Closes and reconnects a session which received no frame, not even a pong, for this long; zero disables it.
+	 */
+	private Duration idleTimeout = Duration.ofSeconds(90);
+	/**
+	 * Reports a feed which delivered no pricing message for this long while subscribed; zero disables it.
+	 * Quiet periods are normal outside market hours, so this is disabled by default.
+	 */
+	private Duration staleFeedTimeout = Duration.ZERO;
+	/**
+	 * Called once per stale period with the time since the last pricing message; logs a warning when not set.
+	 */
+	private Consumer<Duration> staleFeedListener;
+	/**
+	 * Reports a subscribed symbol which sent no tick for this long during market hours; zero disables it.
+	 */
+	private Duration staleSymbolTimeout = Duration.ZERO;
+	/**
+	 * Called once per silence with the symbol and the time since its last tick; logs a warning when not set.
+	 */
+	private BiConsumer<String, Duration> staleSymbolListener;
+	@Setter(AccessLevel.NONE)
+	private final FeedMetrics metrics = new FeedMetrics();
+
+	/**
+	 * Upper bound of the length of one subscribe or unsubscribe frame; larger changes are split.
+	 */
+	private int maxSubscriptionFrameSize = 8192;
+
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private final Set<String> subscriptions = ConcurrentHashMap.newKeySet();
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private final Object subscriptionLock = new Object();
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private final Set<String> pendingSubscribe = new LinkedHashSet<>();
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private final Set<String> pendingUnsubscribe = new LinkedHashSet<>();
+	/**
+	 * Session a subscription frame is in flight on, null when none is; completions of other sessions are stale.
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private Session sendingSubscriptionsOn;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private int subscriptionFailures;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private HashedWheelTimer.Timeout subscriptionRetryTask;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private final AtomicLong reconnectCount = new AtomicLong();
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private final AtomicLong totalGapNanos = new AtomicLong();
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private volatile long lastGapNanos;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private volatile long disconnectedAtNanos;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private volatile boolean closing;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private volatile HashedWheelTimer.Timeout heartbeatTask;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private volatile HashedWheelTimer.Timeout reconnectTask;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private volatile HashedWheelTimer.Timeout staleSymbolTask;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private volatile long lastFrameNanos;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private volatile long lastPricingNanos;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private volatile boolean staleReported;
 
 	public StockWebSocket() {
+		this(HashedWheelTimer.shared());
+	}
+
+	public StockWebSocket(HashedWheelTimer timer) {
 		this.container = ContainerProvider.getWebSocketContainer();
 		this.container.setDefaultMaxSessionIdleTimeout(0);
 		this.container.setDefaultMaxTextMessageBufferSize(65536);
 		this.container.setDefaultMaxBinaryMessageBufferSize(65536);
-		this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor();
+		this.timer = timer;
 	}
 
 	private void messageHandler(String message) {
 		log.debug("Received WebSocket message: {}", message);
+		lastFrameNanos = System.nanoTime();
 		try {
+			if (decoder.decodeEnvelope(message)) {
+				dispatch();
+				return;
+			}
+
 			JsonNode jsonNode = Utils.getObjectMapper().readTree(message);
 
 			if (jsonNode.has("type") && jsonNode.has("message")) {
@@ -48,10 +175,8 @@ public class StockWebSocket {
 
 				if ("pricing".equals(type)) {
 					String base64Message = jsonNode.get("message").asText();
-					Pricing.PricingData pricingData = decodeYahooFinanceData(base64Message);
-					if (messageConsumer != null) {
-						messageConsumer.accept(pricingData);
-					}
+					decoder.decodeBase64(base64Message, 0, base64Message.length());
+					dispatch();
 				} else {
 					log.info("Received non-data message type: {}", type);
 				}
@@ -63,13 +188,91 @@ public class StockWebSocket {
 		}
 	}
 
+	/**
+	 * Records the decoded payload and its metrics and delivers it to the tick and message consumers. A message is
+	 * only built when there is a consumer for it.
+	 */
+	private void dispatch() throws IOException {
+		long receivedAt = lastFrameNanos;
+		long receivedMillis = System.currentTimeMillis();
+		PricingTick tick = decoder.readTick();
+		long decodedAt = System.nanoTime();
+		metrics.record(tick.getId(), tick.getTime(), tick.getMarketHours(), receivedMillis, decodedAt - receivedAt,
+				decodedAt);
+		lastPricingNanos = receivedAt;
+		if (staleReported) {
+			staleReported = false;
+		}
+
+		TickJournal recorder = journal;
+		if (recorder != null) {
+			try {
+				recorder.append(decoder.getPayloadBuffer(), 0, decoder.getPayloadLength(), receivedMillis);
+			} catch (IOException e) {
+				log.warn("Failed to record pricing message: {}", e.getMessage());
+			}
+		}
+		if (tickConsumer != null) {
+			tickConsumer.accept(tick);
+		}
+		if (messageConsumer != null) {
+			messageConsumer.accept(decoder.readPricingData());
+		}
+	}
+
 	public void listen(Consumer<Pricing.PricingData> consumer) {
 		this.messageConsumer = consumer;
+		createEndpoint();
+	}
+
+	/**
+	 * Listens for ticks decoded into a single reused {@link PricingTick}, without allocating per message. The
+	 * tick is only valid during the callback; copy it to keep it. Can be combined with {@link #listen(Consumer)}.
+	 * <p>
+	 * The consumer runs on the websocket I/O thread. Pass a {@link TickDispatcher} such as
+	 * {@link RingBufferDispatcher} to run slow consumers on their own threads without stalling socket reads.
+	 */
+	public void listenTicks(Consumer<PricingTick> consumer) {
+		this.tickConsumer = consumer;
+		createEndpoint();
+	}
+
+	/**
+	 * Switches to conflating delivery: only the latest tick of each symbol is kept and readers created with
+	 * {@link ConflatingDispatcher#newReader()} drain the symbols updated since their previous drain.
+	 */
+	public ConflatingDispatcher listenConflated() {
+		ConflatingDispatcher dispatcher = new ConflatingDispatcher();
+		listenTicks(dispatcher);
+		return dispatcher;
+	}
+
+	/**
+	 * Exposes the pricing messages as a {@link java.util.concurrent.Flow.Publisher} with per subscriber demand,
+	 * symbol filters and bounded buffers. Replaces the consumer set with {@link #listen(Consumer)}.
+	 */
+	public PricingPublisher listenPublisher() {
+		return listenPublisher(PricingPublisher.DEFAULT_BUFFER_SIZE, RingBufferDispatcher.OverflowPolicy.DROP_OLDEST);
+	}
+
+	public PricingPublisher listenPublisher(int bufferSize, RingBufferDispatcher.OverflowPolicy overflowPolicy) {
+		PricingPublisher publisher = new PricingPublisher(bufferSize, overflowPolicy);
+		listen(publisher);
+		return publisher;
+	}
+
+	private void createEndpoint() {
 		this.endpoint = new Endpoint() {
 			@Override
 			public void onClose(Session session, CloseReason closeReason) {
 				log.warn("WebSocket session closed: {} - {}", closeReason.getCloseCode(), closeReason.getReasonPhrase());
 				stopHeartbeat();
+				if (!closing && autoReconnect) {
+					if (disconnectedAtNanos == 0) {
+						disconnectedAtNanos = System.nanoTime();
+					}
+					scheduleReconnect(1);
+				}
 			}
 
 			@Override
@@ -81,8 +284,10 @@ public class StockWebSocket {
 			public void onOpen(Session session, EndpointConfig endpointConfig) {
 				webSocketSession = session;
 				session.addMessageHandler(String.class, message -> messageHandler(message));
+				session.addMessageHandler(PongMessage.class, pong -> lastFrameNanos = System.nanoTime());
 				log.info("WebSocket connection established successfully");
 				startHeartbeat();
+				onReconnected();
 			}
 		};
 	}
@@ -92,6 +297,8 @@ public class StockWebSocket {
 			throw new IllegalStateException("Must call listen() before connect()");
 		}
 
+		closing = false;
+
 		try {
 			URI serverEndpointUri = URI.create(YAHOO_WEBSOCKET_URL);
 			webSocketSession = container.connectToServer(endpoint, serverEndpointUri);
@@ -106,22 +313,15 @@ public class StockWebSocket {
 		subscribe(List.of(ticker));
 	}
 
+	/**
+	 * Adds tickers to the managed subscription set; only tickers not subscribed yet are sent.
+	 */
 	public void subscribe(List<String> tickers) {
 		if (webSocketSession == null || !webSocketSession.isOpen()) {
 			throw new IllegalStateException("WebSocket is not connected. Call connect() first.");
 		}
-
-		try {
-			Map<String, Object> subscribeMessage = Map.of("subscribe", tickers);
-			String subscribeMessageJson = Utils.getGson().toJson(subscribeMessage);
-
-			log.info("Subscribing to tickers: {}", tickers);
-			webSocketSession.getBasicRemote().sendText(subscribeMessageJson);
-
-		} catch (IOException e) {
-			log.error("Failed to send subscribe message", e);
-			throw new RuntimeException("Failed to subscribe to tickers", e);
-		}
+		log.info("Subscribing to tickers: {}", tickers);
+		updateSubscriptions(tickers, List.of());
 	}
 
 	public void unsubscribe(String ticker) {
@@ -131,25 +331,201 @@ public class StockWebSocket {
 	public void unsubscribe(List<String> tickers) {
 		if (webSocketSession == null || !webSocketSession.isOpen()) {
 			log.warn("WebSocket is not connected. Cannot unsubscribe from tickers: {}", tickers);
-			return;
+		} else {
+			log.info("Unsubscribing from tickers: {}", tickers);
+		}
+		updateSubscriptions(List.of(), tickers);
+	}
+
+	/**
+	 * Replaces the managed subscription set. Only the difference to the current set is sent, as subscribe and
+	 * unsubscribe frames of at most {@link #getMaxSubscriptionFrameSize()} characters on the async remote.
+	 * Changes made while a frame is in flight are coalesced with the pending ones, so a ticker added and removed
+	 * again before it was sent causes no traffic at all. May be called before {@link #connect()}; the set is sent
+	 * when the connection opens.
+	 */
+	public void setSubscriptions(Set<String> tickers) {
+		List<String> added = new ArrayList<>();
+		List<String> removed = new ArrayList<>();
+		synchronized (subscriptionLock) {
+			for (String ticker : tickers) {
+				if (!subscriptions.contains(ticker)) {
+					added.add(ticker);
+				}
+			}
+			for (String ticker : subscriptions) {
+				if (!tickers.contains(ticker)) {
+					removed.add(ticker);
+				}
+			}
+			updateSubscriptions(added, removed);
+		}
+	}
+
+	private void updateSubscriptions(Collection<String> added, Collection<String> removed) {
+		long now = System.nanoTime();
+		synchronized (subscriptionLock) {
+			for (String ticker : removed) {
+				if (subscriptions.remove(ticker)) {
+					metrics.untrack(ticker);
+					if (!pendingSubscribe.remove(ticker)) {
+						pendingUnsubscribe.add(ticker);
+					}
+				}
+			}
+			for (String ticker : added) {
+				if (subscriptions.add(ticker)) {
+					metrics.track(ticker, now);
+					if (!pendingUnsubscribe.remove(ticker)) {
+						pendingSubscribe.add(ticker);
+					}
+				}
+			}
+		}
+		flushSubscriptions();
+	}
+
+	/**
+	 * Sends the next pending subscription frame unless one is in flight; the completion of a frame sends the next.
+	 * A frame which fails is put back into the pending changes and sent again after a backoff.
+	 */
+	private void flushSubscriptions() {
+		Session session;
+		SubscriptionFrame frame;
+		synchronized (subscriptionLock) {
+			session = webSocketSession;
+			if (sendingSubscriptionsOn == session || session == null || !session.isOpen()) {
+				return;
+			}
+			frame = nextSubscriptionFrame();
+			if (frame == null) {
+				return;
+			}
+			sendingSubscriptionsOn = session;
 		}
 
 		try {
-			Map<String, Object> unsubscribeMessage = Map.of("unsubscribe", tickers);
-			String unsubscribeMessageJson = Utils.getGson().toJson(unsubscribeMessage);
+			session.getAsyncRemote().sendText(frame.text, result -> {
+				synchronized (subscriptionLock) {
+					if (sendingSubscriptionsOn != session) {
+						// completion of a replaced session, the new session was sent the whole set
+						return;
+					}
+					sendingSubscriptionsOn = null;
+					if (result.isOK()) {
+						subscriptionFailures = 0;
+					}
+				}
+				if (result.isOK()) {
+					flushSubscriptions();
+				} else {
+					onSubscriptionFrameFailed(session, frame, result.getException());
+				}
+			});
+		} catch (RuntimeException e) {
+			synchronized (subscriptionLock) {
+				if (sendingSubscriptionsOn == session) {
+					sendingSubscriptionsOn = null;
+				}
+			}
+			onSubscriptionFrameFailed(session, frame, e);
+		}
+	}
 
-			log.info("Unsubscribing from tickers: {}", tickers);
-			webSocketSession.getBasicRemote().sendText(unsubscribeMessageJson);
+	/**
+	 * Puts the tickers of a failed frame back into the pending changes, unless a later change superseded them, and
+	 * schedules another flush with backoff.
+	 */
+	private void onSubscriptionFrameFailed(Session session, SubscriptionFrame frame, Throwable cause) {
+		log.error("Failed to send subscription update: {}", frame.text, cause);
+		int failures;
+		synchronized (subscriptionLock) {
+			if (webSocketSession != session) {
+				return;
+			}
+			// the server never saw the frame: resend what still applies, drop the reversal of what was superseded
+			for (String ticker : frame.tickers) {
+				boolean subscribed = subscriptions.contains(ticker);
+				if (frame.unsubscribe) {
+					if (subscribed) {
+						pendingSubscribe.remove(ticker);
+					} else {
+						pendingUnsubscribe.add(ticker);
+					}
+				} else if (subscribed) {
+					pendingSubscribe.add(ticker);
+				} else {
+					pendingUnsubscribe.remove(ticker);
+				}
+			}
+			failures = ++subscriptionFailures;
+			if (subscriptionRetryTask != null && !subscriptionRetryTask.isExpired()
+			    && !subscriptionRetryTask.isCancelled()) {
+				return;
+			}
+			Duration delay = Utils.backoffDelay(failures, reconnectInitialDelay, reconnectMaxDelay);
+			subscriptionRetryTask = timer.newTimeout(this::flushSubscriptions, delay.toMillis(),
+					TimeUnit.MILLISECONDS);
+		}
+	}
 
-		} catch (IOException e) {
-			log.error("Failed to send unsubscribe message", e);
-			throw new RuntimeException("Failed to unsubscribe from tickers", e);
+	/**
+	 * Takes as many pending tickers as fit into one frame, unsubscribes first so the server never holds both sets.
+	 *
+	 * @return the frame, or null when nothing is pending
+	 */
+	private SubscriptionFrame nextSubscriptionFrame() {
+		boolean unsubscribe = !pendingUnsubscribe.isEmpty();
+		Set<String> pending = unsubscribe ? pendingUnsubscribe : pendingSubscribe;
+		if (pending.isEmpty()) {
+			return null;
+		}
+
+		StringBuilder frame = new StringBuilder(Math.min(maxSubscriptionFrameSize, 1024));
+		frame.append(unsubscribe ? "{\"unsubscribe\":[" : "{\"subscribe\":[");
+		List<String> tickers = new ArrayList<>();
+		Iterator<String> iterator = pending.iterator();
+		while (iterator.hasNext()) {
+			String ticker = iterator.next();
+			String json = Utils.getGson().toJson(ticker);
+			if (!tickers.isEmpty() && frame.length() + json.length() + 3 > maxSubscriptionFrameSize) {
+				break;
+			}
+			if (!tickers.isEmpty()) {
+				frame.append(',');
+			}
+			frame.append(json);
+			iterator.remove();
+			tickers.add(ticker);
+		}
+		return new SubscriptionFrame(unsubscribe, tickers, frame.append("]}").toString());
+	}
+
+	private static final class SubscriptionFrame {
+		private final boolean unsubscribe;
+		private final List<String> tickers;
+		private final String text;
+
+		private SubscriptionFrame(boolean unsubscribe, List<String> tickers, String text) {
+			this.unsubscribe = unsubscribe;
+			this.tickers = tickers;
+			this.text = text;
 		}
 	}
 
 	public void close() {
+		closing = true;
 		try {
 			stopHeartbeat();
+			HashedWheelTimer.Timeout pendingReconnect = reconnectTask;
+			if (pendingReconnect != null) {
+				pendingReconnect.cancel();
+			}
+			synchronized (subscriptionLock) {
+				if (subscriptionRetryTask != null) {
+					subscriptionRetryTask.cancel();
+				}
+			}
 
 			if (webSocketSession != null && webSocketSession.isOpen()) {
 				webSocketSession.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "Client closing"));
@@ -166,41 +542,184 @@ public class StockWebSocket {
 		return webSocketSession != null && webSocketSession.isOpen();
 	}
 
+	/**
+	 * @return tickers subscribed to, replayed after every reconnect
+	 */
+	public Set<String> getSubscriptions() {
+		return Set.copyOf(subscriptions);
+	}
+
+	public long getReconnectCount() {
+		return reconnectCount.get();
+	}
+
+	/**
+	 * @return duration of the last connection gap which ended with a successful reconnect
+	 */
+	public Duration getLastGapDuration() {
+		return Duration.ofNanos(lastGapNanos);
+	}
+
+	/**
+	 * @return sum of all connection gaps which ended with a successful reconnect
+	 */
+	public Duration getTotalGapDuration() {
+		return Duration.ofNanos(totalGapNanos.get());
+	}
+
+	/**
+	 * @return time since the last frame of the current session, zero while not connected
+	 */
+	public Duration getIdleDuration() {
+		return isConnected() ? Duration.ofNanos(System.nanoTime() - lastFrameNanos) : Duration.ZERO;
+	}
+
+	/**
+	 * @return time since the connection dropped, zero while connected
+	 */
+	public Duration getCurrentGapDuration() {
+		long disconnectedAt = disconnectedAtNanos;
+		return disconnectedAt == 0 ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - disconnectedAt);
+	}
+
+	private void scheduleReconnect(int attempt) {
+		if (attempt > maxReconnectAttempts) {
+			log.error("Giving up reconnecting to Yahoo Finance WebSocket after {} attempts", maxReconnectAttempts);
+			return;
+		}
+
+		Duration delay = reconnectDelay(attempt, reconnectInitialDelay, reconnectMaxDelay);
+		log.info("Reconnecting to Yahoo Finance WebSocket in {} ms (attempt {})", delay.toMillis(), attempt);
+		reconnectTask = timer.newTimeout(() -> reconnect(attempt), delay.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	private void reconnect(int attempt) {
+		if (closing) {
+			return;
+		}
+		try {
+			container.connectToServer(endpoint, URI.create(YAHOO_WEBSOCKET_URL));
+		} catch (DeploymentException | IOException e) {
+			log.warn("Reconnect attempt {} failed: {}", attempt, e.getMessage());
+			scheduleReconnect(attempt + 1);
+		}
+	}
+
+	/**
+	 * Records the gap when a dropped connection has been re-established and sends the whole managed subscription
+	 * set on the new session; pending changes of the previous session are obsolete.
+	 */
+	private void onReconnected() {
+		long disconnectedAt = disconnectedAtNanos;
+		if (disconnectedAt != 0) {
+			long gap = System.nanoTime() - disconnectedAt;
+			disconnectedAtNanos = 0;
+			lastGapNanos = gap;
+			totalGapNanos.addAndGet(gap);
+			reconnectCount.incrementAndGet();
+			log.info("Reconnected after {} ms, resubscribing to {} tickers", TimeUnit.NANOSECONDS.toMillis(gap),
+					subscriptions.size());
+		}
+
+		synchronized (subscriptionLock) {
+			pendingUnsubscribe.clear();
+			pendingSubscribe.clear();
+			pendingSubscribe.addAll(subscriptions);
+			sendingSubscriptionsOn = null;
+			subscriptionFailures = 0;
+		}
+		flushSubscriptions();
+	}
+
+	/**
+	 * Jittered exponential backoff, see {@link Utils#backoffDelay(int, Duration, Duration)}.
+	 */
+	static Duration reconnectDelay(int attempt, Duration initialDelay, Duration maxDelay) {
+		return Utils.backoffDelay(attempt, initialDelay, maxDelay);
+	}
+
+	/**
+	 * Schedules the heartbeat of a new session on the shared timer. Every beat checks the session for idleness and
+	 * the feed for staleness before sending a ping.
+	 */
 	private void startHeartbeat() {
-		heartbeatExecutor.scheduleAtFixedRate(() -> {
-			try {
-				if (webSocketSession != null && webSocketSession.isOpen()) {
-					webSocketSession.getBasicRemote().sendPing(java.nio.ByteBuffer.allocate(0));
-					log.debug("Sent heartbeat ping");
-				}
-			} catch (IOException e) {
-				log.warn("Failed to send heartbeat ping", e);
+		stopHeartbeat();
+		long now = System.nanoTime();
+		lastFrameNanos = now;
+		lastPricingNanos = now;
+		staleReported = false;
+		long interval = Math.max(1, heartbeatInterval.toMillis());
+		heartbeatTask = timer.newPeriodicTimeout(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+		if (!staleSymbolTimeout.isZero()) {
+			long period = Math.max(1000, staleSymbolTimeout.toMillis() / 4);
+			staleSymbolTask = timer.newPeriodicTimeout(this::checkStaleSymbols, period, period, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void checkStaleSymbols() {
+		Map<String, Duration> stale = metrics.findStale(subscriptions, staleSymbolTimeout.toNanos(), System.nanoTime());
+		BiConsumer<String, Duration> listener = staleSymbolListener;
+		stale.forEach((symbol, silence) -> {
+			if (listener != null) {
+				listener.accept(symbol, silence);
+			} else {
+				log.warn("No tick received for {} in {} ms during market hours", symbol, silence.toMillis());
 			}
-		}, 30, 30, TimeUnit.SECONDS);
+		});
 	}
 
-	private void stopHeartbeat() {
-		if (heartbeatExecutor != null && !heartbeatExecutor.isShutdown()) {
-			heartbeatExecutor.shutdown();
+	private void heartbeat() {
+		Session session = webSocketSession;
+		if (session == null || !session.isOpen()) {
+			return;
+		}
+
+		long now = System.nanoTime();
+		long idle = now - lastFrameNanos;
+		if (!idleTimeout.isZero() && idle > idleTimeout.toNanos()) {
+			log.warn("No WebSocket frame received for {} ms, closing the session", TimeUnit.NANOSECONDS.toMillis(idle));
 			try {
-				if (!heartbeatExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-					heartbeatExecutor.shutdownNow();
-				}
-			} catch (InterruptedException e) {
-				heartbeatExecutor.shutdownNow();
-				Thread.currentThread().interrupt();
+				session.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "Idle timeout"));
+			} catch (IOException e) {
+				log.warn("Failed to close idle WebSocket session", e);
+			}
+			return;
+		}
+
+		long quiet = now - lastPricingNanos;
+		if (!staleFeedTimeout.isZero() && !staleReported && !subscriptions.isEmpty()
+		    && quiet > staleFeedTimeout.toNanos()) {
+			staleReported = true;
+			Consumer<Duration> listener = staleFeedListener;
+			if (listener != null) {
+				listener.accept(Duration.ofNanos(quiet));
+			} else {
+				log.warn("No pricing message received for {} ms while subscribed to {} tickers",
+						TimeUnit.NANOSECONDS.toMillis(quiet), subscriptions.size());
 			}
 		}
-	}
 
-	private static Pricing.PricingData decodeYahooFinanceData(String base64Data) {
 		try {
-			byte[] data = Base64.getDecoder().decode(base64Data);
-			return Pricing.PricingData.parseFrom(data);
+			session.getBasicRemote().sendPing(ByteBuffer.allocate(0));
+			log.debug("Sent heartbeat ping");
+		} catch (IOException e) {
+			log.warn("Failed to send heartbeat ping", e);
+		}
+	}
 
-		} catch (Exception e) {
-			log.error("Failed to decode Yahoo Finance data: {}", base64Data, e);
-			throw new RuntimeException("Failed to decode Yahoo Finance data", e);
+	/**
+	 * Cancels the heartbeat of the current session; the next session starts its own on the same timer.
+	 */
+	private void stopHeartbeat() {
+		HashedWheelTimer.Timeout task = heartbeatTask;
+		if (task != null) {
+			task.cancel();
+			heartbeatTask = null;
+		}
+		HashedWheelTimer.Timeout symbolTask = staleSymbolTask;
+		if (symbolTask != null) {
+			symbolTask.cancel();
+			staleSymbolTask = null;
 		}
 	}
-}
\ No newline at end of file
+}
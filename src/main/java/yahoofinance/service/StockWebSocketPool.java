@@ -0,0 +1,260 @@
+package yahoofinance.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.model.Pricing;
+import yahoofinance.model.PricingTick;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Spreads a large subscription set over several {@link StockWebSocket} connections.
+ * <p>
+ * Symbols are assigned to a connection by hash; when a connection carries more than its share by
+ * {@link #getMaxSkew() maxSkew} the new symbol goes to the least loaded one instead, and unsubscribing triggers a
+ * {@link #rebalance()} once the connections drift apart. Every connection reconnects on its own, so a dropped
+ * connection only affects its part of the symbols.
+ * <p>
+ * The output of all connections is merged into one consumer. Calls of the consumer are serialized, so it does not
+ * need to be thread safe and may be a single producer {@link TickDispatcher}.
+ */
+@Slf4j
+public class StockWebSocketPool {
+
+	public static final double DEFAULT_MAX_SKEW = 0.25;
+
+	private final List<StockWebSocket> sockets;
+	private final List<Set<String>> shards;
+	private final Map<String, Integer> assignments = new HashMap<>();
+	private final ReentrantLock consumerLock = new ReentrantLock();
+	@Getter
+	private final double maxSkew;
+
+	public StockWebSocketPool(int connections) {
+		this(connections, DEFAULT_MAX_SKEW, StockWebSocket::new);
+	}
+
+	/**
+	 * @param connections   number of websocket connections
+	 * @param maxSkew       how far above the average a connection may grow, relative to the average
+	 * @param socketFactory creates the connections
+	 */
+	public StockWebSocketPool(int connections, double maxSkew, Supplier<StockWebSocket> socketFactory) {
+		if (connections < 1) {
+			throw new IllegalArgumentException("At least one connection is required");
+		}
+		if (maxSkew < 0) {
+			throw new IllegalArgumentException("Max skew cannot be negative");
+		}
+		this.maxSkew = maxSkew;
+		this.sockets = new ArrayList<>(connections);
+		this.shards = new ArrayList<>(connections);
+		for (int i = 0; i < connections; i++) {
+			sockets.add(socketFactory.get());
+			shards.add(new LinkedHashSet<>());
+		}
+	}
+
+	public void listen(Consumer<Pricing.PricingData> consumer) {
+		for (StockWebSocket socket : sockets) {
+			socket.listen(data -> {
+				consumerLock.lock();
+				try {
+					consumer.accept(data);
+				} finally {
+					consumerLock.unlock();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Merged variant of {@link StockWebSocket#listenTicks(Consumer)}; the tick is only valid during the callback.
+	 */
+	public void listenTicks(Consumer<PricingTick> consumer) {
+		for (StockWebSocket socket : sockets) {
+			socket.listenTicks(tick -> {
+				consumerLock.lock();
+				try {
+					consumer.accept(tick);
+				} finally {
+					consumerLock.unlock();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Records the messages of all connections into one journal, null to stop recording.
+	 */
+	public void setJournal(TickJournal journal) {
+		for (StockWebSocket socket : sockets) {
+			socket.setJournal(journal);
+		}
+	}
+
+	public void connect() {
+		for (StockWebSocket socket : sockets) {
+			socket.connect();
+		}
+	}
+
+	public synchronized void subscribe(Collection<String> tickers) {
+		Map<Integer, List<String>> plan = assign(tickers);
+		plan.forEach((shard, symbols) -> sockets.get(shard).subscribe(symbols));
+	}
+
+	public synchronized void unsubscribe(Collection<String> tickers) {
+		Map<Integer, List<String>> removed = new HashMap<>();
+		for (String ticker : tickers) {
+			Integer shard = assignments.remove(ticker);
+			if (shard != null) {
+				shards.get(shard).remove(ticker);
+				removed.computeIfAbsent(shard, s -> new ArrayList<>()).add(ticker);
+			}
+		}
+		removed.forEach((shard, symbols) -> sockets.get(shard).unsubscribe(symbols));
+
+		if (isSkewed()) {
+			rebalance();
+		}
+	}
+
+	/**
+	 * Replaces the subscribed symbols, only subscribing and unsubscribing the difference.
+	 */
+	public synchronized void setSubscriptions(Set<String> tickers) {
+		List<String> removed = new ArrayList<>();
+		for (String ticker : assignments.keySet()) {
+			if (!tickers.contains(ticker)) {
+				removed.add(ticker);
+			}
+		}
+		if (!removed.isEmpty()) {
+			unsubscribe(removed);
+		}
+		subscribe(tickers);
+	}
+
+	/**
+	 * Moves symbols from the most to the least loaded connections until no connection carries more than its
+	 * share by {@link #getMaxSkew()}. A moved symbol is subscribed on its new connection before it is
+	 * unsubscribed from the old one, so it may briefly be delivered twice but never goes missing.
+	 *
+	 * @return number of symbols moved
+	 */
+	public synchronized int rebalance() {
+		Map<Integer, List<String>> moves = new HashMap<>();
+		Map<Integer, List<String>> removals = new HashMap<>();
+		int moved = 0;
+		while (isSkewed()) {
+			int from = mostLoaded();
+			int to = leastLoaded();
+			if (shards.get(from).size() - shards.get(to).size() <= 1) {
+				break;
+			}
+			String symbol = shards.get(from).iterator().next();
+			shards.get(from).remove(symbol);
+			shards.get(to).add(symbol);
+			assignments.put(symbol, to);
+			moves.computeIfAbsent(to, s -> new ArrayList<>()).add(symbol);
+			removals.computeIfAbsent(from, s -> new ArrayList<>()).add(symbol);
+			moved++;
+		}
+
+		if (moved > 0) {
+			log.info("Rebalancing {} symbols across {} websocket connections", moved, sockets.size());
+			moves.forEach((shard, symbols) -> sockets.get(shard).subscribe(symbols));
+			removals.forEach((shard, symbols) -> sockets.get(shard).unsubscribe(symbols));
+		}
+		return moved;
+	}
+
+	public void close() {
+		for (StockWebSocket socket : sockets) {
+			socket.close();
+		}
+	}
+
+	public boolean isConnected() {
+		return sockets.stream().allMatch(StockWebSocket::isConnected);
+	}
+
+	public List<StockWebSocket> getSockets() {
+		return List.copyOf(sockets);
+	}
+
+	/**
+	 * @return index of the connection carrying the symbol, or -1 when it is not subscribed
+	 */
+	public synchronized int getShard(String symbol) {
+		return assignments.getOrDefault(symbol, -1);
+	}
+
+	/**
+	 * @return number of symbols carried by each connection
+	 */
+	public synchronized int[] getShardSizes() {
+		return shards.stream().mapToInt(Set::size).toArray();
+	}
+
+	/**
+	 * Assigns new symbols to connections without sending anything.
+	 *
+	 * @return the newly assigned symbols grouped by connection index
+	 */
+	synchronized Map<Integer, List<String>> assign(Collection<String> tickers) {
+		Map<Integer, List<String>> plan = new HashMap<>();
+		for (String ticker : tickers) {
+			if (assignments.containsKey(ticker)) {
+				continue;
+			}
+			int shard = Math.floorMod(ticker.hashCode(), sockets.size());
+			if (shards.get(shard).size() + 1 > limit(assignments.size() + 1)) {
+				shard = leastLoaded();
+			}
+			assignments.put(ticker, shard);
+			shards.get(shard).add(ticker);
+			plan.computeIfAbsent(shard, s -> new ArrayList<>()).add(ticker);
+		}
+		return plan;
+	}
+
+	private boolean isSkewed() {
+		return shards.get(mostLoaded()).size() > limit(assignments.size());
+	}
+
+	private int limit(int symbols) {
+		double average = (double) symbols / sockets.size();
+		return Math.max((int) Math.ceil(average * (1 + maxSkew)), (int) Math.ceil(average) + 1);
+	}
+
+	private int mostLoaded() {
+		int best = 0;
+		for (int i = 1; i < shards.size(); i++) {
+			if (shards.get(i).size() > shards.get(best).size()) {
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	private int leastLoaded() {
+		int best = 0;
+		for (int i = 1; i < shards.size(); i++) {
+			if (shards.get(i).size() < shards.get(best).size()) {
+				best = i;
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,19 @@
+package yahoofinance.service;
+
+import yahoofinance.model.PricingTick;
+
+import java.util.function.Consumer;
+
+/**
+ * Hands ticks decoded on the websocket I/O thread over to consumers running elsewhere. A dispatcher is passed to
+ * {@link StockWebSocket#listenTicks(Consumer)}; {@link #accept(PricingTick)} must copy what it needs from the tick
+ * because the decoder reuses it for the next message.
+ */
+public interface TickDispatcher extends Consumer<PricingTick>, AutoCloseable {
+
+	/**
+	 * Stops accepting ticks and releases the consumer threads.
+	 */
+	@Override
+	void close();
+}
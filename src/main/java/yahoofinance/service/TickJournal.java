@@ -0,0 +1,158 @@
+package yahoofinance.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.model.Pricing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append only, memory mapped journal of the raw pricing messages received by a {@link StockWebSocket}.
+ * <p>
+ * After a {@value #HEADER_SIZE} byte header every record holds the payload length ({@code int}), the receive time in
+ * epoch milliseconds ({@code long}) and the protobuf bytes of {@link Pricing.PricingData}, little endian. The header
+ * stores the end of the last complete record, so a crash never exposes a partially written record. Journals are
+ * read back with {@link TickJournalReplayer}.
+ * <p>
+ * Appends are synchronized, so one journal may record all connections of a {@link StockWebSocketPool}.
+ */
+@Slf4j
+public class TickJournal implements Closeable {
+
+	public static final int HEADER_SIZE = 64;
+	static final int RECORD_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+	static final int MAGIC = 0x5946544A; // "YFTJ"
+	static final int VERSION = 1;
+	static final int END_OFFSET = 16;
+	static final int COUNT_OFFSET = 24;
+
+	private static final int MIN_SIZE = 1 << 20;
+
+	@Getter
+	private final Path file;
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int end;
+	private long count;
+
+	private TickJournal(Path file) throws IOException {
+		this.file = file;
+		this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE);
+		try {
+			long fileSize = channel.size();
+			if (fileSize == 0) {
+				map(MIN_SIZE);
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, VERSION);
+				buffer.putLong(END_OFFSET, HEADER_SIZE);
+				buffer.putLong(COUNT_OFFSET, 0);
+				end = HEADER_SIZE;
+				return;
+			}
+
+			if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+				throw new IOException("Not a tick journal: " + file);
+			}
+			map((int) fileSize);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				throw new IOException("Unsupported tick journal format: " + file);
+			}
+			long committed = buffer.getLong(END_OFFSET);
+			if (committed < HEADER_SIZE || committed > fileSize) {
+				throw new IOException("Corrupted tick journal: " + file);
+			}
+			end = (int) committed;
+			count = buffer.getLong(COUNT_OFFSET);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens the journal for appending, creating the file when it does not exist.
+	 */
+	public static TickJournal open(Path file) throws IOException {
+		return new TickJournal(file);
+	}
+
+	/**
+	 * @throws ClosedChannelException when the journal was closed
+	 */
+	public synchronized void append(byte[] payload, int offset, int length, long receivedAt) throws IOException {
+		if (!channel.isOpen()) {
+			throw new ClosedChannelException();
+		}
+		ensureCapacity((long) end + RECORD_HEADER_SIZE + length);
+		int position = end;
+		buffer.putLong(position + Integer.BYTES, receivedAt);
+		buffer.put(position + RECORD_HEADER_SIZE, payload, offset, length);
+		buffer.putInt(position, length);
+
+		end = position + RECORD_HEADER_SIZE + length;
+		count++;
+		buffer.putLong(COUNT_OFFSET, count);
+		buffer.putLong(END_OFFSET, end);
+	}
+
+	public void append(Pricing.PricingData data, long receivedAt) throws IOException {
+		byte[] payload = data.toByteArray();
+		append(payload, 0, payload.length, receivedAt);
+	}
+
+	public synchronized long getRecordCount() {
+		return count;
+	}
+
+	/**
+	 * @return bytes used by the header and all records
+	 */
+	public synchronized long getSize() {
+		return end;
+	}
+
+	/**
+	 * Writes the appended records through to the file.
+	 */
+	public synchronized void force() {
+		if (channel.isOpen()) {
+			buffer.force();
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		buffer.force();
+		buffer = null;
+		channel.close();
+	}
+
+	private void ensureCapacity(long required) throws IOException {
+		if (required <= buffer.capacity()) {
+			return;
+		}
+		if (required > Integer.MAX_VALUE) {
+			throw new IOException("Tick journal is full, start a new file: " + file);
+		}
+		long grown = Math.min(Integer.MAX_VALUE, Math.max(required, (long) buffer.capacity() * 2));
+		log.debug("Growing tick journal {} to {} bytes", file, grown);
+		buffer.force();
+		map((int) grown);
+	}
+
+	private void map(int size) throws IOException {
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
@@ -0,0 +1,128 @@
+package yahoofinance.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.model.Pricing;
+import yahoofinance.model.PricingTick;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Feeds a {@link TickJournal} back through the consumer API of {@link StockWebSocket}, either with the original
+ * spacing between messages or as fast as possible. Replay runs on the calling thread.
+ */
+@Slf4j
+@Getter
+public class TickJournalReplayer {
+
+	public enum Pace {
+		/** Waits between messages as long as between their original receive times. */
+		REAL_TIME,
+		AS_FAST_AS_POSSIBLE
+	}
+
+	private final Path file;
+	private final Pace pace;
+
+	public TickJournalReplayer(Path file, Pace pace) {
+		this.file = file;
+		this.pace = pace;
+	}
+
+	/**
+	 * @return number of messages replayed
+	 */
+	public long replay(Consumer<Pricing.PricingData> consumer) throws IOException {
+		return replay(consumer, null);
+	}
+
+	/**
+	 * Replays into a reused tick, like {@link StockWebSocket#listenTicks(Consumer)}.
+	 *
+	 * @return number of messages replayed
+	 */
+	public long replayTicks(Consumer<PricingTick> consumer) throws IOException {
+		return replay(null, consumer);
+	}
+
+	private long replay(Consumer<Pricing.PricingData> messageConsumer, Consumer<PricingTick> tickConsumer)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (channel.size() < TickJournal.HEADER_SIZE || buffer.getInt(0) != TickJournal.MAGIC
+			    || buffer.getInt(4) != TickJournal.VERSION) {
+				throw new IOException("Not a tick journal: " + file);
+			}
+
+			long end = buffer.getLong(TickJournal.END_OFFSET);
+			if (end < TickJournal.HEADER_SIZE || end > channel.size()) {
+				throw new IOException("Corrupted tick journal, invalid end " + end + ": " + file);
+			}
+			PricingDecoder decoder = new PricingDecoder();
+			byte[] payload = new byte[256];
+			long replayed = 0;
+			long firstReceivedAt = 0;
+			long startNanos = System.nanoTime();
+
+			int position = TickJournal.HEADER_SIZE;
+			while (position < end) {
+				if (position + TickJournal.RECORD_HEADER_SIZE > end) {
+					throw new IOException("Corrupted tick journal, truncated record at " + position + ": " + file);
+				}
+				int length = buffer.getInt(position);
+				if (length < 0 || (long) position + TickJournal.RECORD_HEADER_SIZE + length > end) {
+					throw new IOException("Corrupted tick journal, invalid record length " + length + " at "
+					                      + position + ": " + file);
+				}
+				long receivedAt = buffer.getLong(position + Integer.BYTES);
+				if (payload.length < length) {
+					payload = new byte[Math.max(length, payload.length * 2)];
+				}
+				buffer.get(position + TickJournal.RECORD_HEADER_SIZE, payload, 0, length);
+				position += TickJournal.RECORD_HEADER_SIZE + length;
+
+				if (pace == Pace.REAL_TIME) {
+					if (replayed == 0) {
+						firstReceivedAt = receivedAt;
+					}
+					waitUntil(startNanos + TimeUnit.MILLISECONDS.toNanos(receivedAt - firstReceivedAt));
+				}
+
+				decoder.decodePayload(payload, 0, length);
+				try {
+					if (tickConsumer != null) {
+						tickConsumer.accept(decoder.readTick());
+					}
+					if (messageConsumer != null) {
+						messageConsumer.accept(decoder.readPricingData());
+					}
+				} catch (IOException e) {
+					log.warn("Skipping undecodable journal record at {}: {}", position, e.getMessage());
+				}
+				replayed++;
+			}
+			return replayed;
+		}
+	}
+
+	private static void waitUntil(long deadlineNanos) throws IOException {
+		long remaining;
+		while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+			if (Thread.interrupted()) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Journal replay interrupted");
+			}
+		}
+	}
+}
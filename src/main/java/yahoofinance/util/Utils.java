@@ -1,7 +1,12 @@
 package yahoofinance.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.google.gson.Gson;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -10,9 +15,11 @@ import yahoofinance.model.common.FormattedValue;
 import java.math.BigDecimal;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 public class Utils {
@@ -23,8 +30,42 @@ public class Utils {
 	@Getter
 	private static final Gson gson = new Gson();
 
-	@Getter
-	private static final ObjectMapper objectMapper = new ObjectMapper();
+	/**
+	 * Mapper shared by all requests and the reader derived from it, swapped together so a caller never sees a
+	 * reader of a previous mapper. The mapper is thread safe and keeps its (de)serializer caches between requests.
+	 */
+	private static volatile JsonCodec jsonCodec = new JsonCodec(createObjectMapper());
+
+	public static ObjectMapper getObjectMapper() {
+		return jsonCodec.mapper;
+	}
+
+	public static ObjectReader getObjectReader() {
+		return jsonCodec.reader;
+	}
+
+	/**
+	 * Creates the mapper used by default. Parser buffers are recycled through a shared concurrent pool instead of
+	 * the thread local default, so requests executed on short lived virtual threads reuse them too.
+	 */
+	public static ObjectMapper createObjectMapper() {
+		JsonFactory jsonFactory = JsonFactory.builder()
+				.recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+				.build();
+		return JsonMapper.builder(jsonFactory)
+				.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+				.build();
+	}
+
+	/**
+	 * Replaces the mapper used to read responses, e.g. to register modules or change features.
+	 */
+	public static void setObjectMapper(ObjectMapper mapper) {
+		if (mapper == null) {
+			throw new IllegalArgumentException("ObjectMapper cannot be null");
+		}
+		jsonCodec = new JsonCodec(mapper);
+	}
 
 	public static String getURLParameters(Map<String, String> params) {
 		StringBuilder sb = new StringBuilder();
@@ -55,6 +96,19 @@ public class Utils {
 		return sb.toString();
 	}
 
+	/**
+	 * Exponential backoff with equal jitter: a random delay between half and all of
+	 * {@code min(maxDelay, initialDelay * 2^(attempt - 1))}.
+	 */
+	public static Duration backoffDelay(int attempt, Duration initialDelay, Duration maxDelay) {
+		long initial = Math.max(1, initialDelay.toMillis());
+		long max = Math.max(initial, maxDelay.toMillis());
+		int shift = Math.min(Math.max(attempt - 1, 0), 30);
+		long base = initial > max >> shift ? max : Math.min(max, initial << shift);
+		long half = base / 2;
+		return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(base - half + 1));
+	}
+
 	public static String getStringValue(JsonNode node, String fieldName) {
 		JsonNode fieldNode = node.get(fieldName);
 		if (fieldNode != null && !fieldNode.isNull()) {
@@ -146,4 +200,14 @@ public class Utils {
 		}
 		return values;
 	}
+
+	private static final class JsonCodec {
+		private final ObjectMapper mapper;
+		private final ObjectReader reader;
+
+		private JsonCodec(ObjectMapper mapper) {
+			this.mapper = mapper;
+			this.reader = mapper.reader();
+		}
+	}
 }
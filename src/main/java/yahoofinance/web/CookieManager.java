@@ -2,6 +2,7 @@ package yahoofinance.web;
 
 import lombok.extern.slf4j.Slf4j;
 import yahoofinance.exception.CookieException;
+import yahoofinance.exception.CrumbException;
 import yahoofinance.util.ConnectionUtils;
 
 import java.io.IOException;
@@ -9,50 +10,34 @@ import java.net.HttpCookie;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
-import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Fetches the Yahoo {@code A3} cookie. The cookie is kept together with the crumb in the session of
+ * {@link CrumbManager}, so both are always replaced at once.
+ */
 @Slf4j
 public final class CookieManager {
 
-	private static volatile String cookie = null;
-	private static final ReentrantLock lock = new ReentrantLock();
-
 	private static final int CONNECTION_TIMEOUT = 5000;
-	private static final String COOKIE_SCRAPE_URL = "https://fc.yahoo.com";
+	static final String COOKIE_SCRAPE_URL = "https://fc.yahoo.com";
 
 	private CookieManager() {
 		throw new AssertionError("CookieManager should not be instantiated");
 	}
 
 	public static String getCookie() throws CookieException {
-		if (cookie != null && !cookie.isEmpty()) {
-			return cookie;
-		}
-
-		lock.lock();
 		try {
-			if (cookie != null && !cookie.isEmpty()) {
-				return cookie;
-			}
-
-			initializeCookie();
-			return cookie;
-		} finally {
-			lock.unlock();
+			return CrumbManager.getSession().getCookie();
+		} catch (CrumbException e) {
+			throw new CookieException("Unable to initialize Yahoo Finance session", e);
 		}
 	}
 
 	public static void clearCache() {
-		lock.lock();
-		try {
-			cookie = null;
-			log.debug("Cleared cached cookie");
-		} finally {
-			lock.unlock();
-		}
+		CrumbManager.clearCache();
 	}
 
-	private static void initializeCookie() throws CookieException {
+	static String fetchCookie() throws CookieException {
 		log.debug("Initializing cookie from Yahoo Finance");
 
 		try {
@@ -65,6 +50,7 @@ public final class CookieManager {
 			String setCookieHeader = connection.getHeaderField("Set-Cookie");
 			log.debug("Raw Set-Cookie header: {}", setCookieHeader);
 
+			String cookie = null;
 			if (setCookieHeader != null && !setCookieHeader.trim().isEmpty()) {
 				cookie = extractA3Cookie(setCookieHeader);
 			}
@@ -74,6 +60,7 @@ public final class CookieManager {
 			}
 
 			log.debug("Successfully initialized cookie: {}", cookie);
+			return cookie;
 
 		} catch (IOException e) {
 			log.error("Failed to initialize cookie", e);
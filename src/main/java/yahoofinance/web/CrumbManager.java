@@ -11,61 +11,71 @@ import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
-import java.time.LocalDateTime;
-import java.util.concurrent.locks.ReentrantLock;
-
+import java.time.Duration;
+
+/**
+ * Holds the cookie and crumb {@link Session} shared by all requests.
+ * <p>
+ * The session is refreshed in the background an hour before its lifetime of a day ends, so requests never wait for
+ * the crumb except for the very first one or after Yahoo rejected the session, see {@link #invalidate(Session)}.
+ */
 @Slf4j
 public final class CrumbManager {
 
-	private static final Crumb crumb = new Crumb();
-	private static final ReentrantLock lock = new ReentrantLock();
-
 	private static final int CONNECTION_TIMEOUT = 5000;
-	private static final String CRUMB_URL = "https://query1.finance.yahoo.com/v1/test/getcrumb";
+	static final String CRUMB_URL = "https://query1.finance.yahoo.com/v1/test/getcrumb";
 
-	private CrumbManager() {
-		throw new AssertionError("CrumbManager should not be instantiated");
-	}
+	private static final SessionHolder session = new SessionHolder("default", new SessionHolder.Fetcher() {
+		@Override
+		public String fetchCookie() throws CookieException {
+			return CookieManager.fetchCookie();
+		}
 
-	public static String getCrumb() throws CrumbException, CookieException {
-		if (crumb.isValid()) {
-			return crumb.getValue();
+		@Override
+		public String fetchCrumb(String cookie) throws CrumbException {
+			return CrumbManager.fetchCrumb(cookie);
 		}
+	});
 
-		lock.lock();
-		try {
-			if (crumb.isValid()) {
-				return crumb.getValue();
-			}
+	private CrumbManager() {
+		throw new AssertionError("CrumbManager should not be instantiated");
+	}
 
-			fetchCrumb();
+	/**
+	 * @return current session, blocking only when there is no usable one
+	 */
+	public static Session getSession() throws CrumbException, CookieException {
+		return session.get();
+	}
 
-			if (!crumb.isValid()) {
-				throw new CrumbException("Failed to initialize valid crumb");
-			}
+	public static String getCrumb() throws CrumbException, CookieException {
+		return getSession().getCrumb();
+	}
 
-			return crumb.getValue();
-		} finally {
-			lock.unlock();
-		}
+	/**
+	 * Drops a session Yahoo rejected ({@code 401}, invalid crumb), the next request fetches a new one.
+	 */
+	public static void invalidate(Session rejected) {
+		session.invalidate(rejected);
 	}
 
 	public static void clearCache() {
-		lock.lock();
-		try {
-			crumb.clear();
-			log.debug("Cleared cached crumb");
-		} finally {
-			lock.unlock();
-		}
+		session.clear();
+		log.debug("Cleared cached session");
 	}
 
-	private static void fetchCrumb() throws CrumbException, CookieException {
+	/**
+	 * @param lifetime     time after which a session is no longer used
+	 * @param refreshAhead how long before the end of its lifetime a session is refreshed in the background
+	 */
+	public static void setSessionLifetime(Duration lifetime, Duration refreshAhead) {
+		session.setLifetime(lifetime, refreshAhead);
+	}
+
+	static String fetchCrumb(String cookie) throws CrumbException {
 		log.debug("Fetching crumb from Yahoo Finance");
 
 		try {
-			String cookie = CookieManager.getCookie();
-
 			URL url = URI.create(CRUMB_URL).toURL();
 			HttpURLConnection connection = ConnectionUtils.createBasicConnection(url, CONNECTION_TIMEOUT);
 			connection.setRequestProperty("Cookie", cookie);
@@ -84,8 +94,8 @@ public final class CrumbManager {
 				String crumbResult = reader.readLine();
 
 				if (crumbResult != null && !crumbResult.trim().isEmpty()) {
-					crumb.setValue(crumbResult.trim(), LocalDateTime.now().plusDays(1));
-					log.debug("Successfully fetched crumb: {}", crumb);
+					log.debug("Successfully fetched crumb: {}", crumbResult.trim());
+					return crumbResult.trim();
 				} else {
 					throw new CrumbException("Empty crumb response from Yahoo Finance");
 				}
@@ -94,8 +104,6 @@ public final class CrumbManager {
 		} catch (IOException e) {
 			log.error("Failed to fetch crumb", e);
 			throw new CrumbException("Unable to retrieve Yahoo Finance crumb", e);
-		} catch (CookieException e) {
-			throw new CookieException("Unable to fetch cookie to fetch the crumb");
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,474 @@
+package yahoofinance.web;
+
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.exception.*;
+import yahoofinance.util.Utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared HTTP transport for all Yahoo Finance requests.
+ * <p>
+ * A single {@link HttpClient} is kept for the lifetime of the JVM, so TLS sessions and (HTTP/2 multiplexed)
+ * connections to {@code query1}/{@code query2.finance.yahoo.com} are reused between calls instead of being
+ * re-established for every quote, history or summary request. Redirects, cookie and crumb handling follow the
+ * same rules as {@link RedirectableRequest}.
+ * <p>
+ * Requests to a host are paced by that host's {@link RateLimiter}, which slows down when Yahoo answers {@code 429}.
+ * Throttled ({@code 429}) and unavailable ({@code 500}, {@code 502}, {@code 503}, {@code 504}) responses are retried
+ * up to {@link #getMaxRetries()} times, after the {@code Retry-After} period when the response has one and with
+ * jittered exponential backoff otherwise. A request rejected with {@code 401} invalidates the cookie and crumb
+ * session and is sent once more with a new one. With a {@link SessionPool} set, every request leases one of the
+ * pool's sessions instead of the default session of {@link CrumbManager}, and is paced per host and session.
+ */
+@Slf4j
+public final class HttpTransport {
+
+	static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+	private static final Duration CONNECTION_TIMEOUT = Duration.ofMillis(10000);
+
+	private static final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_2)
+			.followRedirects(HttpClient.Redirect.NEVER)
+			.connectTimeout(CONNECTION_TIMEOUT)
+			.build();
+
+	private static final ConcurrentHashMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+	private static volatile boolean rateLimiting = true;
+	private static volatile int maxRetries = 3;
+	private static volatile Duration retryInitialDelay = Duration.ofMillis(500);
+	private static volatile Duration retryMaxDelay = Duration.ofSeconds(30);
+	private static volatile SessionPool sessionPool;
+
+	private HttpTransport() {
+		throw new AssertionError("HttpTransport should not be instantiated");
+	}
+
+	public static HttpClient getClient() {
+		return client;
+	}
+
+	public static SessionPool getSessionPool() {
+		return sessionPool;
+	}
+
+	/**
+	 * Spreads requests over the sessions of the pool, null to use the single default session.
+	 */
+	public static void setSessionPool(SessionPool pool) {
+		sessionPool = pool;
+	}
+
+	/**
+	 * @return limiter shared by all requests to the host, created on first use
+	 */
+	public static RateLimiter getRateLimiter(String host) {
+		return rateLimiters.computeIfAbsent(host, RateLimiter::new);
+	}
+
+	public static boolean isRateLimiting() {
+		return rateLimiting;
+	}
+
+	/**
+	 * Enables or disables pacing requests per host. Throttled responses are retried either way.
+	 */
+	public static void setRateLimiting(boolean enabled) {
+		rateLimiting = enabled;
+	}
+
+	public static int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * @param retries retries of a throttled or unavailable response, 0 to return it right away
+	 */
+	public static void setMaxRetries(int retries) {
+		if (retries < 0) {
+			throw new IllegalArgumentException("Retries cannot be negative");
+		}
+		maxRetries = retries;
+	}
+
+	public static Duration getRetryMaxDelay() {
+		return retryMaxDelay;
+	}
+
+	/**
+	 * @param initialDelay backoff before the first retry when the response has no {@code Retry-After}
+	 * @param maxDelay     longest wait before a retry, also caps {@code Retry-After}
+	 */
+	public static void setRetryDelays(Duration initialDelay, Duration maxDelay) {
+		if (initialDelay.isNegative() || maxDelay.compareTo(initialDelay) < 0) {
+			throw new IllegalArgumentException("Invalid retry delays");
+		}
+		retryInitialDelay = initialDelay;
+		retryMaxDelay = maxDelay;
+	}
+
+	/**
+	 * Sends a GET request over the shared client, following up to {@code protocolRedirectLimit} redirects.
+	 * The final response is returned as is, including error responses, so the caller decides how to report them.
+	 *
+	 * @param uri                   request URI
+	 * @param useCookieAndCrumb     whether the Yahoo cookie header and crumb query parameter should be attached
+	 * @param timeout               timeout of a single request/response exchange
+	 * @param protocolRedirectLimit maximum number of redirects to follow
+	 * @return final non-redirect response, the caller is responsible for closing its body
+	 * @throws YFinanceException when authentication, redirect handling or the exchange itself fails
+	 */
+	public static HttpResponse<InputStream> send(URI uri, boolean useCookieAndCrumb, Duration timeout,
+	                                             int protocolRedirectLimit) throws YFinanceException {
+		SessionPool pool = useCookieAndCrumb ? sessionPool : null;
+		SessionPool.Lease lease = pool != null ? pool.acquire() : null;
+		try {
+			Session session = useCookieAndCrumb ? getSession(lease, null) : null;
+			boolean reauthenticated = false;
+			int attempt = 1;
+
+			while (true) {
+				RateLimiter limiter = rateLimiting ? getRateLimiter(limiterKey(uri, lease)) : null;
+				if (limiter != null) {
+					limiter.acquire();
+				}
+				HttpResponse<InputStream> response = session != null ?
+						executeRequestWithRedirects(enhanceUriWithCrumb(uri, session.getCrumb()), session.getCookie(),
+								timeout, protocolRedirectLimit) :
+						executeRequestWithRedirects(uri, null, timeout, protocolRedirectLimit);
+
+				if (session != null && !reauthenticated && isSessionRejected(response.statusCode())) {
+					response.body().close();
+					log.warn("HTTP {} from {}, fetching a new session and retrying", response.statusCode(),
+							uri.getHost());
+					session = getSession(lease, session);
+					reauthenticated = true;
+					continue;
+				}
+
+				Duration delay = retryDelay(limiter, lease, response.statusCode(), response.headers(), attempt);
+				if (delay == null) {
+					return response;
+				}
+				response.body().close();
+				log.warn("HTTP {} from {}, retrying in {} ms ({}/{})", response.statusCode(), uri.getHost(),
+						delay.toMillis(), attempt, maxRetries);
+				Thread.sleep(delay.toMillis());
+				attempt++;
+				if (lease != null && response.statusCode() == 429) {
+					// the throttled session is quarantined now, retry with another one of the pool
+					lease = lease.renew();
+					session = getSession(lease, null);
+					reauthenticated = false;
+				}
+			}
+		} catch (CrumbException e) {
+			throw new AuthenticationException("Failed to authenticate with Yahoo Finance", e);
+		} catch (IOException e) {
+			throw new ConnectionException("Failed to execute HTTP request", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConnectionException("Interrupted while executing HTTP request", e);
+		} finally {
+			if (lease != null) {
+				lease.close();
+			}
+		}
+	}
+
+	/**
+	 * Non-blocking variant of {@link #send(URI, boolean, Duration, int)}. The response body is collected by the
+	 * client without holding a caller thread; only cookie and crumb resolution, which may block on the first call
+	 * and after a rejected session, runs on the supplied executor.
+	 *
+	 * @return future completed with the final non-redirect response, or exceptionally with a
+	 * {@link YFinanceException} wrapped in a {@link CompletionException}
+	 */
+	public static CompletableFuture<HttpResponse<byte[]>> sendAsync(URI uri, boolean useCookieAndCrumb, Duration timeout,
+	                                                                int protocolRedirectLimit, Executor executor) {
+		int redirectLimit = Math.max(0, protocolRedirectLimit);
+		if (!useCookieAndCrumb) {
+			return executeAsyncWithRetries(createRequest(uri, null, timeout), uri, null, timeout, redirectLimit, 1,
+					executor);
+		}
+
+		SessionPool pool = sessionPool;
+		if (pool == null) {
+			return sendAsyncWithSession(uri, null, null, timeout, redirectLimit, 1, executor);
+		}
+		return sendAsyncWithLease(uri, pool.acquire(), timeout, redirectLimit, 1, executor);
+	}
+
+	private static CompletableFuture<HttpResponse<byte[]>> sendAsyncWithLease(URI uri, SessionPool.Lease lease,
+	                                                                          Duration timeout, int redirectLimit,
+	                                                                          int attempt, Executor executor) {
+		return sendAsyncWithSession(uri, lease, null, timeout, redirectLimit, attempt, executor)
+				.whenComplete((response, e) -> lease.close());
+	}
+
+	/**
+	 * @param rejected session which Yahoo rejected for this request, null on the first attempt
+	 */
+	private static CompletableFuture<HttpResponse<byte[]>> sendAsyncWithSession(URI uri, SessionPool.Lease lease,
+	                                                                            Session rejected, Duration timeout,
+	                                                                            int redirectLimit, int attempt,
+	                                                                            Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return getSession(lease, rejected);
+			} catch (AuthenticationException e) {
+				throw new CompletionException(e);
+			}
+		}, executor).thenCompose(session -> {
+			HttpRequest request;
+			try {
+				request = createRequest(enhanceUriWithCrumb(uri, session.getCrumb()), session.getCookie(), timeout);
+			} catch (CrumbException e) {
+				return CompletableFuture.failedFuture(
+						new AuthenticationException("Failed to authenticate with Yahoo Finance", e));
+			}
+			return executeAsyncWithRetries(request, uri, lease, timeout, redirectLimit, attempt, executor)
+					.thenCompose(response -> {
+						if (rejected != null || !isSessionRejected(response.statusCode())) {
+							return CompletableFuture.completedFuture(response);
+						}
+						log.warn("HTTP {} from {}, fetching a new session and retrying", response.statusCode(),
+								uri.getHost());
+						return sendAsyncWithSession(uri, lease, session, timeout, redirectLimit, attempt, executor);
+					});
+		});
+	}
+
+	private static CompletableFuture<HttpResponse<byte[]>> executeAsyncWithRetries(HttpRequest request, URI initialUri,
+	                                                                                SessionPool.Lease lease, Duration timeout,
+	                                                                                int redirectLimit, int attempt,
+	                                                                                Executor executor) {
+		RateLimiter limiter = rateLimiting ? getRateLimiter(limiterKey(initialUri, lease)) : null;
+		long wait = limiter != null ? limiter.reserve() : 0;
+		CompletableFuture<HttpResponse<byte[]>> response = wait > 0 ?
+				delay(wait, executor).thenCompose(v -> executeAsyncWithRedirects(request, initialUri, 0, redirectLimit)) :
+				executeAsyncWithRedirects(request, initialUri, 0, redirectLimit);
+
+		return response.thenCompose(r -> {
+			Duration delay = retryDelay(limiter, lease, r.statusCode(), r.headers(), attempt);
+			if (delay == null) {
+				return CompletableFuture.completedFuture(r);
+			}
+			log.warn("HTTP {} from {}, retrying in {} ms ({}/{})", r.statusCode(), initialUri.getHost(),
+					delay.toMillis(), attempt, maxRetries);
+			if (lease != null && r.statusCode() == 429) {
+				// the throttled session is quarantined now, retry with another one of the pool
+				return delay(delay.toNanos(), executor)
+						.thenCompose(v -> sendAsyncWithLease(initialUri, lease.renew(), timeout, redirectLimit,
+								attempt + 1, executor));
+			}
+			return delay(delay.toNanos(), executor)
+					.thenCompose(v -> executeAsyncWithRetries(request, initialUri, lease, timeout, redirectLimit,
+							attempt + 1, executor));
+		});
+	}
+
+	private static CompletableFuture<Void> delay(long nanos, Executor executor) {
+		return CompletableFuture.runAsync(() -> {
+		}, CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS, executor));
+	}
+
+	/**
+	 * Adapts the host's rate to the response, quarantines a throttled pool session and decides whether to retry.
+	 *
+	 * @return wait before retrying, or null when the response should be returned
+	 */
+	static Duration retryDelay(RateLimiter limiter, SessionPool.Lease lease, int statusCode, HttpHeaders headers,
+	                           int attempt) {
+		Duration retryAfter = statusCode == 429 || statusCode == 503 ?
+				RateLimiter.parseRetryAfter(headers.firstValue("Retry-After").orElse(null)) : null;
+		if (statusCode == 429 && lease != null) {
+			lease.onThrottled(retryAfter);
+		}
+		if (limiter != null) {
+			if (statusCode == 429) {
+				limiter.onThrottled(retryAfter);
+			} else if (statusCode < 400) {
+				limiter.onSuccess();
+			}
+		}
+
+		if (!isRetryableResponse(statusCode) || attempt > maxRetries) {
+			return null;
+		}
+		Duration maxDelay = retryMaxDelay;
+		if (retryAfter != null) {
+			return retryAfter.compareTo(maxDelay) > 0 ? maxDelay : retryAfter;
+		}
+		return Utils.backoffDelay(attempt, retryInitialDelay, maxDelay);
+	}
+
+	private static CompletableFuture<HttpResponse<byte[]>> executeAsyncWithRedirects(HttpRequest request, URI initialUri,
+	                                                                                  int redirectCount, int redirectLimit) {
+		return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+				.exceptionally(e -> {
+					Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+					throw new CompletionException(new ConnectionException("Failed to execute HTTP request", cause));
+				})
+				.thenCompose(response -> {
+					if (!isRedirectResponse(response.statusCode())) {
+						return CompletableFuture.completedFuture(response);
+					}
+
+					String location = response.headers().firstValue("Location").orElse(null);
+					if (location == null || location.trim().isEmpty()) {
+						return CompletableFuture.failedFuture(new RedirectException(
+								"Redirect response without Location header",
+								redirectCount, redirectLimit, request.uri().toString()));
+					}
+
+					URI redirectUri = request.uri().resolve(location);
+					if (redirectCount + 1 > redirectLimit) {
+						return CompletableFuture.failedFuture(new RedirectException(
+								String.format("Protocol redirect limit exceeded for URL: %s", initialUri),
+								redirectCount + 1, redirectLimit, redirectUri.toString()));
+					}
+
+					HttpRequest redirect = HttpRequest.newBuilder(request, (name, value) -> true)
+							.uri(redirectUri)
+							.build();
+					return executeAsyncWithRedirects(redirect, initialUri, redirectCount + 1, redirectLimit);
+				});
+	}
+
+	private static HttpResponse<InputStream> executeRequestWithRedirects(URI initialUri, String cookie,
+	                                                                     Duration timeout, int protocolRedirectLimit)
+			throws ConnectionException {
+		int redirectLimit = Math.max(0, protocolRedirectLimit);
+		int redirectCount = 0;
+		URI currentUri = initialUri;
+
+		while (redirectCount <= redirectLimit) {
+			try {
+				HttpResponse<InputStream> response = client.send(createRequest(currentUri, cookie, timeout),
+						HttpResponse.BodyHandlers.ofInputStream());
+
+				if (!isRedirectResponse(response.statusCode())) {
+					return response;
+				}
+
+				String location = response.headers().firstValue("Location").orElse(null);
+				response.body().close();
+				if (location == null || location.trim().isEmpty()) {
+					throw new RedirectException("Redirect response without Location header",
+							redirectCount, redirectLimit, currentUri.toString());
+				}
+
+				currentUri = currentUri.resolve(location);
+				redirectCount++;
+
+				if (redirectCount > redirectLimit) {
+					throw new RedirectException(
+							String.format("Protocol redirect limit exceeded for URL: %s", initialUri),
+							redirectCount, redirectLimit, currentUri.toString());
+				}
+
+			} catch (IOException e) {
+				throw new ConnectionException("Failed to execute HTTP request", e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ConnectionException("Interrupted while executing HTTP request", e);
+			}
+		}
+
+		throw new ConnectionException("Unexpected redirect handling error");
+	}
+
+	private static HttpRequest createRequest(URI uri, String cookie, Duration timeout) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+				.timeout(timeout)
+				.header("User-Agent", USER_AGENT)
+				.header("Accept", "*/*")
+				.GET();
+
+		if (cookie != null) {
+			builder.header("Cookie", cookie);
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * @param lease    leased pool session, null to use the default session
+	 * @param rejected session Yahoo just rejected, it is invalidated first; null to use the current session
+	 */
+	private static Session getSession(SessionPool.Lease lease, Session rejected) throws AuthenticationException {
+		if (rejected != null) {
+			if (lease != null) {
+				lease.invalidate(rejected);
+			} else {
+				CrumbManager.invalidate(rejected);
+			}
+		}
+		try {
+			return lease != null ? lease.getSession() : CrumbManager.getSession();
+		} catch (CookieException | CrumbException e) {
+			throw new AuthenticationException("Failed to authenticate with Yahoo Finance", e);
+		}
+	}
+
+	private static String limiterKey(URI uri, SessionPool.Lease lease) {
+		return lease != null ? uri.getHost() + "#" + lease.getName() : String.valueOf(uri.getHost());
+	}
+
+	private static URI enhanceUriWithCrumb(URI originalUri, String crumb) throws CrumbException {
+		try {
+			log.debug("Crumb value: {}", crumb);
+			String encodedCrumb = URLEncoder.encode(crumb, StandardCharsets.UTF_8);
+
+			String currentQuery = originalUri.getRawQuery();
+			String newQuery = currentQuery == null ?
+					"crumb=" + encodedCrumb :
+					currentQuery + "&crumb=" + encodedCrumb;
+
+			return new URI(originalUri.getScheme() + "://" + originalUri.getRawAuthority()
+			               + originalUri.getRawPath() + "?" + newQuery);
+
+		} catch (URISyntaxException e) {
+			throw new CrumbException("Failed to enhance URL with crumb parameter", e);
+		}
+	}
+
+	/**
+	 * Yahoo answers {@code 401} when the cookie or the crumb is no longer accepted.
+	 */
+	private static boolean isSessionRejected(int responseCode) {
+		return responseCode == 401;
+	}
+
+	private static boolean isRetryableResponse(int responseCode) {
+		return responseCode == 429 ||
+		       responseCode == 500 ||
+		       responseCode == 502 ||
+		       responseCode == 503 ||
+		       responseCode == 504;
+	}
+
+	private static boolean isRedirectResponse(int responseCode) {
+		return responseCode == 301 ||
+		       responseCode == 302 ||
+		       responseCode == 303 ||
+		       responseCode == 307 ||
+		       responseCode == 308;
+	}
+}
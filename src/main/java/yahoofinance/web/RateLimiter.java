@@ -0,0 +1,180 @@
+package yahoofinance.web;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Adaptive token bucket pacing the requests sent to one host.
+ * <p>
+ * Up to {@code burst} requests pass at once, after that requests are spaced at the current rate. When the host
+ * throttles ({@code 429}) the rate is halved and, if the response said so, the bucket is paused for the
+ * {@code Retry-After} period; every successful response then raises the rate again by a fiftieth of the maximum.
+ * Bulk jobs therefore settle just below the rate the host tolerates instead of bursting into a block.
+ */
+@Slf4j
+public class RateLimiter {
+
+	public static final double DEFAULT_MAX_RATE = 20;
+	public static final double DEFAULT_MIN_RATE = 0.5;
+	public static final int DEFAULT_BURST = 20;
+
+	private static final double DECREASE_FACTOR = 0.5;
+	private static final double INCREASE_FRACTION = 0.02;
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Getter
+	private final String name;
+	private final int burst;
+	private final LongSupplier clock;
+	private double maxRate;
+	private double minRate;
+	private double rate;
+	/** Tokens available at {@link #refilledAt}, negative when permits were handed out in advance. */
+	private double tokens;
+	/** Time up to which tokens were accounted, in the future while the bucket is paused. */
+	private long refilledAt;
+	private long throttledCount;
+
+	public RateLimiter(String name) {
+		this(name, DEFAULT_MAX_RATE, DEFAULT_BURST);
+	}
+
+	/**
+	 * @param maxRate requests per second when the host does not throttle
+	 * @param burst   requests which may be sent without spacing after an idle period
+	 */
+	public RateLimiter(String name, double maxRate, int burst) {
+		this(name, maxRate, burst, System::nanoTime);
+	}
+
+	/**
+	 * @param maxRate requests per second when the host does not throttle
+	 * @param burst   requests which may be sent without spacing after an idle period
+	 * @param clock   monotonic time in nanoseconds, like {@link System#nanoTime()}
+	 */
+	public RateLimiter(String name, double maxRate, int burst, LongSupplier clock) {
+		if (maxRate <= 0) {
+			throw new IllegalArgumentException("Rate must be positive");
+		}
+		if (burst < 1) {
+			throw new IllegalArgumentException("Burst must be at least one");
+		}
+		this.name = name;
+		this.maxRate = maxRate;
+		this.minRate = Math.min(DEFAULT_MIN_RATE, maxRate);
+		this.rate = maxRate;
+		this.burst = burst;
+		this.tokens = burst;
+		this.clock = clock;
+		this.refilledAt = clock.getAsLong();
+	}
+
+	/**
+	 * Takes a permit, blocking until it may be used.
+	 */
+	public void acquire() throws InterruptedException {
+		long wait = reserve();
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	/**
+	 * Takes a permit without blocking.
+	 *
+	 * @return nanoseconds to wait before the permit may be used
+	 */
+	public synchronized long reserve() {
+		long now = clock.getAsLong();
+		refill(now);
+		tokens -= 1;
+		long wait = Math.max(0, refilledAt - now);
+		if (tokens < 0) {
+			wait += (long) (-tokens / rate * NANOS_PER_SECOND);
+		}
+		return wait;
+	}
+
+	/**
+	 * Halves the rate and stops handing out permits for {@code retryAfter}, when given.
+	 */
+	public synchronized void onThrottled(Duration retryAfter) {
+		long now = clock.getAsLong();
+		refill(now);
+		throttledCount++;
+		rate = Math.max(minRate, rate * DECREASE_FACTOR);
+		tokens = Math.min(tokens, 0);
+		if (retryAfter != null && !retryAfter.isNegative()) {
+			refilledAt = Math.max(refilledAt, now + retryAfter.toNanos());
+		}
+		log.warn("{} is throttling requests, slowing down to {} requests per second", name,
+				String.format("%.2f", rate));
+	}
+
+	/**
+	 * Raises the rate towards the maximum after a successful response.
+	 */
+	public synchronized void onSuccess() {
+		if (rate < maxRate) {
+			rate = Math.min(maxRate, rate + maxRate * INCREASE_FRACTION);
+		}
+	}
+
+	public synchronized double getRate() {
+		return rate;
+	}
+
+	public synchronized double getMaxRate() {
+		return maxRate;
+	}
+
+	public synchronized void setMaxRate(double maxRate) {
+		if (maxRate <= 0) {
+			throw new IllegalArgumentException("Rate must be positive");
+		}
+		this.maxRate = maxRate;
+		this.minRate = Math.min(DEFAULT_MIN_RATE, maxRate);
+		this.rate = Math.min(rate, maxRate);
+	}
+
+	public synchronized long getThrottledCount() {
+		return throttledCount;
+	}
+
+	/**
+	 * Parses a {@code Retry-After} header, given either in seconds or as an HTTP date.
+	 *
+	 * @return the delay, or null when the value is invalid
+	 */
+	public static Duration parseRetryAfter(String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		String trimmed = value.trim();
+		try {
+			return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+		} catch (NumberFormatException e) {
+			try {
+				ZonedDateTime date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+				Duration delay = Duration.between(ZonedDateTime.now(date.getZone()), date);
+				return delay.isNegative() ? Duration.ZERO : delay;
+			} catch (DateTimeParseException ignored) {
+				return null;
+			}
+		}
+	}
+
+	private void refill(long now) {
+		if (now > refilledAt) {
+			tokens = Math.min(burst, tokens + (now - refilledAt) * rate / NANOS_PER_SECOND);
+			refilledAt = now;
+		}
+	}
+}
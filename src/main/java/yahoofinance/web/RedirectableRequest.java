@@ -46,9 +46,17 @@ public class RedirectableRequest {
 
 		try {
 			if (useCookieAndCrumb) {
-				URL enhancedUrl = enhanceUrlWithCrumb(this.request);
-				enhancedProperties.put("Cookie", CookieManager.getCookie());
-				return executeRequestWithRedirects(enhancedUrl, enhancedProperties);
+				Session session = CrumbManager.getSession();
+				try {
+					return executeRequestWithSession(session, enhancedProperties);
+				} catch (ConnectionException e) {
+					if (e.getResponseCode() != HttpURLConnection.HTTP_UNAUTHORIZED) {
+						throw e;
+					}
+					log.warn("Yahoo Finance rejected the session, fetching a new one and retrying");
+					CrumbManager.invalidate(session);
+					return executeRequestWithSession(CrumbManager.getSession(), enhancedProperties);
+				}
 			} else {
 				return executeRequestWithRedirects(this.request, requestProperties);
 			}
@@ -57,6 +65,13 @@ public class RedirectableRequest {
 		}
 	}
 
+	private URLConnection executeRequestWithSession(Session session, Map<String, String> requestProperties)
+			throws CrumbException, ConnectionException {
+		URL enhancedUrl = enhanceUrlWithCrumb(this.request, session.getCrumb());
+		requestProperties.put("Cookie", session.getCookie());
+		return executeRequestWithRedirects(enhancedUrl, requestProperties);
+	}
+
 	private URLConnection executeRequestWithRedirects(URL initialUrl, Map<String, String> requestProperties)
 			throws ConnectionException {
 		int redirectCount = 0;
@@ -121,9 +136,8 @@ public class RedirectableRequest {
 		return connection;
 	}
 
-	private URL enhanceUrlWithCrumb(URL originalUrl) throws CrumbException {
+	private URL enhanceUrlWithCrumb(URL originalUrl, String crumb) throws CrumbException {
 		try {
-			String crumb = CrumbManager.getCrumb();
 			log.info("Crumb value: {}", crumb);
 			String encodedCrumb = URLEncoder.encode(crumb, StandardCharsets.UTF_8);
 
@@ -144,7 +158,7 @@ public class RedirectableRequest {
 
 			return uri.toURL();
 
-		} catch (URISyntaxException | CookieException e) {
+		} catch (URISyntaxException e) {
 			throw new CrumbException("Failed to enhance URL with crumb parameter", e);
 		} catch (MalformedURLException e) {
 			throw new CrumbException("Failed to parse URI to URL");
@@ -0,0 +1,55 @@
+package yahoofinance.web;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Immutable cookie and crumb pair authenticating requests to Yahoo Finance.
+ * <p>
+ * A session is replaced as a whole, so a request never combines the cookie of one session with the crumb of another.
+ * Times are {@link System#nanoTime()} values.
+ */
+@Getter
+public final class Session {
+
+	private final String cookie;
+	private final String crumb;
+	private final long fetchedAt;
+	/** Time after which the next request triggers a background refresh. */
+	private final long refreshAt;
+	/** Time after which the session is no longer used. */
+	private final long expiresAt;
+
+	Session(String cookie, String crumb, long fetchedAt, long refreshAt, long expiresAt) {
+		this.cookie = cookie;
+		this.crumb = crumb;
+		this.fetchedAt = fetchedAt;
+		this.refreshAt = refreshAt;
+		this.expiresAt = expiresAt;
+	}
+
+	public boolean isExpired(long now) {
+		return now - expiresAt >= 0;
+	}
+
+	public boolean needsRefresh(long now) {
+		return now - refreshAt >= 0;
+	}
+
+	public Duration getAge() {
+		return Duration.ofNanos(System.nanoTime() - fetchedAt);
+	}
+
+	/**
+	 * @return copy of the session refreshed again at the given time, used to back off after a failed refresh
+	 */
+	Session withRefreshAt(long refreshAt) {
+		return new Session(cookie, crumb, fetchedAt, refreshAt, expiresAt);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Session{cookie='%s', crumb='%s', age=%s}", cookie, crumb, getAge());
+	}
+}
@@ -0,0 +1,181 @@
+package yahoofinance.web;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.exception.CookieException;
+import yahoofinance.exception.CrumbException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Current {@link Session} of one Yahoo identity behind an atomic reference.
+ * <p>
+ * Reading the session is a volatile read. Once a session is older than its lifetime minus the refresh ahead period,
+ * the next request starts fetching a new one in the background and keeps using the old one until it is replaced.
+ * Only when there is no usable session, at start up, after expiry or after {@link #invalidate(Session)}, do callers
+ * wait, and then they all wait for the same fetch.
+ */
+@Slf4j
+class SessionHolder {
+
+	static final Duration DEFAULT_LIFETIME = Duration.ofDays(1);
+	static final Duration DEFAULT_REFRESH_AHEAD = Duration.ofHours(1);
+	/** Wait before a failed background refresh is tried again. */
+	static final Duration REFRESH_RETRY_DELAY = Duration.ofMinutes(1);
+
+	private static final Executor REFRESH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "yfinance-session-refresh");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Fetches the cookie and crumb of a new session.
+	 */
+	interface Fetcher {
+		String fetchCookie() throws CookieException;
+
+		String fetchCrumb(String cookie) throws CrumbException;
+	}
+
+	@Getter
+	private final String name;
+	private final Fetcher fetcher;
+	private final Executor executor;
+	private final AtomicReference<Session> session = new AtomicReference<>();
+	private final AtomicReference<CompletableFuture<Session>> refresh = new AtomicReference<>();
+	private volatile Duration lifetime = DEFAULT_LIFETIME;
+	private volatile Duration refreshAhead = DEFAULT_REFRESH_AHEAD;
+
+	SessionHolder(String name, Fetcher fetcher) {
+		this(name, fetcher, REFRESH_EXECUTOR);
+	}
+
+	SessionHolder(String name, Fetcher fetcher, Executor executor) {
+		this.name = name;
+		this.fetcher = fetcher;
+		this.executor = executor;
+	}
+
+	/**
+	 * @return the current session, fetching one if there is none or it has expired
+	 */
+	Session get() throws CookieException, CrumbException {
+		Session current = session.get();
+		long now = nanoTime();
+		if (current != null && !current.isExpired(now)) {
+			if (current.needsRefresh(now)) {
+				refresh(current);
+			}
+			return current;
+		}
+		return await(refresh(current));
+	}
+
+	/**
+	 * @return the current session, null when none has been fetched yet, without fetching or refreshing
+	 */
+	Session peek() {
+		return session.get();
+	}
+
+	/**
+	 * Drops the session after Yahoo rejected it. Does nothing when the session was already replaced, so concurrent
+	 * requests failing with the same session cause a single fetch.
+	 */
+	void invalidate(Session rejected) {
+		if (rejected != null && session.compareAndSet(rejected, null)) {
+			log.info("Invalidated Yahoo Finance session {}", name);
+		}
+	}
+
+	void clear() {
+		session.set(null);
+	}
+
+	/**
+	 * @param lifetime     time after which a session is no longer used
+	 * @param refreshAhead how long before the end of its lifetime a session is refreshed in the background
+	 */
+	void setLifetime(Duration lifetime, Duration refreshAhead) {
+		if (lifetime.isNegative() || lifetime.isZero() || refreshAhead.isNegative()) {
+			throw new IllegalArgumentException("Invalid session lifetime");
+		}
+		this.lifetime = lifetime;
+		this.refreshAhead = refreshAhead.compareTo(lifetime) > 0 ? lifetime : refreshAhead;
+	}
+
+	Duration getLifetime() {
+		return lifetime;
+	}
+
+	/**
+	 * Starts fetching a new session unless a fetch is already running.
+	 *
+	 * @param stale session to replace, null when there is none
+	 * @return future of the running fetch
+	 */
+	CompletableFuture<Session> refresh(Session stale) {
+		while (true) {
+			CompletableFuture<Session> running = refresh.get();
+			if (running != null) {
+				return running;
+			}
+			CompletableFuture<Session> future = new CompletableFuture<>();
+			if (refresh.compareAndSet(null, future)) {
+				executor.execute(() -> fetch(stale, future));
+				return future;
+			}
+		}
+	}
+
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+
+	private void fetch(Session stale, CompletableFuture<Session> future) {
+		try {
+			log.debug("Fetching Yahoo Finance session {}", name);
+			String cookie = fetcher.fetchCookie();
+			String crumb = fetcher.fetchCrumb(cookie);
+			long now = nanoTime();
+			long lifetimeNanos = lifetime.toNanos();
+			Session fresh = new Session(cookie, crumb, now, now + lifetimeNanos - refreshAhead.toNanos(),
+					now + lifetimeNanos);
+			session.set(fresh);
+			log.debug("Fetched Yahoo Finance session {}: {}", name, fresh);
+			future.complete(fresh);
+		} catch (Throwable e) {
+			if (stale != null && !stale.isExpired(nanoTime())) {
+				log.warn("Failed to refresh Yahoo Finance session {}, keeping the current one", name, e);
+				session.compareAndSet(stale, stale.withRefreshAt(nanoTime() + REFRESH_RETRY_DELAY.toNanos()));
+			}
+			future.completeExceptionally(e);
+		} finally {
+			refresh.compareAndSet(future, null);
+		}
+	}
+
+	private static Session await(CompletableFuture<Session> future) throws CookieException, CrumbException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CrumbException("Interrupted while waiting for Yahoo Finance session", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CookieException cookieException) {
+				throw cookieException;
+			}
+			if (cause instanceof CrumbException crumbException) {
+				throw crumbException;
+			}
+			throw new CrumbException("Unable to fetch Yahoo Finance session", cause);
+		}
+	}
+}
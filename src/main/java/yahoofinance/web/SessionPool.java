@@ -0,0 +1,324 @@
+package yahoofinance.web;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import yahoofinance.exception.CookieException;
+import yahoofinance.exception.CrumbException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookiePolicy;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Independent Yahoo Finance sessions to spread a high request volume over several identities.
+ * <p>
+ * Every session fetches its cookie and crumb with an {@link HttpClient} of its own, backed by its own
+ * {@link java.net.CookieManager}, and is refreshed like the default session of {@link CrumbManager}. Requests lease a
+ * session {@link Strategy round robin} or from the one with the fewest requests in flight. A session which is
+ * throttled ({@code 429}) is quarantined for {@link #getQuarantine()} or the {@code Retry-After} period if longer,
+ * and only used again when every session is quarantined.
+ * <p>
+ * The pool is used by all requests once set with {@link HttpTransport#setSessionPool(SessionPool)}.
+ */
+@Slf4j
+public class SessionPool {
+
+	public static final Duration DEFAULT_QUARANTINE = Duration.ofMinutes(2);
+	private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+
+	public enum Strategy {
+		ROUND_ROBIN,
+		LEAST_LOAD
+	}
+
+	private final List<Member> members;
+	@Getter
+	private final Strategy strategy;
+	private final AtomicInteger next = new AtomicInteger();
+	@Getter
+	private volatile Duration quarantine = DEFAULT_QUARANTINE;
+
+	public SessionPool(int size) {
+		this(size, Strategy.LEAST_LOAD);
+	}
+
+	public SessionPool(int size, Strategy strategy) {
+		this(strategy, createHolders(size));
+	}
+
+	SessionPool(Strategy strategy, List<SessionHolder> holders) {
+		if (holders.isEmpty()) {
+			throw new IllegalArgumentException("Pool must hold at least one session");
+		}
+		this.strategy = Objects.requireNonNull(strategy);
+		List<Member> list = new ArrayList<>(holders.size());
+		for (SessionHolder holder : holders) {
+			list.add(new Member(holder));
+		}
+		this.members = List.copyOf(list);
+	}
+
+	/**
+	 * Leases a session for one request, including its retries unless the session gets throttled, see
+	 * {@link Lease#renew()}. The lease must be closed when the request is done.
+	 */
+	public Lease acquire() {
+		Member member = select(nanoTime());
+		member.inFlight.incrementAndGet();
+		member.requests.incrementAndGet();
+		return new Lease(member);
+	}
+
+	/**
+	 * Starts fetching every session which has not been fetched yet, without waiting for them.
+	 */
+	public void warmUp() {
+		for (Member member : members) {
+			if (member.holder.peek() == null) {
+				member.holder.refresh(null);
+			}
+		}
+	}
+
+	public int size() {
+		return members.size();
+	}
+
+	public void setQuarantine(Duration quarantine) {
+		if (quarantine.isNegative()) {
+			throw new IllegalArgumentException("Quarantine cannot be negative");
+		}
+		this.quarantine = quarantine;
+	}
+
+	/**
+	 * @see CrumbManager#setSessionLifetime(Duration, Duration)
+	 */
+	public void setSessionLifetime(Duration lifetime, Duration refreshAhead) {
+		for (Member member : members) {
+			member.holder.setLifetime(lifetime, refreshAhead);
+		}
+	}
+
+	public List<SessionStats> getStats() {
+		long now = nanoTime();
+		List<SessionStats> stats = new ArrayList<>(members.size());
+		for (Member member : members) {
+			Session session = member.holder.peek();
+			stats.add(new SessionStats(member.holder.getName(), member.inFlight.get(), member.requests.get(),
+					member.throttled.get(),
+					member.isQuarantined(now) ? Duration.ofNanos(member.quarantinedUntil - now) : Duration.ZERO,
+					session != null ? session.getAge() : null));
+		}
+		return stats;
+	}
+
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+
+	private Member select(long now) {
+		int size = members.size();
+		int start = Math.floorMod(next.getAndIncrement(), size);
+		Member selected = null;
+		for (int i = 0; i < size; i++) {
+			Member member = members.get((start + i) % size);
+			if (member.isQuarantined(now)) {
+				continue;
+			}
+			if (strategy == Strategy.ROUND_ROBIN) {
+				return member;
+			}
+			if (selected == null || member.inFlight.get() < selected.inFlight.get()) {
+				selected = member;
+			}
+		}
+		if (selected != null) {
+			return selected;
+		}
+
+		// every session is quarantined, use the one released first
+		for (Member member : members) {
+			if (selected == null || member.quarantinedUntil - selected.quarantinedUntil < 0) {
+				selected = member;
+			}
+		}
+		return selected;
+	}
+
+	private static List<SessionHolder> createHolders(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Pool must hold at least one session");
+		}
+		List<SessionHolder> holders = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			holders.add(new SessionHolder("pool-" + i, new IsolatedFetcher()));
+		}
+		return holders;
+	}
+
+	/**
+	 * Session of the pool in use by one request.
+	 */
+	public final class Lease implements AutoCloseable {
+		private final Member member;
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		private Lease(Member member) {
+			this.member = member;
+		}
+
+		public String getName() {
+			return member.holder.getName();
+		}
+
+		public Session getSession() throws CookieException, CrumbException {
+			return member.holder.get();
+		}
+
+		/**
+		 * Drops a session Yahoo rejected, the next {@link #getSession()} fetches a new one.
+		 */
+		public void invalidate(Session rejected) {
+			member.holder.invalidate(rejected);
+		}
+
+		/**
+		 * Quarantines the session after Yahoo throttled it.
+		 *
+		 * @param retryAfter {@code Retry-After} of the response, null when there was none
+		 */
+		public void onThrottled(Duration retryAfter) {
+			Duration period = retryAfter != null && retryAfter.compareTo(quarantine) > 0 ? retryAfter : quarantine;
+			member.quarantinedUntil = nanoTime() + period.toNanos();
+			member.throttled.incrementAndGet();
+			log.warn("Session {} is throttled, quarantined for {} s", getName(), period.toSeconds());
+		}
+
+		/**
+		 * Closes this lease and leases a session again, normally another one as a throttled session is quarantined.
+		 */
+		public Lease renew() {
+			close();
+			return acquire();
+		}
+
+		@Override
+		public void close() {
+			if (closed.compareAndSet(false, true)) {
+				member.inFlight.decrementAndGet();
+			}
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class SessionStats {
+		private final String name;
+		private final int inFlight;
+		private final long requestCount;
+		private final long throttledCount;
+		/** Remaining quarantine, zero when the session is in use. */
+		private final Duration quarantine;
+		/** Null before the session was fetched. */
+		private final Duration sessionAge;
+	}
+
+	private static final class Member {
+		private final SessionHolder holder;
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicLong requests = new AtomicLong();
+		private final AtomicLong throttled = new AtomicLong();
+		private volatile long quarantinedUntil;
+
+		private Member(SessionHolder holder) {
+			this.holder = holder;
+		}
+
+		private boolean isQuarantined(long now) {
+			return throttled.get() > 0 && quarantinedUntil - now > 0;
+		}
+	}
+
+	/**
+	 * Fetches cookie and crumb with a client whose cookie store is not shared with any other session.
+	 */
+	private static final class IsolatedFetcher implements SessionHolder.Fetcher {
+		private final java.net.CookieManager cookies = new java.net.CookieManager(null, CookiePolicy.ACCEPT_ALL);
+		private final HttpClient client = HttpClient.newBuilder()
+				.cookieHandler(cookies)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.connectTimeout(FETCH_TIMEOUT)
+				.build();
+
+		@Override
+		public String fetchCookie() throws CookieException {
+			cookies.getCookieStore().removeAll();
+			try {
+				HttpResponse<Void> response = client.send(request(CookieManager.COOKIE_SCRAPE_URL),
+						HttpResponse.BodyHandlers.discarding());
+				log.debug("Cookie request response code: {}", response.statusCode());
+			} catch (IOException e) {
+				throw new CookieException("Unable to retrieve Yahoo Finance cookie", e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CookieException("Interrupted while retrieving Yahoo Finance cookie", e);
+			}
+			return cookies.getCookieStore().getCookies().stream()
+					.filter(cookie -> "A3".equals(cookie.getName()))
+					.map(HttpCookie::toString)
+					.findFirst()
+					.orElseThrow(() -> new CookieException("Failed to extract A3 cookie from response"));
+		}
+
+		/**
+		 * The cookie is sent by the client's own cookie handler.
+		 */
+		@Override
+		public String fetchCrumb(String cookie) throws CrumbException {
+			try {
+				HttpResponse<InputStream> response = client.send(request(CrumbManager.CRUMB_URL),
+						HttpResponse.BodyHandlers.ofInputStream());
+				try (InputStream body = response.body()) {
+					if (response.statusCode() != 200) {
+						throw new CrumbException(String.format("Failed to retrieve crumb: HTTP %d from %s",
+								response.statusCode(), CrumbManager.CRUMB_URL));
+					}
+					String crumb = new String(body.readAllBytes(), StandardCharsets.UTF_8).trim();
+					if (crumb.isEmpty()) {
+						throw new CrumbException("Empty crumb response from Yahoo Finance");
+					}
+					return crumb;
+				}
+			} catch (IOException e) {
+				throw new CrumbException("Unable to retrieve Yahoo Finance crumb", e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CrumbException("Interrupted while retrieving Yahoo Finance crumb", e);
+			}
+		}
+
+		private static HttpRequest request(String url) {
+			return HttpRequest.newBuilder(URI.create(url))
+					.timeout(FETCH_TIMEOUT)
+					.header("User-Agent", HttpTransport.USER_AGENT)
+					.header("Accept", "*/*")
+					.GET()
+					.build();
+		}
+	}
+}
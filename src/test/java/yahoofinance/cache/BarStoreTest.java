@@ -0,0 +1,95 @@
+package yahoofinance.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import yahoofinance.model.ColumnarStockHistory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BarStore Tests")
+class BarStoreTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@DisplayName("Should reopen appended bars and read them by timestamp")
+	void shouldReopenAppendedBars() throws IOException {
+		Path file = directory.resolve("AAPL_1m.bars");
+		try (BarStore store = BarStore.open(file)) {
+			assertEquals(3, store.append(bars(60, 120, 180)));
+		}
+
+		try (BarStore store = BarStore.openReadOnly(file)) {
+			assertEquals(3, store.size());
+			assertEquals(1, store.indexOf(120));
+			assertEquals(-3, store.indexOf(150));
+
+			ColumnarStockHistory slice = store.readByTime(100, 200);
+			assertEquals(2, slice.size());
+			assertEquals(120, slice.getFirstTimestamp());
+			assertEquals(2.0, slice.getClose(0));
+			assertEquals(2000L, slice.getVolume(0));
+			assertFalse(slice.isValid(1));
+			assertNull(slice.asStockHistory().getIndicators().getQuote().get(0).getClose().get(1));
+		}
+	}
+
+	@Test
+	@DisplayName("Should replace the last bar and grow the mapping when appending")
+	void shouldReplaceLastBarAndGrow() throws IOException {
+		try (BarStore store = BarStore.open(directory.resolve("MSFT_1m.bars"))) {
+			store.append(bars(60, 120, 180));
+
+			long[] timestamps = new long[5000];
+			for (int i = 0; i < timestamps.length; i++) {
+				timestamps[i] = 180 + 60L * i;
+			}
+			assertEquals(5000, store.append(bars(timestamps)));
+
+			assertEquals(5002, store.size());
+			assertEquals(180, store.getTimestamp(2));
+			assertTrue(store.readAll().isValid(2));
+			assertEquals(1.0, store.read(2, 3).getClose(0));
+			assertEquals(180 + 60L * 4999, store.getLastTimestamp());
+		}
+	}
+
+	@Test
+	@DisplayName("Should reject writes to a read only store")
+	void shouldRejectWritesToReadOnlyStore() throws IOException {
+		Path file = directory.resolve("IBM_1d.bars");
+		BarStore.open(file).close();
+
+		try (BarStore store = BarStore.openReadOnly(file)) {
+			assertEquals(0, store.size());
+			assertThrows(IOException.class, () -> store.append(bars(60)));
+		}
+	}
+
+	/**
+	 * Bars closing at {@code index + 1}, the third bar (if any) has no values.
+	 */
+	private static ColumnarStockHistory bars(long... timestamps) {
+		int size = timestamps.length;
+		double[] prices = new double[size];
+		long[] volume = new long[size];
+		BitSet valid = new BitSet(size);
+		for (int i = 0; i < size; i++) {
+			prices[i] = i + 1;
+			volume[i] = 1000L * (i + 1);
+			valid.set(i, i != 2);
+		}
+		if (size > 2) {
+			prices[2] = Double.NaN;
+			volume[2] = 0;
+		}
+		return new ColumnarStockHistory(null, timestamps, prices, prices.clone(), prices.clone(), prices.clone(), volume,
+				valid);
+	}
+}
@@ -0,0 +1,186 @@
+package yahoofinance.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import yahoofinance.model.ColumnarStockHistory;
+import yahoofinance.model.StockHistory;
+import yahoofinance.requests.StockHistoryRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HistoryCache Tests")
+class HistoryCacheTest {
+
+	private static final long DAY = 24 * 60 * 60;
+	private static final long HOUR = 60 * 60;
+	/** Wednesday 2024-06-12 00:00 UTC. */
+	private static final long TODAY = 1_718_150_400L;
+	private static final long MORNING = TODAY + 10 * HOUR;
+
+	@TempDir
+	Path cacheDirectory;
+
+	@Test
+	@DisplayName("Should download only the tail after the first request")
+	void shouldDownloadOnlyTailAfterFirstRequest() throws Exception {
+		RecordingCache cache = new RecordingCache(cacheDirectory, MORNING);
+
+		cache.full = history(TODAY - 3 * DAY, TODAY - 2 * DAY, TODAY - DAY);
+		StockHistory first = cache.getStockHistory("AAPL", StockHistoryRequest.ValidRanges.ONE_MONTH,
+				StockHistoryRequest.ValidIntervals.ONE_DAY);
+		assertEquals(3, first.getTimestamp().size());
+		assertEquals(1, cache.fullRequests);
+
+		RecordingCache reopened = new RecordingCache(cacheDirectory, MORNING + HOUR);
+		reopened.tail = history(TODAY - DAY, TODAY);
+		StockHistory second = reopened.getStockHistory("AAPL", StockHistoryRequest.ValidRanges.ONE_MONTH,
+				StockHistoryRequest.ValidIntervals.ONE_DAY);
+
+		assertEquals(0, reopened.fullRequests);
+		assertEquals(List.of(TODAY - DAY), reopened.tailStarts);
+		assertEquals(List.of(TODAY - 3 * DAY, TODAY - 2 * DAY, TODAY - DAY, TODAY), second.getTimestamp());
+		assertEquals(TODAY - DAY + 100.0, second.getIndicators().getQuote().get(0).getClose().get(2));
+	}
+
+	@Test
+	@DisplayName("Should not request anything within max age of the last download")
+	void shouldSkipRefreshWithinMaxAge() throws Exception {
+		RecordingCache cache = new RecordingCache(cacheDirectory, MORNING);
+		cache.full = history(TODAY - DAY, TODAY);
+
+		cache.getStockHistory("AAPL", StockHistoryRequest.ValidRanges.FIVE_DAYS, StockHistoryRequest.ValidIntervals.ONE_DAY);
+		RecordingCache reopened = new RecordingCache(cacheDirectory, MORNING + 30);
+		StockHistory cached = reopened.getStockHistory("AAPL", StockHistoryRequest.ValidRanges.FIVE_DAYS,
+				StockHistoryRequest.ValidIntervals.ONE_DAY);
+
+		assertEquals(1, cache.fullRequests);
+		assertTrue(reopened.tailStarts.isEmpty());
+		assertEquals(List.of(TODAY - DAY, TODAY), cached.getTimestamp());
+
+		reopened.setMaxAge(Duration.ZERO);
+		reopened.tail = history(TODAY);
+		reopened.getStockHistory("AAPL", StockHistoryRequest.ValidRanges.FIVE_DAYS, StockHistoryRequest.ValidIntervals.ONE_DAY);
+		assertEquals(List.of(TODAY), reopened.tailStarts);
+	}
+
+	@Test
+	@DisplayName("Should refresh a daily bar downloaded intraday")
+	void shouldRefreshDailyBarDownloadedIntraday() throws Exception {
+		RecordingCache cache = new RecordingCache(cacheDirectory, MORNING);
+		cache.full = history(TODAY - DAY, TODAY);
+		cache.getStockHistory("AAPL", StockHistoryRequest.ValidRanges.FIVE_DAYS, StockHistoryRequest.ValidIntervals.ONE_DAY);
+
+		RecordingCache evening = new RecordingCache(cacheDirectory, TODAY + 16 * HOUR);
+		evening.tail = history(TODAY);
+		StockHistory history = evening.getStockHistory("AAPL", StockHistoryRequest.ValidRanges.FIVE_DAYS,
+				StockHistoryRequest.ValidIntervals.ONE_DAY);
+
+		assertEquals(List.of(TODAY), evening.tailStarts);
+		assertEquals(List.of(TODAY - DAY, TODAY), history.getTimestamp());
+		assertEquals(TODAY + 100.0, history.getIndicators().getQuote().get(0).getClose().get(1));
+	}
+
+	@Test
+	@DisplayName("Should refresh a weekly bar whose week has not ended")
+	void shouldRefreshFormingWeeklyBar() throws Exception {
+		long week = TODAY - 2 * DAY;
+		RecordingCache cache = new RecordingCache(cacheDirectory, MORNING);
+		cache.full = history(week - 7 * DAY, week);
+		cache.getStockHistory("AAPL", StockHistoryRequest.ValidRanges.ONE_MONTH, StockHistoryRequest.ValidIntervals.ONE_WEEK);
+
+		RecordingCache later = new RecordingCache(cacheDirectory, MORNING + 2 * HOUR);
+		later.tail = history(week);
+		StockHistory history = later.getStockHistory("AAPL", StockHistoryRequest.ValidRanges.ONE_MONTH,
+				StockHistoryRequest.ValidIntervals.ONE_WEEK);
+
+		assertEquals(List.of(week), later.tailStarts);
+		assertEquals(week + 100.0, history.getIndicators().getQuote().get(0).getClose().get(1));
+	}
+
+	@Test
+	@DisplayName("Should download again when the cached file is corrupt")
+	void shouldDownloadAgainForCorruptFile() throws Exception {
+		RecordingCache cache = new RecordingCache(cacheDirectory, MORNING);
+		cache.full = history(TODAY - DAY, TODAY);
+		cache.getStockHistory("IBM", StockHistoryRequest.ValidRanges.FIVE_DAYS, StockHistoryRequest.ValidIntervals.ONE_DAY);
+
+		Path file;
+		try (Stream<Path> files = Files.list(cacheDirectory)) {
+			file = files.filter(f -> f.getFileName().toString().startsWith("IBM")).findFirst().orElseThrow();
+		}
+		ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(file));
+		header.putInt(2 * Integer.BYTES + 2 * Long.BYTES, Integer.MAX_VALUE);
+		Files.write(file, header.array());
+
+		StockHistory history = cache.getStockHistory("IBM", StockHistoryRequest.ValidRanges.FIVE_DAYS,
+				StockHistoryRequest.ValidIntervals.ONE_DAY);
+
+		assertEquals(2, cache.fullRequests);
+		assertEquals(List.of(TODAY - DAY, TODAY), history.getTimestamp());
+	}
+
+	@Test
+	@DisplayName("Should download everything again for a wider range")
+	void shouldDownloadEverythingForWiderRange() throws Exception {
+		RecordingCache cache = new RecordingCache(cacheDirectory, MORNING);
+		cache.full = history(TODAY - DAY, TODAY);
+
+		cache.getStockHistory("MSFT", StockHistoryRequest.ValidRanges.FIVE_DAYS, StockHistoryRequest.ValidIntervals.ONE_DAY);
+		cache.getStockHistory("MSFT", StockHistoryRequest.ValidRanges.ONE_YEAR, StockHistoryRequest.ValidIntervals.ONE_DAY);
+
+		assertEquals(2, cache.fullRequests);
+	}
+
+	private static StockHistory history(long... timestamps) {
+		int size = timestamps.length;
+		double[] prices = new double[size];
+		long[] volume = new long[size];
+		for (int i = 0; i < size; i++) {
+			prices[i] = i + 1;
+			volume[i] = 1000L * (i + 1);
+		}
+		double[] close = prices.clone();
+		close[0] = timestamps[0] + 100.0;
+		BitSet valid = new BitSet(size);
+		valid.set(0, size);
+		return new ColumnarStockHistory(new StockHistory.Meta(), timestamps, prices, prices, prices, close, volume, valid)
+				.asStockHistory();
+	}
+
+	private static class RecordingCache extends HistoryCache {
+		private StockHistory full;
+		private StockHistory tail;
+		private int fullRequests;
+		private final List<Long> tailStarts = new ArrayList<>();
+
+		RecordingCache(Path directory, long now) {
+			super(directory, Clock.fixed(Instant.ofEpochSecond(now), ZoneOffset.UTC));
+		}
+
+		@Override
+		protected StockHistory fetchFull(String symbol, StockHistoryRequest.ValidRanges range,
+		                                 StockHistoryRequest.ValidIntervals interval) {
+			fullRequests++;
+			return full;
+		}
+
+		@Override
+		protected StockHistory fetchTail(String symbol, long from, long to, StockHistoryRequest.ValidIntervals interval) {
+			tailStarts.add(from);
+			return tail;
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package yahoofinance.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.model.StockQuoteSummary;
+import yahoofinance.model.market.modules.AssetProfile;
+import yahoofinance.model.market.modules.Price;
+import yahoofinance.model.market.modules.QuoteType;
+import yahoofinance.requests.QuoteSummaryRequest.Module;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("QuoteSummaryCache Tests")
+class QuoteSummaryCacheTest {
+
+	private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+	@Test
+	@DisplayName("Should download only missing or expired modules and merge them")
+	void shouldFetchOnlyMissingModules() throws Exception {
+		RecordingCache cache = new RecordingCache(10);
+
+		StockQuoteSummary first = cache.getStockQuoteSummary("AAPL", Module.ASSET_PROFILE, Module.PRICE);
+		assertTrue(first.hasModule(AssetProfile.class));
+		assertTrue(first.hasModule(Price.class));
+		assertEquals(List.of(EnumSet.of(Module.ASSET_PROFILE, Module.PRICE)), cache.requests);
+
+		cache.clock += 2 * MINUTE;
+		StockQuoteSummary second = cache.getStockQuoteSummary("AAPL", Module.ASSET_PROFILE, Module.PRICE,
+				Module.QUOTE_TYPE);
+		assertEquals(EnumSet.of(Module.PRICE, Module.QUOTE_TYPE), cache.requests.get(1));
+		assertSame(first.getModule(AssetProfile.class).orElseThrow(), second.getModule(AssetProfile.class).orElseThrow());
+		assertNotSame(first.getModule(Price.class).orElseThrow(), second.getModule(Price.class).orElseThrow());
+		assertTrue(second.hasModule(QuoteType.class));
+
+		cache.getStockQuoteSummary("AAPL", Module.ASSET_PROFILE, Module.QUOTE_TYPE);
+		assertEquals(2, cache.requests.size());
+
+		QuoteSummaryCache.Stats stats = cache.getStats();
+		assertEquals(3, stats.getHitCount());
+		assertEquals(4, stats.getMissCount());
+		assertEquals(2, stats.getFetchCount());
+		assertEquals(3.0 / 7, stats.getHitRate(), 1e-9);
+	}
+
+	@Test
+	@DisplayName("Should remember modules Yahoo does not return")
+	void shouldCacheAbsentModules() throws Exception {
+		RecordingCache cache = new RecordingCache(10);
+
+		StockQuoteSummary summary = cache.getStockQuoteSummary("SPY", Module.ESG_SCORES, Module.QUOTE_TYPE);
+		assertEquals(1, summary.getModules().size());
+		cache.getStockQuoteSummary("SPY", Module.ESG_SCORES);
+
+		assertEquals(1, cache.requests.size());
+	}
+
+	@Test
+	@DisplayName("Should evict the least recently used symbol")
+	void shouldEvictLeastRecentlyUsed() throws Exception {
+		RecordingCache cache = new RecordingCache(2);
+		cache.getStockQuoteSummary("AAPL", Module.QUOTE_TYPE);
+		cache.getStockQuoteSummary("MSFT", Module.QUOTE_TYPE);
+		cache.getStockQuoteSummary("AAPL", Module.QUOTE_TYPE);
+		cache.getStockQuoteSummary("TSLA", Module.QUOTE_TYPE);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getStats().getEvictionCount());
+
+		cache.getStockQuoteSummary("AAPL", Module.QUOTE_TYPE);
+		assertEquals(3, cache.requests.size());
+		cache.getStockQuoteSummary("MSFT", Module.QUOTE_TYPE);
+		assertEquals(4, cache.requests.size());
+	}
+
+	@Test
+	@DisplayName("Should honour per module TTLs and invalidation")
+	void shouldHonourTtls() throws Exception {
+		RecordingCache cache = new RecordingCache(10);
+		cache.setTtl(Module.QUOTE_TYPE, Duration.ofSeconds(10));
+
+		cache.getStockQuoteSummary("AAPL", Module.QUOTE_TYPE);
+		cache.clock += Duration.ofSeconds(11).toNanos();
+		cache.getStockQuoteSummary("AAPL", Module.QUOTE_TYPE);
+		assertEquals(2, cache.requests.size());
+
+		cache.invalidate("AAPL", Module.QUOTE_TYPE);
+		cache.getStockQuoteSummary("AAPL", Module.QUOTE_TYPE);
+		assertEquals(3, cache.requests.size());
+	}
+
+	@Test
+	@DisplayName("Should keep module names in sync with the replaced module list")
+	void shouldSyncModuleNamesOnSetModules() {
+		StockQuoteSummary summary = new StockQuoteSummary();
+		Price price = new Price();
+		summary.putModule("assetProfile", new AssetProfile());
+		summary.putModule("price", price);
+
+		summary.setModules(new ArrayList<>(List.of(price)));
+		assertNull(summary.getModule("assetProfile"));
+		assertSame(price, summary.getModule("price"));
+
+		summary.setModules(null);
+		assertNull(summary.getModule("price"));
+	}
+
+	/**
+	 * Returns fresh module instances for every module it knows, nothing for ESG scores.
+	 */
+	private static final class RecordingCache extends QuoteSummaryCache {
+		private final List<Set<Module>> requests = new ArrayList<>();
+		private long clock = 1_000 * MINUTE;
+
+		private RecordingCache(int maxSymbols) {
+			super(maxSymbols);
+		}
+
+		@Override
+		protected StockQuoteSummary fetch(String symbol, Set<Module> modules) {
+			requests.add(EnumSet.copyOf(modules));
+			StockQuoteSummary summary = new StockQuoteSummary();
+			summary.setModules(new ArrayList<>());
+			for (Module module : modules) {
+				switch (module) {
+					case ASSET_PROFILE -> summary.putModule(module.getModuleName(), new AssetProfile());
+					case PRICE -> summary.putModule(module.getModuleName(), new Price());
+					case QUOTE_TYPE -> summary.putModule(module.getModuleName(), new QuoteType());
+					default -> {
+					}
+				}
+			}
+			return summary;
+		}
+
+		@Override
+		protected long now() {
+			return clock;
+		}
+	}
+}
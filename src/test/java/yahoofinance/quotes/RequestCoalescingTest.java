@@ -0,0 +1,179 @@
+package yahoofinance.quotes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.exception.ConnectionException;
+import yahoofinance.exception.YFinanceException;
+import yahoofinance.requests.QuoteRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Request coalescing Tests")
+class RequestCoalescingTest {
+
+	private static final int CALLERS = 8;
+
+	@Test
+	@DisplayName("Should share one call and one result between identical concurrent requests")
+	void shouldShareInFlightRequest() throws Exception {
+		Flight flight = new Flight(false);
+		List<Future<JsonNode>> results = run(flight, "AAPL");
+
+		JsonNode first = results.get(0).get(5, TimeUnit.SECONDS);
+		assertEquals("AAPL", first.get("symbol").asText());
+		for (Future<JsonNode> result : results) {
+			assertSame(first, result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, flight.sends.get());
+
+		new TestRequest("AAPL", flight.completed()).execute();
+		assertEquals(2, flight.sends.get());
+	}
+
+	@Test
+	@DisplayName("Should pass the failure of the shared call to every caller")
+	void shouldShareFailure() throws Exception {
+		Flight flight = new Flight(true);
+		List<Future<JsonNode>> results = run(flight, "MSFT");
+
+		for (Future<JsonNode> result : results) {
+			ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+			assertInstanceOf(ConnectionException.class, e.getCause());
+		}
+		assertEquals(1, flight.sends.get());
+	}
+
+	@Test
+	@DisplayName("Should not share calls for different URLs")
+	void shouldNotShareDifferentRequests() throws Exception {
+		Flight flight = new Flight(false).completed();
+		new TestRequest("AAPL", flight).execute();
+		new TestRequest("MSFT", flight).execute();
+		assertEquals(2, flight.sends.get());
+	}
+
+	@Test
+	@DisplayName("Should release the in-flight slot when an async request fails before sending")
+	void shouldReleaseFlightWhenSendThrows() {
+		Flight flight = new Flight(false).completed();
+
+		CompletableFuture<JsonNode> async = new TestRequest("^GSPC", flight).executeAsync();
+		ExecutionException e = assertThrows(ExecutionException.class, () -> async.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalArgumentException.class, e.getCause());
+
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+				assertThrows(IllegalArgumentException.class, () -> new TestRequest("^GSPC", flight).execute()));
+		assertEquals(0, flight.sends.get());
+	}
+
+	/**
+	 * Starts identical requests from several threads and releases the network call once all of them joined it.
+	 */
+	private static List<Future<JsonNode>> run(Flight flight, String symbol) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		try {
+			long coalescedBefore = QuoteRequest.getCoalescedRequestCount();
+			List<Future<JsonNode>> results = new ArrayList<>();
+			for (int i = 0; i < CALLERS; i++) {
+				results.add(executor.submit(() -> new TestRequest(symbol, flight).execute()));
+			}
+			assertTrue(flight.started.await(5, TimeUnit.SECONDS));
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (QuoteRequest.getCoalescedRequestCount() - coalescedBefore < CALLERS - 1
+			       && System.nanoTime() < deadline) {
+				Thread.sleep(1);
+			}
+			flight.release.countDown();
+			for (Future<JsonNode> result : results) {
+				try {
+					result.get(5, TimeUnit.SECONDS);
+				} catch (ExecutionException ignored) {
+				}
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static final class Flight {
+		private final AtomicInteger sends = new AtomicInteger();
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final boolean fail;
+
+		private Flight(boolean fail) {
+			this.fail = fail;
+		}
+
+		private Flight completed() {
+			release.countDown();
+			return this;
+		}
+	}
+
+	private static final class TestRequest extends QuoteRequest<JsonNode> {
+		private final Flight flight;
+
+		private TestRequest(String symbol, Flight flight) {
+			super(symbol);
+			this.flight = flight;
+		}
+
+		@Override
+		public String getURL() {
+			return "https://query1.finance.yahoo.com/test";
+		}
+
+		@Override
+		protected boolean extractResultNode() {
+			return false;
+		}
+
+		@Override
+		public JsonNode parseJson(JsonNode node) {
+			return node;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected HttpResponse<InputStream> sendRequest(URI uri) throws YFinanceException {
+			flight.sends.incrementAndGet();
+			flight.started.countDown();
+			try {
+				flight.release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (flight.fail) {
+				throw new ConnectionException("Too many requests", 429, uri.toString());
+			}
+			String symbol = uri.getPath().substring(uri.getPath().lastIndexOf('/') + 1);
+			HttpResponse<InputStream> response = mock(HttpResponse.class);
+			when(response.statusCode()).thenReturn(200);
+			when(response.body()).thenReturn(new ByteArrayInputStream(
+					("{\"symbol\":\"" + symbol + "\"}").getBytes(StandardCharsets.UTF_8)));
+			return response;
+		}
+	}
+}
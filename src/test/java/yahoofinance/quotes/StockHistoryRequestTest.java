@@ -8,14 +8,31 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import yahoofinance.exception.YFinanceException;
+import yahoofinance.model.ColumnarStockHistory;
 import yahoofinance.model.StockHistory;
+import yahoofinance.requests.QuoteRequest;
 import yahoofinance.requests.StockHistoryRequest;
+import yahoofinance.service.ChunkedHistoryFetcher;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpResponse;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class StockHistoryRequestTest {
 
@@ -279,6 +296,303 @@ class StockHistoryRequestTest {
 			// Should not throw exception, might return null or partially parsed data
 			assertDoesNotThrow(() -> request.parseJson(jsonNode));
 		}
+
+		@Test
+		@DisplayName("Should stream parse chart response like tree parsing")
+		void shouldStreamParseChartResponse() throws Exception {
+			String chartJson = """
+                {"chart": {
+                    "result": [{
+                        "meta": {"currency": "USD", "symbol": "AAPL", "regularMarketPrice": 150.0},
+                        "timestamp": [1640995200, 1641081600, 1641168000],
+                        "indicators": {
+                            "quote": [{
+                                "high": [155.0, null, 152.0],
+                                "low": [148.0, null, 149.0],
+                                "open": [150.0, null, 151.0],
+                                "close": [154.0, null, 150.5],
+                                "volume": [1000000, null, 1200000]
+                            }],
+                            "adjclose": [{"adjclose": [154.0, null, 150.5]}]
+                        }
+                    }],
+                    "error": null
+                }}
+                """;
+
+			StockHistoryRequest request = new StockHistoryRequest(TEST_SYMBOL);
+			StockHistory streamed = request.parseStream(objectMapper.createParser(chartJson));
+			StockHistory tree = request.parseJson(objectMapper.readTree(chartJson).get("chart").get("result"));
+
+			assertEquals(tree.getMeta().getSymbol(), streamed.getMeta().getSymbol());
+			assertEquals(tree.getMeta().getRegularMarketPrice(), streamed.getMeta().getRegularMarketPrice());
+			assertEquals(tree.getTimestamp(), streamed.getTimestamp());
+
+			StockHistory.Quote treeQuote = tree.getIndicators().getQuote().get(0);
+			StockHistory.Quote streamedQuote = streamed.getIndicators().getQuote().get(0);
+			assertEquals(treeQuote.getOpen(), streamedQuote.getOpen());
+			assertEquals(treeQuote.getHigh(), streamedQuote.getHigh());
+			assertEquals(treeQuote.getLow(), streamedQuote.getLow());
+			assertEquals(treeQuote.getClose(), streamedQuote.getClose());
+			assertEquals(treeQuote.getVolume(), streamedQuote.getVolume());
+			assertNull(streamedQuote.getClose().get(1));
+
+			streamedQuote.getClose().set(1, 151.0);
+			streamed.getTimestamp().add(1641254400L);
+
+			ColumnarStockHistory columnar = request.parseColumnarStream(objectMapper.createParser(chartJson));
+			assertSame(columnar, columnar.asStockHistory().toColumnar());
+			assertEquals(3, columnar.size());
+			assertEquals(2, columnar.validCount());
+			assertFalse(columnar.isValid(1));
+			assertTrue(Double.isNaN(columnar.getClose(1)));
+			assertEquals(150.5, columnar.getClose(2));
+			assertEquals(1200000L, columnar.getVolume(2));
+			assertEquals(2, columnar.indexOf(1641168000L));
+		}
+
+		@Test
+		@DisplayName("Should convert boxed history to columns")
+		void shouldConvertBoxedHistoryToColumns() throws Exception {
+			String validJson = """
+                [{
+                    "timestamp": [1640995200, 1641081600],
+                    "indicators": {
+                        "quote": [{
+                            "high": [155.0, null],
+                            "low": [148.0, null],
+                            "open": [150.0, null],
+                            "close": [154.0, null],
+                            "volume": [1000000, null]
+                        }]
+                    }
+                }]
+                """;
+
+			StockHistory history = new StockHistoryRequest(TEST_SYMBOL).parseJson(objectMapper.readTree(validJson));
+			ColumnarStockHistory columnar = history.toColumnar();
+
+			assertEquals(2, columnar.size());
+			assertTrue(columnar.isValid(0));
+			assertFalse(columnar.isValid(1));
+			assertEquals(155.0, columnar.getHigh(0));
+			assertEquals(1000000L, columnar.getVolume(0));
+
+			StockHistory view = columnar.asStockHistory();
+			assertEquals(history.getTimestamp(), view.getTimestamp());
+			assertEquals(history.getIndicators().getQuote().get(0).getClose(), view.getIndicators().getQuote().get(0).getClose());
+			assertEquals(history.getIndicators().getQuote().get(0).getVolume(), view.getIndicators().getQuote().get(0).getVolume());
+		}
+
+		@Test
+		@DisplayName("Should keep the missing values of each column separately")
+		void shouldKeepMissingValuesPerColumn() throws Exception {
+			String chartJson = """
+                {"chart": {"result": [{
+                    "timestamp": [1640995200, 1641081600],
+                    "indicators": {
+                        "quote": [{
+                            "high": [155.0, null],
+                            "low": [148.0, 149.0],
+                            "open": [150.0, 151.0],
+                            "close": [154.0, 150.5],
+                            "volume": [null, 1200000]
+                        }]
+                    }
+                }], "error": null}}
+                """;
+
+			StockHistory streamed = new StockHistoryRequest(TEST_SYMBOL).parseStream(objectMapper.createParser(chartJson));
+			StockHistory.Quote quote = streamed.getIndicators().getQuote().get(0);
+
+			assertEquals(Arrays.asList(155.0, null), quote.getHigh());
+			assertEquals(List.of(148.0, 149.0), quote.getLow());
+			assertEquals(List.of(154.0, 150.5), quote.getClose());
+			assertEquals(Arrays.asList(null, 1200000L), quote.getVolume());
+
+			ColumnarStockHistory columnar = streamed.toColumnar();
+			assertTrue(columnar.isValid(0));
+			assertFalse(columnar.isValid(1));
+			assertFalse(columnar.hasVolume(0));
+			assertTrue(columnar.hasVolume(1));
+
+			StockHistory copied = new StockHistory();
+			copied.setTimestamp(new ArrayList<>(streamed.getTimestamp()));
+			StockHistory.Quote copiedQuote = new StockHistory.Quote();
+			copiedQuote.setOpen(new ArrayList<>(quote.getOpen()));
+			copiedQuote.setHigh(new ArrayList<>(quote.getHigh()));
+			copiedQuote.setLow(new ArrayList<>(quote.getLow()));
+			copiedQuote.setClose(new ArrayList<>(quote.getClose()));
+			copiedQuote.setVolume(new ArrayList<>(quote.getVolume()));
+			StockHistory.Indicators indicators = new StockHistory.Indicators();
+			indicators.setQuote(List.of(copiedQuote));
+			copied.setIndicators(indicators);
+
+			StockHistory.Quote roundTrip = copied.toColumnar().asStockHistory().getIndicators().getQuote().get(0);
+			assertEquals(quote.getHigh(), roundTrip.getHigh());
+			assertEquals(quote.getClose(), roundTrip.getClose());
+			assertEquals(quote.getVolume(), roundTrip.getVolume());
+		}
+
+		@Test
+		@DisplayName("Should report chart error when stream parsing")
+		void shouldReportChartErrorWhenStreamParsing() {
+			String errorJson = """
+                {"chart": {"result": null, "error": {"code": "Not Found", "description": "No data found, symbol may be delisted"}}}
+                """;
+
+			StockHistoryRequest request = new StockHistoryRequest(TEST_SYMBOL);
+
+			YFinanceException exception = assertThrows(YFinanceException.class,
+					() -> request.parseStream(objectMapper.createParser(errorJson)));
+			assertEquals("No data found, symbol may be delisted", exception.getMessage());
+		}
+	}
+
+	@Nested
+	@DisplayName("Chunked Download Tests")
+	class ChunkedDownloadTests {
+
+		@Test
+		@DisplayName("Should split range into windows allowed for the interval")
+		void shouldSplitRangeIntoAllowedWindows() {
+			long start = TEST_START_DATE.toEpochSecond(ZoneOffset.UTC);
+			long end = start + 30L * 24 * 60 * 60;
+
+			List<long[]> windows = ChunkedHistoryFetcher.splitWindows(start, end, StockHistoryRequest.ValidIntervals.ONE_MINUTE);
+
+			assertEquals(5, windows.size());
+			assertEquals(start, windows.get(0)[0]);
+			assertEquals(end, windows.get(windows.size() - 1)[1]);
+			for (int i = 0; i < windows.size(); i++) {
+				assertTrue(windows.get(i)[1] - windows.get(i)[0]
+				           <= StockHistoryRequest.ValidIntervals.ONE_MINUTE.getMaxRequestWindowSeconds());
+				if (i > 0) {
+					assertEquals(windows.get(i - 1)[1], windows.get(i)[0]);
+				}
+			}
+
+			assertEquals(1, ChunkedHistoryFetcher.splitWindows(start, end, StockHistoryRequest.ValidIntervals.ONE_DAY).size());
+		}
+
+		@Test
+		@DisplayName("Should merge windows and de-duplicate overlapping timestamps")
+		void shouldMergeWindowsAndDeduplicateTimestamps() {
+			ColumnarStockHistory first = new ColumnarStockHistory(null,
+					new long[]{60, 120, 180}, new double[]{1, 2, 3}, new double[]{1, 2, 3},
+					new double[]{1, 2, 3}, new double[]{1, 2, 3}, new long[]{10, 20, 30}, validBars(3));
+			ColumnarStockHistory second = new ColumnarStockHistory(null,
+					new long[]{180, 240}, new double[]{4, 5}, new double[]{4, 5},
+					new double[]{4, 5}, new double[]{4, 5}, new long[]{40, 50}, validBars(2));
+
+			ColumnarStockHistory merged = ColumnarStockHistory.merge(List.of(second, first));
+			assertEquals(4, merged.size());
+			assertEquals(3.0, merged.getClose(2));
+
+			merged = ColumnarStockHistory.merge(List.of(first, second));
+			assertEquals(4, merged.size());
+			assertEquals(List.of(60L, 120L, 180L, 240L), merged.asStockHistory().getTimestamp());
+			assertEquals(4.0, merged.getClose(2));
+			assertEquals(40L, merged.getVolume(2));
+		}
+
+		@Test
+		@DisplayName("Should keep at most maxConcurrency windows in flight")
+		void shouldLimitWindowsInFlight() throws Exception {
+			LocalDateTime start = TEST_START_DATE;
+			LocalDateTime end = start.plusDays(30);
+			List<WindowRequest> started = new ArrayList<>();
+			ChunkedHistoryFetcher fetcher = new ChunkedHistoryFetcher(Runnable::run, 2,
+					(symbol, from, to, interval) -> add(started, new WindowRequest(symbol, from)));
+
+			CompletableFuture<StockHistory> result = fetcher.fetchAsync(TEST_SYMBOL, start, end,
+					StockHistoryRequest.ValidIntervals.ONE_MINUTE);
+			assertEquals(2, started.size());
+
+			for (int i = 0; i < 5; i++) {
+				started.get(i).response.complete(okResponse());
+				assertEquals(Math.min(5, i + 3), started.size());
+			}
+			assertEquals(5, result.get(5, TimeUnit.SECONDS).getTimestamp().size());
+		}
+
+		@Test
+		@DisplayName("Should not request the remaining windows after one failed")
+		void shouldStopAfterFailedWindow() {
+			List<WindowRequest> started = new ArrayList<>();
+			ChunkedHistoryFetcher fetcher = new ChunkedHistoryFetcher(Runnable::run, 1,
+					(symbol, from, to, interval) -> add(started, new WindowRequest(symbol, from)));
+
+			CompletableFuture<StockHistory> result = fetcher.fetchAsync(TEST_SYMBOL, TEST_START_DATE,
+					TEST_START_DATE.plusDays(30), StockHistoryRequest.ValidIntervals.ONE_MINUTE);
+			started.get(0).response.completeExceptionally(new YFinanceException("Too many requests"));
+
+			assertEquals(1, started.size());
+			ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+			assertInstanceOf(YFinanceException.class, e.getCause());
+		}
+
+		private WindowRequest add(List<WindowRequest> started, WindowRequest request) {
+			started.add(request);
+			return request;
+		}
+
+		@SuppressWarnings("unchecked")
+		private HttpResponse<byte[]> okResponse() {
+			HttpResponse<byte[]> response = mock(HttpResponse.class);
+			when(response.statusCode()).thenReturn(200);
+			when(response.body()).thenReturn(new byte[0]);
+			return response;
+		}
+
+		/**
+		 * Window request answered through {@link #response}, parsing to a single bar at the window start.
+		 */
+		private final class WindowRequest extends QuoteRequest<ColumnarStockHistory> {
+			private final long from;
+			private final CompletableFuture<HttpResponse<byte[]>> response = new CompletableFuture<>();
+
+			private WindowRequest(String symbol, LocalDateTime from) {
+				super(symbol);
+				this.from = from.toEpochSecond(ZoneOffset.UTC);
+			}
+
+			@Override
+			public String getURL() {
+				return "https://query2.finance.yahoo.com/v8/finance/chart";
+			}
+
+			@Override
+			public Map<String, String> getParams() {
+				return Map.of("period1", String.valueOf(from));
+			}
+
+			@Override
+			public ColumnarStockHistory parseJson(JsonNode node) {
+				return barAt(from);
+			}
+
+			@Override
+			protected CompletableFuture<HttpResponse<byte[]>> sendRequestAsync(URI uri, Executor executor) {
+				return response;
+			}
+
+			@Override
+			protected ColumnarStockHistory readResponse(InputStream body) {
+				return barAt(from);
+			}
+		}
+
+		private ColumnarStockHistory barAt(long timestamp) {
+			return new ColumnarStockHistory(null, new long[]{timestamp}, new double[]{1}, new double[]{1},
+					new double[]{1}, new double[]{1}, new long[]{1}, validBars(1));
+		}
+
+		private BitSet validBars(int size) {
+			BitSet valid = new BitSet(size);
+			valid.set(0, size);
+			return valid;
+		}
 	}
 
 	@Nested
@@ -0,0 +1,92 @@
+package yahoofinance.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.model.StockHistory;
+import yahoofinance.requests.StockHistoryRequest.ValidIntervals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BarAggregator Tests")
+class BarAggregatorTest {
+
+	private static final long T0 = 1_718_000_040_000L;
+
+	@Test
+	@DisplayName("Should build OHLCV bars and close them on the interval boundary")
+	void shouldBuildBars() {
+		List<BarAggregator.Bar> closed = new ArrayList<>();
+		BarAggregator aggregator = new BarAggregator(List.of(ValidIntervals.ONE_MINUTE, ValidIntervals.FIVE_MINUTES),
+				bar -> closed.add(bar.copy()));
+
+		long minute = Math.floorDiv(T0, 60_000L) * 60_000L;
+		aggregator.onTick("AAPL", 10.0, minute + 1_000, 1_000, 0);
+		aggregator.onTick("AAPL", 12.0, minute + 20_000, 1_100, 0);
+		aggregator.onTick("AAPL", 9.0, minute + 40_000, 1_250, 0);
+		aggregator.onTick("AAPL", 11.0, minute + 59_000, 1_300, 0);
+		assertTrue(closed.isEmpty());
+
+		aggregator.onTick("AAPL", 11.5, minute + 61_000, 1_400, 0);
+
+		BarAggregator.Bar bar = closed.get(0);
+		assertEquals(ValidIntervals.ONE_MINUTE, bar.getInterval());
+		assertEquals(minute / 1000, bar.getStart());
+		assertEquals(10.0, bar.getOpen());
+		assertEquals(12.0, bar.getHigh());
+		assertEquals(9.0, bar.getLow());
+		assertEquals(11.0, bar.getClose());
+		assertEquals(300, bar.getVolume());
+		assertEquals(4, bar.getTickCount());
+
+		StockHistory.Quote quote = bar.toQuote();
+		assertEquals(List.of(10.0), quote.getOpen());
+		assertEquals(List.of(300L), quote.getVolume());
+
+		BarAggregator.Bar current = aggregator.getCurrentBar("AAPL", ValidIntervals.ONE_MINUTE);
+		assertEquals(11.5, current.getOpen());
+		assertEquals(100, current.getVolume());
+	}
+
+	@Test
+	@DisplayName("Should close quiet bars when time advances and ignore late ticks")
+	void shouldCloseQuietBars() {
+		List<BarAggregator.Bar> closed = new ArrayList<>();
+		BarAggregator aggregator = new BarAggregator(List.of(ValidIntervals.ONE_MINUTE), bar -> closed.add(bar.copy()));
+
+		long minute = Math.floorDiv(T0, 60_000L) * 60_000L;
+		aggregator.onTick("MSFT", 5.0, minute + 5_000, 0, 10);
+		aggregator.onTick("MSFT", 5.5, minute + 6_000, 0, 15);
+		aggregator.advanceTo(minute + 59_999);
+		assertTrue(closed.isEmpty());
+
+		aggregator.advanceTo(minute + 60_000);
+		assertEquals(1, closed.size());
+		assertEquals(25, closed.get(0).getVolume());
+
+		// timed before the boundary but received after the bar was closed
+		aggregator.onTick("MSFT", 5.2, minute + 59_000, 0, 5);
+		aggregator.advanceTo(minute + 120_000);
+		assertEquals(1, closed.size());
+		assertEquals(1, aggregator.getLateTickCount());
+		assertNull(aggregator.getCurrentBar("MSFT", ValidIntervals.ONE_MINUTE));
+
+		aggregator.onTick("MSFT", 6.0, minute + 65_000, 0, 1);
+		aggregator.onTick("MSFT", 4.0, minute + 30_000, 0, 1);
+		assertEquals(2, aggregator.getLateTickCount());
+		assertEquals(6.0, aggregator.getCurrentBar("MSFT", ValidIntervals.ONE_MINUTE).getLow());
+	}
+
+	@Test
+	@DisplayName("Should reject intervals without fixed boundaries")
+	void shouldRejectCalendarIntervals() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new BarAggregator(List.of(ValidIntervals.ONE_MONTH), bar -> {
+				}));
+		assertThrows(IllegalArgumentException.class,
+				() -> new BarAggregator(List.of(ValidIntervals.ONE_WEEK), bar -> {
+				}));
+	}
+}
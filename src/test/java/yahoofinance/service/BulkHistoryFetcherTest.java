@@ -0,0 +1,145 @@
+package yahoofinance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.exception.ConnectionException;
+import yahoofinance.exception.YFinanceException;
+import yahoofinance.model.StockHistory;
+import yahoofinance.requests.QuoteRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("BulkHistoryFetcher Tests")
+class BulkHistoryFetcherTest {
+
+	private static final List<String> SYMBOLS = IntStream.range(0, 20).mapToObj(i -> "SYM" + i).toList();
+
+	@Test
+	@DisplayName("Should keep at most maxConcurrency requests in flight and fetch duplicates once")
+	void shouldLimitRequestsInFlight() throws Exception {
+		BulkHistoryFetcher fetcher = new BulkHistoryFetcher(3);
+		StubRequests requests = new StubRequests();
+		List<String> symbols = new ArrayList<>(SYMBOLS);
+		symbols.addAll(SYMBOLS);
+
+		List<BulkHistoryFetcher.Result> results = new ArrayList<>();
+		fetcher.fetch(symbols, requests, results::add);
+
+		assertEquals(SYMBOLS.size(), results.size());
+		assertTrue(results.stream().allMatch(BulkHistoryFetcher.Result::isSuccess));
+		assertEquals(SYMBOLS.size(), requests.calls.size());
+		assertTrue(requests.calls.values().stream().allMatch(count -> count.get() == 1));
+		assertTrue(requests.maxInFlight.get() <= 3, "In flight: " + requests.maxInFlight.get());
+	}
+
+	@Test
+	@DisplayName("Should report a failed symbol without affecting the others")
+	void shouldIsolateFailures() throws Exception {
+		BulkHistoryFetcher fetcher = new BulkHistoryFetcher(4);
+		StubRequests requests = new StubRequests();
+		requests.failing = "SYM7";
+
+		List<BulkHistoryFetcher.Result> results = new ArrayList<>();
+		fetcher.fetch(SYMBOLS, requests, results::add);
+
+		Map<String, BulkHistoryFetcher.Result> bySymbol = results.stream()
+				.collect(Collectors.toMap(BulkHistoryFetcher.Result::getSymbol, Function.identity()));
+		assertEquals(SYMBOLS.size(), bySymbol.size());
+		assertFalse(bySymbol.get("SYM7").isSuccess());
+		assertInstanceOf(ConnectionException.class, bySymbol.get("SYM7").getException());
+		assertEquals(SYMBOLS.size() - 1, results.stream().filter(BulkHistoryFetcher.Result::isSuccess).count());
+	}
+
+	@Test
+	@DisplayName("Should never invoke the callback concurrently")
+	void shouldSerializeCallbacks() throws Exception {
+		BulkHistoryFetcher fetcher = new BulkHistoryFetcher(8);
+		AtomicInteger inCallback = new AtomicInteger();
+		AtomicInteger overlaps = new AtomicInteger();
+		AtomicInteger delivered = new AtomicInteger();
+
+		fetcher.fetch(SYMBOLS, new StubRequests(), result -> {
+			if (inCallback.incrementAndGet() > 1) {
+				overlaps.incrementAndGet();
+			}
+			try {
+				Thread.sleep(2);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			delivered.incrementAndGet();
+			inCallback.decrementAndGet();
+		});
+
+		assertEquals(SYMBOLS.size(), delivered.get());
+		assertEquals(0, overlaps.get());
+	}
+
+	/**
+	 * Creates requests answering from memory, counting the requests sent per symbol and the ones in flight.
+	 */
+	private static final class StubRequests implements Function<String, QuoteRequest<StockHistory>> {
+		private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+		private volatile String failing;
+
+		@Override
+		public QuoteRequest<StockHistory> apply(String symbol) {
+			return new QuoteRequest<>(symbol) {
+				@Override
+				public String getURL() {
+					return "https://query1.finance.yahoo.com/v8/finance/chart";
+				}
+
+				@Override
+				public StockHistory parseJson(JsonNode node) {
+					return new StockHistory();
+				}
+
+				@Override
+				@SuppressWarnings("unchecked")
+				protected HttpResponse<InputStream> sendRequest(URI uri) throws YFinanceException {
+					calls.computeIfAbsent(symbol, s -> new AtomicInteger()).incrementAndGet();
+					maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+					try {
+						Thread.sleep(5);
+						if (symbol.equals(failing)) {
+							throw new ConnectionException("Too many requests", 429, uri.toString());
+						}
+						HttpResponse<InputStream> response = mock(HttpResponse.class);
+						when(response.statusCode()).thenReturn(200);
+						when(response.body()).thenReturn(new ByteArrayInputStream(new byte[0]));
+						return response;
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new YFinanceException("Interrupted", e);
+					} finally {
+						inFlight.decrementAndGet();
+					}
+				}
+
+				@Override
+				protected StockHistory readResponse(InputStream body) {
+					return new StockHistory();
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package yahoofinance.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.model.PricingTick;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ConflatingDispatcher Tests")
+class ConflatingDispatcherTest {
+
+	private static PricingTick tick(String id, float price) {
+		PricingTick tick = new PricingTick();
+		tick.setId(id);
+		tick.setPrice(price);
+		return tick;
+	}
+
+	@Test
+	@DisplayName("Should deliver only the latest tick of each dirty symbol")
+	void shouldDrainLatestDirtySymbols() {
+		ConflatingDispatcher dispatcher = new ConflatingDispatcher();
+		ConflatingDispatcher.Reader reader = dispatcher.newReader();
+
+		dispatcher.accept(tick("AAPL", 1f));
+		dispatcher.accept(tick("MSFT", 2f));
+		dispatcher.accept(tick("AAPL", 3f));
+
+		List<String> drained = new ArrayList<>();
+		assertEquals(2, reader.drain(t -> drained.add(t.getId() + "=" + t.getPrice())));
+		assertEquals(List.of("AAPL=3.0", "MSFT=2.0"), drained);
+		assertEquals(0, reader.drain(t -> fail("Nothing changed")));
+
+		dispatcher.accept(tick("MSFT", 4f));
+		drained.clear();
+		reader.drain(t -> drained.add(t.getId() + "=" + t.getPrice()));
+		assertEquals(List.of("MSFT=4.0"), drained);
+		assertEquals(4, dispatcher.getReceivedCount());
+		assertEquals(2, dispatcher.getSymbolCount());
+	}
+
+	@Test
+	@DisplayName("Should track dirty symbols separately for each reader")
+	void shouldTrackReadersIndependently() {
+		ConflatingDispatcher dispatcher = new ConflatingDispatcher();
+		ConflatingDispatcher.Reader fast = dispatcher.newReader();
+		dispatcher.accept(tick("AAPL", 1f));
+		ConflatingDispatcher.Reader late = dispatcher.newReader();
+
+		assertEquals(1, fast.drain(t -> {
+		}));
+		dispatcher.accept(tick("MSFT", 2f));
+
+		assertEquals(2, late.getDirtyCount());
+		assertEquals(1, late.drain(t -> {
+		}, 1));
+		assertEquals(1, late.getDirtyCount());
+		assertEquals(1, fast.drain(t -> assertEquals("MSFT", t.getId())));
+		assertEquals(2f, dispatcher.getLatest("MSFT").getPrice());
+		assertNull(dispatcher.getLatest("IBM"));
+	}
+
+	@Test
+	@DisplayName("Should queue each symbol once for a reader registered while ticks are flowing")
+	void shouldNotDuplicateSymbolsForReaderRegisteredDuringFeed() throws Exception {
+		String[] symbols = {"AAPL", "MSFT", "IBM", "AMZN"};
+		ConflatingDispatcher dispatcher = new ConflatingDispatcher();
+		AtomicBoolean feeding = new AtomicBoolean(true);
+		Thread feed = new Thread(() -> {
+			PricingTick tick = new PricingTick();
+			for (int i = 0; feeding.get(); i++) {
+				tick.setId(symbols[i % symbols.length]);
+				tick.setPrice(i);
+				dispatcher.accept(tick);
+			}
+		});
+		feed.start();
+
+		List<ConflatingDispatcher.Reader> readers = new ArrayList<>();
+		try {
+			while (dispatcher.getSymbolCount() < symbols.length) {
+				Thread.onSpinWait();
+			}
+			for (int i = 0; i < ConflatingDispatcher.MAX_READERS; i++) {
+				readers.add(dispatcher.newReader());
+				Thread.yield();
+			}
+		} finally {
+			feeding.set(false);
+			feed.join();
+		}
+
+		for (ConflatingDispatcher.Reader reader : readers) {
+			Set<String> drained = new HashSet<>();
+			assertEquals(symbols.length, reader.drain(t -> assertTrue(drained.add(t.getId()), "Duplicate " + t.getId())));
+			assertEquals(0, reader.getDirtyCount());
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package yahoofinance.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FeedMetrics Tests")
+class FeedMetricsTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	@DisplayName("Should count ticks and rates overall and per symbol")
+	void shouldCountTicks() {
+		FeedMetrics metrics = new FeedMetrics();
+		long twoSecondsAgo = System.nanoTime() - 2 * SECOND;
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 20; i++) {
+			metrics.record("AAPL", now - 150, FeedMetrics.REGULAR_MARKET, now, 2_000, twoSecondsAgo);
+		}
+		for (int i = 0; i < 10; i++) {
+			metrics.record("MSFT", now - 150, FeedMetrics.REGULAR_MARKET, now, 2_000, twoSecondsAgo);
+		}
+
+		FeedMetrics.Snapshot snapshot = metrics.snapshot();
+		assertEquals(30, snapshot.getTickCount());
+		assertEquals(3.0, snapshot.getTicksPerSecond(), 1e-9);
+
+		FeedMetrics.SymbolSnapshot aapl = snapshot.getSymbols().get("AAPL");
+		assertEquals(20, aapl.getTickCount());
+		assertEquals(2.0, aapl.getTicksPerSecond(), 1e-9);
+		assertTrue(aapl.getTimeSinceLastTick().compareTo(Duration.ofSeconds(2)) >= 0);
+		assertEquals(List.of("AAPL", "MSFT"),
+				snapshot.getBusiestSymbols(5).stream().map(FeedMetrics.SymbolSnapshot::getSymbol).toList());
+
+		FeedMetrics.HistogramSnapshot latency = snapshot.getReceiveLatency();
+		assertEquals(30, latency.getCount());
+		assertEquals(150, latency.getMax());
+		assertEquals(150, latency.getP50());
+		assertEquals(30, snapshot.getDecodeTime().getCount());
+	}
+
+	@Test
+	@DisplayName("Should report percentiles within the bucket precision")
+	void shouldComputePercentiles() {
+		FeedMetrics.Histogram histogram = new FeedMetrics.Histogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i);
+		}
+		FeedMetrics.HistogramSnapshot snapshot = histogram.snapshot();
+		assertEquals(1, snapshot.getMin());
+		assertEquals(1000, snapshot.getMax());
+		assertEquals(500.5, snapshot.getMean(), 1e-9);
+		assertEquals(500, snapshot.getP50(), 500 * 0.125);
+		assertEquals(990, snapshot.getP99(), 990 * 0.125);
+
+		for (long value : new long[]{0, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE}) {
+			int index = FeedMetrics.Histogram.index(value);
+			assertTrue(FeedMetrics.Histogram.upperBound(index) >= value);
+			assertTrue(index == 0 || FeedMetrics.Histogram.upperBound(index - 1) < value);
+		}
+	}
+
+	@Test
+	@DisplayName("Should report silent symbols once and only during market hours")
+	void shouldFindStaleSymbols() {
+		FeedMetrics metrics = new FeedMetrics();
+		long start = 1_000 * SECOND;
+		long threshold = 60 * SECOND;
+		metrics.track("NEVER", start);
+		metrics.record("AAPL", 1, FeedMetrics.REGULAR_MARKET, 1, 1, start);
+		metrics.record("POST", 1, 2, 1, 1, start);
+		metrics.record("BUSY", 1, FeedMetrics.REGULAR_MARKET, 1, 1, start + 50 * SECOND);
+		List<String> subscribed = List.of("NEVER", "AAPL", "POST", "BUSY");
+
+		assertTrue(metrics.findStale(subscribed, threshold, start + 30 * SECOND).isEmpty());
+
+		Map<String, Duration> stale = metrics.findStale(subscribed, threshold, start + 61 * SECOND);
+		assertEquals(Map.of("NEVER", Duration.ofSeconds(61), "AAPL", Duration.ofSeconds(61)), stale);
+		assertTrue(metrics.findStale(subscribed, threshold, start + 62 * SECOND).isEmpty());
+
+		metrics.record("AAPL", 1, FeedMetrics.REGULAR_MARKET, 1, 1, start + 70 * SECOND);
+		assertEquals(Map.of("AAPL", Duration.ofSeconds(61), "BUSY", Duration.ofSeconds(81)),
+				metrics.findStale(subscribed, threshold, start + 131 * SECOND));
+	}
+}
@@ -0,0 +1,76 @@
+package yahoofinance.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HashedWheelTimer Tests")
+class HashedWheelTimerTest {
+
+	private final HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8, null);
+
+	@AfterEach
+	void tearDown() {
+		timer.stop();
+	}
+
+	@Test
+	@DisplayName("Should run a timeout once after its delay, also beyond one wheel rotation")
+	void shouldRunTimeoutAfterDelay() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		long start = System.nanoTime();
+		HashedWheelTimer.Timeout timeout = timer.newTimeout(latch::countDown, 200, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+		assertTrue(timeout.isExpired());
+		assertEquals(1, timeout.getRunCount());
+		assertEquals(0, timer.getPendingTimeouts());
+	}
+
+	@Test
+	@DisplayName("Should not run cancelled timeouts")
+	void shouldNotRunCancelledTimeouts() throws InterruptedException {
+		AtomicInteger runs = new AtomicInteger();
+		HashedWheelTimer.Timeout timeout = timer.newTimeout(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+		assertEquals(1, timer.getPendingTimeouts());
+
+		assertTrue(timeout.cancel());
+		assertFalse(timeout.cancel());
+		assertEquals(0, timer.getPendingTimeouts());
+
+		Thread.sleep(150);
+		assertEquals(0, runs.get());
+		assertTrue(timeout.isCancelled());
+	}
+
+	@Test
+	@DisplayName("Should repeat periodic timeouts until cancelled")
+	void shouldRepeatPeriodicTimeouts() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(3);
+		HashedWheelTimer.Timeout timeout = timer.newPeriodicTimeout(latch::countDown, 0, 20, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		assertFalse(timeout.isExpired());
+		assertEquals(1, timer.getPendingTimeouts());
+
+		timeout.cancel();
+		long runs = timeout.getRunCount();
+		Thread.sleep(100);
+		assertEquals(runs, timeout.getRunCount());
+	}
+
+	@Test
+	@DisplayName("Should reject timeouts after stop")
+	void shouldRejectAfterStop() {
+		timer.stop();
+		assertThrows(IllegalStateException.class, () -> timer.newTimeout(() -> {
+		}, 1, TimeUnit.MILLISECONDS));
+	}
+}
@@ -0,0 +1,107 @@
+package yahoofinance.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.model.Pricing;
+import yahoofinance.model.PricingTick;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PricingDecoder Tests")
+class PricingDecoderTest {
+
+	private static final Pricing.PricingData DATA = Pricing.PricingData.newBuilder()
+			.setId("AAPL")
+			.setPrice(189.84f)
+			.setTime(1_718_000_000_000L)
+			.setCurrency("USD")
+			.setExchange("NMS")
+			.setQuoteType(8)
+			.setMarketHours(1)
+			.setChangePercent(-0.42f)
+			.setDayVolume(51_234_567L)
+			.setDayHigh(190.5f)
+			.setDayLow(188.1f)
+			.setChange(-0.8f)
+			.setShortName("Apple Inc.")
+			.setLastSize(-100L)
+			.setBid(189.8f)
+			.setBidSize(300L)
+			.setAsk(189.9f)
+			.setAskSize(200L)
+			.setPriceHint(2L)
+			.setMarketCap(2.9e12)
+			.build();
+
+	private static String envelope(Pricing.PricingData data) {
+		return "{\"type\":\"pricing\",\"message\":\"" + Base64.getEncoder().encodeToString(data.toByteArray()) + "\"}";
+	}
+
+	@Test
+	@DisplayName("Should decode the envelope into a tick equal to the protobuf message")
+	void shouldDecodeTick() throws Exception {
+		PricingDecoder decoder = new PricingDecoder();
+
+		assertTrue(decoder.decodeEnvelope(envelope(DATA)));
+		PricingTick tick = decoder.readTick();
+
+		assertEquals("AAPL", tick.getId());
+		assertEquals(189.84f, tick.getPrice());
+		assertEquals(1_718_000_000_000L, tick.getTime());
+		assertEquals(-100L, tick.getLastSize());
+		assertEquals(2.9e12, tick.getMarketCap());
+		assertEquals(DATA, tick.toPricingData());
+		assertEquals(DATA, decoder.readPricingData());
+	}
+
+	@Test
+	@DisplayName("Should reuse the tick and cached strings between messages")
+	void shouldReuseTickAndStrings() throws Exception {
+		PricingDecoder decoder = new PricingDecoder();
+		decoder.decodeEnvelope(envelope(DATA));
+		PricingTick first = decoder.readTick();
+		String id = first.getId();
+
+		decoder.decodeEnvelope(envelope(Pricing.PricingData.newBuilder().setId("AAPL").setPrice(190f).build()));
+		PricingTick second = decoder.readTick();
+
+		assertSame(first, second);
+		assertSame(id, second.getId());
+		assertEquals(190f, second.getPrice());
+		assertEquals("", second.getCurrency());
+		assertEquals(0L, second.getDayVolume());
+	}
+
+	@Test
+	@DisplayName("Should leave other messages to the JSON parser")
+	void shouldRejectNonPricingMessages() {
+		PricingDecoder decoder = new PricingDecoder();
+
+		assertFalse(decoder.decodeEnvelope("{\"type\":\"heartbeat\"}"));
+		assertFalse(decoder.decodeEnvelope("{\"type\":\"pricing\",\"message\":\"CgRB\\/UE=\"}"));
+		assertFalse(decoder.decodeEnvelope("{\"type\": \"pricing\", \"message\": \"CgRBQVBM\"}"));
+	}
+
+	@Test
+	@DisplayName("Should match the JDK base64 decoder")
+	void shouldMatchJdkBase64() throws Exception {
+		PricingDecoder decoder = new PricingDecoder();
+		for (int size = 0; size < 40; size++) {
+			byte[] bytes = new byte[size];
+			for (int i = 0; i < size; i++) {
+				bytes[i] = (byte) (i * 37 + size);
+			}
+			String text = Base64.getEncoder().encodeToString(bytes);
+			decoder.decodeBase64(text, 0, text.length());
+			assertEquals(size, decoder.getPayloadLength());
+		}
+
+		String text = Base64.getEncoder().encodeToString(DATA.toByteArray());
+		decoder.decodeBase64(text, 0, text.length());
+		assertThat(decoder.readPricingData()).isEqualTo(DATA);
+		assertThrows(IllegalArgumentException.class, () -> decoder.decodeBase64("not base64!", 0, 11));
+	}
+}
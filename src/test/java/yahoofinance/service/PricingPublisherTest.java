@@ -0,0 +1,164 @@
+package yahoofinance.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.model.Pricing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PricingPublisher Tests")
+class PricingPublisherTest {
+
+	private static Pricing.PricingData data(String id, float price) {
+		return Pricing.PricingData.newBuilder().setId(id).setPrice(price).build();
+	}
+
+	/** Delivers on the calling thread so the tests are deterministic. */
+	private static PricingPublisher publisher(int bufferSize, RingBufferDispatcher.OverflowPolicy policy) {
+		return new PricingPublisher(bufferSize, policy, Runnable::run);
+	}
+
+	private static final class RecordingSubscriber implements Flow.Subscriber<Pricing.PricingData> {
+		private final List<String> received = new ArrayList<>();
+		private Flow.Subscription subscription;
+		private Throwable error;
+		private boolean completed;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(Pricing.PricingData item) {
+			received.add(item.getId() + "@" + (int) item.getPrice());
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			this.error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			this.completed = true;
+		}
+	}
+
+	@Test
+	@DisplayName("Should only deliver requested messages")
+	void shouldHonourDemand() {
+		PricingPublisher publisher = publisher(16, RingBufferDispatcher.OverflowPolicy.DROP_OLDEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+		assertNotNull(subscriber.subscription);
+
+		subscriber.subscription.request(2);
+		for (int i = 1; i <= 5; i++) {
+			publisher.accept(data("AAPL", i));
+		}
+		assertEquals(List.of("AAPL@1", "AAPL@2"), subscriber.received);
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertEquals(List.of("AAPL@1", "AAPL@2", "AAPL@3", "AAPL@4", "AAPL@5"), subscriber.received);
+	}
+
+	@Test
+	@DisplayName("Should multicast to subscribers with their own symbol filters")
+	void shouldFilterPerSubscriber() {
+		PricingPublisher publisher = publisher(16, RingBufferDispatcher.OverflowPolicy.DROP_OLDEST);
+		RecordingSubscriber all = new RecordingSubscriber();
+		RecordingSubscriber msft = new RecordingSubscriber();
+		publisher.subscribe(all);
+		publisher.subscribe(msft, Set.of("MSFT"));
+		all.subscription.request(Long.MAX_VALUE);
+		msft.subscription.request(Long.MAX_VALUE);
+
+		publisher.accept(data("AAPL", 1));
+		publisher.accept(data("MSFT", 2));
+
+		assertEquals(List.of("AAPL@1", "MSFT@2"), all.received);
+		assertEquals(List.of("MSFT@2"), msft.received);
+		assertEquals(2, publisher.getSubscriberCount());
+	}
+
+	@Test
+	@DisplayName("Should drop the oldest messages of a subscriber that falls behind")
+	void shouldDropOldest() {
+		PricingPublisher publisher = publisher(2, RingBufferDispatcher.OverflowPolicy.DROP_OLDEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+
+		for (int i = 1; i <= 4; i++) {
+			publisher.accept(data("AAPL", i));
+		}
+		subscriber.subscription.request(10);
+
+		assertEquals(List.of("AAPL@3", "AAPL@4"), subscriber.received);
+		assertEquals(2, publisher.getDroppedCount());
+	}
+
+	@Test
+	@DisplayName("Should conflate pending messages of the same symbol when full")
+	void shouldConflate() {
+		PricingPublisher publisher = publisher(2, RingBufferDispatcher.OverflowPolicy.CONFLATE);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+
+		publisher.accept(data("AAPL", 1));
+		publisher.accept(data("MSFT", 1));
+		publisher.accept(data("AAPL", 2));
+		publisher.accept(data("MSFT", 2));
+		subscriber.subscription.request(10);
+
+		assertEquals(List.of("AAPL@2", "MSFT@2"), subscriber.received);
+		assertEquals(2, publisher.getDroppedCount());
+	}
+
+	@Test
+	@DisplayName("Should complete after the buffered messages on close")
+	void shouldCompleteOnClose() {
+		PricingPublisher publisher = publisher(16, RingBufferDispatcher.OverflowPolicy.DROP_OLDEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+		publisher.accept(data("AAPL", 1));
+
+		publisher.close();
+		publisher.accept(data("AAPL", 2));
+		assertFalse(subscriber.completed);
+
+		subscriber.subscription.request(10);
+		assertEquals(List.of("AAPL@1"), subscriber.received);
+		assertTrue(subscriber.completed);
+		assertEquals(0, publisher.getSubscriberCount());
+
+		RecordingSubscriber late = new RecordingSubscriber();
+		publisher.subscribe(late);
+		assertNotNull(late.subscription);
+		assertTrue(late.completed);
+	}
+
+	@Test
+	@DisplayName("Should signal an error for non-positive requests and stop after cancel")
+	void shouldRejectInvalidRequests() {
+		PricingPublisher publisher = publisher(16, RingBufferDispatcher.OverflowPolicy.DROP_OLDEST);
+		RecordingSubscriber invalid = new RecordingSubscriber();
+		RecordingSubscriber cancelled = new RecordingSubscriber();
+		publisher.subscribe(invalid);
+		publisher.subscribe(cancelled);
+
+		invalid.subscription.request(0);
+		assertInstanceOf(IllegalArgumentException.class, invalid.error);
+
+		cancelled.subscription.request(10);
+		cancelled.subscription.cancel();
+		publisher.accept(data("AAPL", 1));
+		assertTrue(cancelled.received.isEmpty());
+		assertEquals(0, publisher.getSubscriberCount());
+	}
+}
@@ -0,0 +1,130 @@
+package yahoofinance.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.model.PricingTick;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RingBufferDispatcher Tests")
+class RingBufferDispatcherTest {
+
+	private static PricingTick tick(String id, long time) {
+		PricingTick tick = new PricingTick();
+		tick.setId(id);
+		tick.setTime(time);
+		return tick;
+	}
+
+	@Test
+	@DisplayName("Should deliver every tick in order to every consumer")
+	void shouldBroadcastInOrder() throws InterruptedException {
+		List<Long> first = Collections.synchronizedList(new ArrayList<>());
+		List<Long> second = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch done = new CountDownLatch(2);
+		int count = 10_000;
+		List<Consumer<PricingTick>> consumers = List.of(
+				t -> {
+					first.add(t.getTime());
+					if (t.getTime() == count - 1) done.countDown();
+				},
+				t -> {
+					second.add(t.getTime());
+					if (t.getTime() == count - 1) done.countDown();
+				});
+
+		try (RingBufferDispatcher dispatcher = new RingBufferDispatcher(64, RingBufferDispatcher.WaitStrategy.YIELD,
+				RingBufferDispatcher.OverflowPolicy.BLOCK, consumers)) {
+			PricingTick tick = new PricingTick();
+			for (long i = 0; i < count; i++) {
+				tick.setTime(i);
+				dispatcher.accept(tick);
+			}
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+			assertEquals(0, dispatcher.getDroppedCount());
+		}
+
+		assertEquals(count, first.size());
+		assertEquals(first, second);
+		for (int i = 0; i < count; i++) {
+			assertEquals(i, first.get(i));
+		}
+	}
+
+	@Test
+	@DisplayName("Should skip overwritten ticks for a slow consumer with DROP_OLDEST")
+	void shouldDropOldestForSlowConsumer() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		List<Long> received = Collections.synchronizedList(new ArrayList<>());
+		Consumer<PricingTick> slow = t -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			received.add(t.getTime());
+		};
+
+		RingBufferDispatcher dispatcher = new RingBufferDispatcher(8, RingBufferDispatcher.WaitStrategy.PARK,
+				RingBufferDispatcher.OverflowPolicy.DROP_OLDEST, List.of(slow));
+		dispatcher.accept(tick("AAPL", 0));
+		while (dispatcher.getBacklog() > 0) {
+			Thread.onSpinWait();
+		}
+		for (long i = 1; i <= 100; i++) {
+			dispatcher.accept(tick("AAPL", i));
+		}
+		release.countDown();
+		dispatcher.close();
+
+		assertEquals(0L, received.get(0));
+		assertEquals(100L, received.get(received.size() - 1));
+		assertTrue(received.size() <= 1 + dispatcher.getCapacity());
+		assertEquals(101 - received.size(), dispatcher.getDroppedCount());
+	}
+
+	@Test
+	@DisplayName("Should keep the latest tick per symbol while the ring is full with CONFLATE")
+	void shouldConflateWhileFull() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> received = Collections.synchronizedList(new ArrayList<>());
+		Consumer<PricingTick> slow = t -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			received.add(t.getId() + "@" + t.getTime());
+		};
+
+		RingBufferDispatcher dispatcher = new RingBufferDispatcher(2, RingBufferDispatcher.WaitStrategy.PARK,
+				RingBufferDispatcher.OverflowPolicy.CONFLATE, List.of(slow));
+		dispatcher.accept(tick("AAPL", 1));
+		while (dispatcher.getBacklog() > 0) {
+			Thread.onSpinWait();
+		}
+		dispatcher.accept(tick("MSFT", 1));
+		dispatcher.accept(tick("AAPL", 2));
+		dispatcher.accept(tick("MSFT", 2));
+		dispatcher.accept(tick("AAPL", 3));
+		dispatcher.accept(tick("AAPL", 4));
+		assertEquals(1, dispatcher.getConflatedCount());
+
+		release.countDown();
+		while (dispatcher.getBacklog() > 0) {
+			Thread.onSpinWait();
+		}
+		dispatcher.flushPending();
+		dispatcher.close();
+
+		assertEquals(List.of("AAPL@1", "MSFT@1", "AAPL@2", "MSFT@2", "AAPL@4"), received);
+		assertEquals(0, dispatcher.getDroppedCount());
+	}
+}
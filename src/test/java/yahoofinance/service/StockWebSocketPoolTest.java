@@ -0,0 +1,84 @@
+package yahoofinance.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StockWebSocketPool Tests")
+class StockWebSocketPoolTest {
+
+	/**
+	 * Records the subscription messages instead of sending them.
+	 */
+	private static class RecordingSocket extends StockWebSocket {
+		private final Set<String> subscribed = new LinkedHashSet<>();
+
+		@Override
+		public void subscribe(List<String> tickers) {
+			subscribed.addAll(tickers);
+		}
+
+		@Override
+		public void unsubscribe(List<String> tickers) {
+			tickers.forEach(subscribed::remove);
+		}
+	}
+
+	private static List<String> symbols(int count) {
+		return IntStream.range(0, count).mapToObj(i -> "SYM" + i).toList();
+	}
+
+	@Test
+	@DisplayName("Should spread symbols over all connections")
+	void shouldSpreadSymbols() {
+		List<RecordingSocket> sockets = new ArrayList<>();
+		StockWebSocketPool pool = new StockWebSocketPool(4, 0.25, () -> {
+			RecordingSocket socket = new RecordingSocket();
+			sockets.add(socket);
+			return socket;
+		});
+
+		pool.subscribe(symbols(1000));
+
+		int[] sizes = pool.getShardSizes();
+		assertEquals(1000, Arrays.stream(sizes).sum());
+		assertThat(Arrays.stream(sizes).max().getAsInt()).isLessThanOrEqualTo(313);
+		for (int i = 0; i < sockets.size(); i++) {
+			assertEquals(sizes[i], sockets.get(i).subscribed.size());
+		}
+		assertEquals(pool.getShard("SYM1"), pool.getShard("SYM1"));
+		assertEquals(-1, pool.getShard("IBM"));
+	}
+
+	@Test
+	@DisplayName("Should rebalance when unsubscribing skews the connections")
+	void shouldRebalanceAfterUnsubscribe() {
+		List<RecordingSocket> sockets = new ArrayList<>();
+		StockWebSocketPool pool = new StockWebSocketPool(2, 0.25, () -> {
+			RecordingSocket socket = new RecordingSocket();
+			sockets.add(socket);
+			return socket;
+		});
+		pool.subscribe(symbols(200));
+
+		List<String> firstShard = new ArrayList<>(sockets.get(0).subscribed);
+		pool.unsubscribe(firstShard.subList(0, firstShard.size() - 10));
+
+		int[] sizes = pool.getShardSizes();
+		int total = sizes[0] + sizes[1];
+		assertThat(Math.max(sizes[0], sizes[1])).isLessThanOrEqualTo((int) Math.ceil(total / 2.0 * 1.25));
+		assertThat(Math.min(sizes[0], sizes[1])).isGreaterThan(10);
+		assertEquals(sizes[0], sockets.get(0).subscribed.size());
+		assertEquals(sizes[1], sockets.get(1).subscribed.size());
+		assertEquals(0, pool.rebalance());
+	}
+}
@@ -5,14 +5,26 @@ import org.junit.jupiter.api.*;
 import yahoofinance.YFinance;
 import yahoofinance.model.Pricing;
 
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 @Slf4j
 @DisplayName("StockWebSocket Tests")
@@ -280,7 +292,7 @@ class StockWebSocketTest {
 		void testGetters() {
 			assertThat(stockWebSocket.getContainer()).isNotNull();
 			assertThat(stockWebSocket.getWebSocketSession()).isNull();
-			assertThat(stockWebSocket.getHeartbeatExecutor()).isNotNull();
+			assertThat(stockWebSocket.getTimer()).isSameAs(HashedWheelTimer.shared());
 			assertThat(stockWebSocket.getMessageConsumer()).isNull();
 			assertThat(stockWebSocket.getEndpoint()).isNull();
 
@@ -357,6 +369,163 @@ class StockWebSocketTest {
 		}
 	}
 
+	@Nested
+	@DisplayName("Reconnect Tests")
+	class ReconnectTests {
+
+		@Test
+		@DisplayName("Should grow the reconnect delay exponentially up to the maximum")
+		void testReconnectDelay() {
+			Duration initial = Duration.ofMillis(500);
+			Duration max = Duration.ofSeconds(30);
+
+			for (int i = 0; i < 100; i++) {
+				assertThat(StockWebSocket.reconnectDelay(1, initial, max).toMillis()).isBetween(250L, 500L);
+				assertThat(StockWebSocket.reconnectDelay(3, initial, max).toMillis()).isBetween(1000L, 2000L);
+				assertThat(StockWebSocket.reconnectDelay(50, initial, max).toMillis()).isBetween(15000L, 30000L);
+			}
+		}
+
+		@Test
+		@DisplayName("Should start without subscriptions or reconnects")
+		void testInitialReconnectState() {
+			assertThat(stockWebSocket.isAutoReconnect()).isTrue();
+			assertThat(stockWebSocket.getSubscriptions()).isEmpty();
+			assertThat(stockWebSocket.getReconnectCount()).isZero();
+			assertThat(stockWebSocket.getCurrentGapDuration()).isEqualTo(Duration.ZERO);
+			assertThat(stockWebSocket.getTotalGapDuration()).isEqualTo(Duration.ZERO);
+		}
+	}
+
+	@Nested
+	@DisplayName("Subscription Management Tests")
+	class SubscriptionManagementTests {
+
+		private final List<String> frames = new ArrayList<>();
+		private final List<SendHandler> handlers = new ArrayList<>();
+
+		@BeforeEach
+		void connectMockSession() {
+			Session session = mock(Session.class);
+			RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+			when(session.isOpen()).thenReturn(true);
+			when(session.getAsyncRemote()).thenReturn(remote);
+			doAnswer(invocation -> {
+				frames.add(invocation.getArgument(0));
+				handlers.add(invocation.getArgument(1));
+				return null;
+			}).when(remote).sendText(anyString(), any(SendHandler.class));
+			stockWebSocket.setWebSocketSession(session);
+		}
+
+		private void completeSend() {
+			handlers.remove(0).onResult(new SendResult());
+		}
+
+		@Test
+		@DisplayName("Should only send the difference to the current subscriptions")
+		void testSetSubscriptionsDiff() {
+			stockWebSocket.setSubscriptions(new LinkedHashSet<>(List.of("AAPL", "MSFT")));
+			assertThat(frames).containsExactly("{\"subscribe\":[\"AAPL\",\"MSFT\"]}");
+			completeSend();
+
+			stockWebSocket.setSubscriptions(Set.of("MSFT", "TSLA"));
+			assertThat(frames).hasSize(2).last().isEqualTo("{\"unsubscribe\":[\"AAPL\"]}");
+			completeSend();
+			assertThat(frames).hasSize(3).last().isEqualTo("{\"subscribe\":[\"TSLA\"]}");
+			completeSend();
+
+			stockWebSocket.setSubscriptions(Set.of("MSFT", "TSLA"));
+			assertThat(frames).hasSize(3);
+			assertThat(stockWebSocket.getSubscriptions()).containsExactlyInAnyOrder("MSFT", "TSLA");
+		}
+
+		@Test
+		@DisplayName("Should coalesce changes made while a frame is in flight")
+		void testCoalescing() {
+			stockWebSocket.setSubscriptions(Set.of("AAPL"));
+			stockWebSocket.setSubscriptions(Set.of("AAPL", "MSFT"));
+			stockWebSocket.setSubscriptions(Set.of("MSFT", "TSLA"));
+			stockWebSocket.setSubscriptions(Set.of("TSLA"));
+			assertThat(frames).hasSize(1);
+
+			completeSend();
+			assertThat(frames).hasSize(2).last().isEqualTo("{\"unsubscribe\":[\"AAPL\"]}");
+			completeSend();
+			assertThat(frames).hasSize(3).last().isEqualTo("{\"subscribe\":[\"TSLA\"]}");
+			completeSend();
+			assertThat(frames).hasSize(3);
+		}
+
+		@Test
+		@DisplayName("Should split large changes into size bounded frames")
+		void testFrameSize() {
+			stockWebSocket.setMaxSubscriptionFrameSize(40);
+			Set<String> tickers = new LinkedHashSet<>();
+			for (int i = 0; i < 10; i++) {
+				tickers.add("SYM" + i);
+			}
+			stockWebSocket.setSubscriptions(tickers);
+			while (!handlers.isEmpty()) {
+				completeSend();
+			}
+
+			assertThat(frames).hasSizeGreaterThan(1);
+			assertThat(frames).allSatisfy(frame -> assertThat(frame.length()).isLessThanOrEqualTo(40));
+			assertThat(String.join("", frames)).contains(tickers);
+		}
+
+		@Test
+		@DisplayName("Should resend the tickers of a failed frame unless superseded")
+		void testFailedFrameIsRetried() {
+			stockWebSocket.setReconnectInitialDelay(Duration.ofMillis(10));
+			stockWebSocket.setReconnectMaxDelay(Duration.ofMillis(20));
+			stockWebSocket.setSubscriptions(new LinkedHashSet<>(List.of("AAPL", "MSFT")));
+			stockWebSocket.setSubscriptions(Set.of("AAPL"));
+			assertThat(frames).containsExactly("{\"subscribe\":[\"AAPL\",\"MSFT\"]}");
+
+			handlers.remove(0).onResult(new SendResult(new IOException("broken pipe")));
+
+			await(() -> frames.size() == 2);
+			assertThat(frames.get(1)).isEqualTo("{\"subscribe\":[\"AAPL\"]}");
+			completeSend();
+			assertThat(frames).hasSize(2);
+		}
+
+		@Test
+		@DisplayName("Should ignore the completion of a frame sent on a replaced session")
+		void testStaleSessionCompletionIgnored() {
+			stockWebSocket.setSubscriptions(Set.of("AAPL"));
+			SendHandler stale = handlers.remove(0);
+
+			List<String> newFrames = new ArrayList<>();
+			Session next = mock(Session.class);
+			RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+			when(next.isOpen()).thenReturn(true);
+			when(next.getAsyncRemote()).thenReturn(remote);
+			doAnswer(invocation -> {
+				newFrames.add(invocation.getArgument(0));
+				return null;
+			}).when(remote).sendText(anyString(), any(SendHandler.class));
+			stockWebSocket.listen(data -> {
+			});
+			stockWebSocket.getEndpoint().onOpen(next, null);
+			assertThat(newFrames).containsExactly("{\"subscribe\":[\"AAPL\"]}");
+
+			stockWebSocket.setSubscriptions(Set.of("AAPL", "MSFT"));
+			stale.onResult(new SendResult());
+			assertThat(newFrames).hasSize(1);
+		}
+
+		private void await(java.util.function.BooleanSupplier condition) {
+			long deadline = System.nanoTime() + 5_000_000_000L;
+			while (!condition.getAsBoolean()) {
+				assertThat(System.nanoTime()).isLessThan(deadline);
+				Thread.onSpinWait();
+			}
+		}
+	}
+
 	@Nested
 	@DisplayName("Error Handling Tests")
 	class ErrorHandlingTests {
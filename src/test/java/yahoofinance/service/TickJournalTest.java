@@ -0,0 +1,122 @@
+package yahoofinance.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import yahoofinance.model.Pricing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TickJournal Tests")
+class TickJournalTest {
+
+	@TempDir
+	Path directory;
+
+	private static Pricing.PricingData data(String id, float price) {
+		return Pricing.PricingData.newBuilder().setId(id).setPrice(price).setTime(1_718_000_000_000L).build();
+	}
+
+	@Test
+	@DisplayName("Should replay recorded messages in order after reopening")
+	void shouldReplayRecordedMessages() throws IOException {
+		Path file = directory.resolve("session.journal");
+		try (TickJournal journal = TickJournal.open(file)) {
+			journal.append(data("AAPL", 1f), 1000);
+			journal.append(data("MSFT", 2f), 1001);
+		}
+		try (TickJournal journal = TickJournal.open(file)) {
+			assertEquals(2, journal.getRecordCount());
+			journal.append(data("AAPL", 3f), 1002);
+		}
+
+		List<Pricing.PricingData> replayed = new ArrayList<>();
+		long count = new TickJournalReplayer(file, TickJournalReplayer.Pace.AS_FAST_AS_POSSIBLE).replay(replayed::add);
+
+		assertEquals(3, count);
+		assertEquals(List.of(data("AAPL", 1f), data("MSFT", 2f), data("AAPL", 3f)), replayed);
+
+		List<String> ticks = new ArrayList<>();
+		new TickJournalReplayer(file, TickJournalReplayer.Pace.AS_FAST_AS_POSSIBLE)
+				.replayTicks(tick -> ticks.add(tick.getId() + "=" + tick.getPrice()));
+		assertEquals(List.of("AAPL=1.0", "MSFT=2.0", "AAPL=3.0"), ticks);
+	}
+
+	@Test
+	@DisplayName("Should keep the original spacing when replaying in real time")
+	void shouldReplayInRealTime() throws IOException {
+		Path file = directory.resolve("paced.journal");
+		try (TickJournal journal = TickJournal.open(file)) {
+			journal.append(data("AAPL", 1f), 5_000);
+			journal.append(data("AAPL", 2f), 5_150);
+		}
+
+		long start = System.nanoTime();
+		new TickJournalReplayer(file, TickJournalReplayer.Pace.REAL_TIME).replay(data -> {
+		});
+		assertTrue(System.nanoTime() - start >= 150_000_000L);
+	}
+
+	@Test
+	@DisplayName("Should grow beyond the initial mapping")
+	void shouldGrowMapping() throws IOException {
+		Path file = directory.resolve("large.journal");
+		byte[] payload = new byte[4096];
+		try (TickJournal journal = TickJournal.open(file)) {
+			for (int i = 0; i < 600; i++) {
+				journal.append(payload, 0, payload.length, i);
+			}
+			assertEquals(600, journal.getRecordCount());
+			assertTrue(journal.getSize() > 1 << 21);
+		}
+	}
+
+	@Test
+	@DisplayName("Should reject appends after closing")
+	void shouldRejectAppendAfterClose() throws IOException {
+		TickJournal journal = TickJournal.open(directory.resolve("closed.journal"));
+		journal.close();
+
+		assertThrows(ClosedChannelException.class, () -> journal.append(data("AAPL", 1f), 1000));
+		journal.force();
+		journal.close();
+	}
+
+	@Test
+	@DisplayName("Should fail replay of corrupted records with an IOException")
+	void shouldRejectCorruptedRecords() throws IOException {
+		Path file = directory.resolve("corrupt.journal");
+		try (TickJournal journal = TickJournal.open(file)) {
+			journal.append(data("AAPL", 1f), 1000);
+		}
+		TickJournalReplayer replayer = new TickJournalReplayer(file, TickJournalReplayer.Pace.AS_FAST_AS_POSSIBLE);
+
+		overwrite(file, TickJournal.HEADER_SIZE, littleEndian(Integer.BYTES).putInt(0, Integer.MAX_VALUE));
+		IOException length = assertThrows(IOException.class, () -> replayer.replay(data -> fail("Corrupted record")));
+		assertTrue(length.getMessage().contains("invalid record length"));
+
+		overwrite(file, TickJournal.END_OFFSET, littleEndian(Long.BYTES).putLong(0, Long.MAX_VALUE));
+		IOException end = assertThrows(IOException.class, () -> replayer.replay(data -> fail("Corrupted record")));
+		assertTrue(end.getMessage().contains("invalid end"));
+	}
+
+	private static void overwrite(Path file, long position, ByteBuffer bytes) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.write(bytes, position);
+		}
+	}
+
+	private static ByteBuffer littleEndian(int size) {
+		return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
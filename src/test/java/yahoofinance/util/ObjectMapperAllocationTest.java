@@ -0,0 +1,77 @@
+package yahoofinance.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the bytes allocated per parsed response by a mapper created per request (the former
+ * {@code QuoteRequest} behaviour) and by the shared {@link Utils#getObjectReader()}. Only reports the numbers, run
+ * it with {@code mvn test -Dtest=ObjectMapperAllocationTest -Dbenchmark=true}.
+ */
+@Slf4j
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("ObjectMapper allocation benchmark")
+class ObjectMapperAllocationTest {
+
+	private static final int WARMUP = 2_000;
+	private static final int ITERATIONS = 10_000;
+	private static final byte[] RESPONSE = ("{\"quoteSummary\":{\"result\":[{\"price\":{\"symbol\":\"AAPL\","
+	                                        + "\"regularMarketPrice\":{\"raw\":189.84,\"fmt\":\"189.84\"},"
+	                                        + "\"currency\":\"USD\",\"exchangeName\":\"NasdaqGS\"}}],\"error\":null}}")
+			.getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	@DisplayName("Should report the bytes allocated per request by a new mapper and by the shared reader")
+	void reportAllocationPerRequest() throws IOException {
+		com.sun.management.ThreadMXBean threads = threadBean();
+
+		run(WARMUP, true);
+		run(WARMUP, false);
+
+		long perRequestMapper = allocatedPerRequest(threads, false);
+		long sharedReader = allocatedPerRequest(threads, true);
+		log.info("Allocated per request: new ObjectMapper {} bytes, shared ObjectReader {} bytes",
+				perRequestMapper, sharedReader);
+	}
+
+	private static long allocatedPerRequest(com.sun.management.ThreadMXBean threads, boolean shared) throws IOException {
+		long threadId = Thread.currentThread().threadId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		run(ITERATIONS, shared);
+		return (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+	}
+
+	private static void run(int iterations, boolean shared) throws IOException {
+		for (int i = 0; i < iterations; i++) {
+			try (InputStream body = new ByteArrayInputStream(RESPONSE)) {
+				JsonNode node = shared ? Utils.getObjectReader().readTree(body) : new ObjectMapper().readTree(body);
+				assertNotNull(node.get("quoteSummary"));
+			}
+		}
+	}
+
+	private static com.sun.management.ThreadMXBean threadBean() {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+		    || !threads.isThreadAllocatedMemorySupported()) {
+			Assumptions.abort("Thread allocation accounting is not supported by this JVM");
+			return null;
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+		return threads;
+	}
+}
@@ -0,0 +1,86 @@
+package yahoofinance.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.exception.YFinanceException;
+import yahoofinance.requests.QuoteRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Shared ObjectMapper Tests")
+class ObjectMapperTest {
+
+	@AfterEach
+	void restoreMapper() {
+		Utils.setObjectMapper(Utils.createObjectMapper());
+	}
+
+	@Test
+	@DisplayName("Should read responses with the mapper set through setObjectMapper")
+	void shouldReadResponsesWithConfiguredMapper() throws Exception {
+		JsonNode before = new TestRequest().execute();
+		assertFalse(before.get("price").isBigDecimal());
+
+		ObjectMapper mapper = Utils.createObjectMapper().copy()
+				.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+		Utils.setObjectMapper(mapper);
+
+		assertSame(mapper, Utils.getObjectMapper());
+		assertTrue(Utils.getObjectReader().isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS));
+		JsonNode after = new TestRequest().execute();
+		assertTrue(after.get("price").isBigDecimal());
+	}
+
+	@Test
+	@DisplayName("Should reject a null mapper")
+	void shouldRejectNullMapper() {
+		ObjectMapper current = Utils.getObjectMapper();
+		assertThrows(IllegalArgumentException.class, () -> Utils.setObjectMapper(null));
+		assertSame(current, Utils.getObjectMapper());
+	}
+
+	private static final class TestRequest extends QuoteRequest<JsonNode> {
+
+		@Override
+		public String getURL() {
+			return "https://query1.finance.yahoo.com/mapper-test";
+		}
+
+		@Override
+		protected boolean requiresSymbol() {
+			return false;
+		}
+
+		@Override
+		protected boolean extractResultNode() {
+			return false;
+		}
+
+		@Override
+		public JsonNode parseJson(JsonNode node) {
+			return node;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected HttpResponse<InputStream> sendRequest(URI uri) throws YFinanceException {
+			HttpResponse<InputStream> response = mock(HttpResponse.class);
+			when(response.statusCode()).thenReturn(200);
+			when(response.body()).thenReturn(new ByteArrayInputStream(
+					"{\"price\":189.84}".getBytes(StandardCharsets.UTF_8)));
+			return response;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package yahoofinance.web;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HttpTransport retry Tests")
+class HttpTransportRetryTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private HttpServer server;
+	private final Deque<Integer> statuses = new ArrayDeque<>();
+	private final AtomicInteger requests = new AtomicInteger();
+	private URI uri;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			requests.incrementAndGet();
+			Integer status;
+			synchronized (statuses) {
+				status = statuses.isEmpty() ? 200 : statuses.poll();
+			}
+			if (status == 429) {
+				exchange.getResponseHeaders().add("Retry-After", "0");
+			}
+			byte[] body = ("{\"status\":" + status + "}").getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/quote");
+		HttpTransport.setRetryDelays(Duration.ofMillis(1), Duration.ofMillis(20));
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.stop(0);
+		HttpTransport.setRetryDelays(Duration.ofMillis(500), Duration.ofSeconds(30));
+		HttpTransport.setMaxRetries(3);
+	}
+
+	@Test
+	@DisplayName("Should retry throttled and unavailable responses until one succeeds")
+	void shouldRetryUntilSuccess() throws Exception {
+		statuses.add(429);
+		statuses.add(503);
+		RateLimiter limiter = HttpTransport.getRateLimiter("127.0.0.1");
+		long throttled = limiter.getThrottledCount();
+
+		HttpResponse<InputStream> response = HttpTransport.send(uri, false, TIMEOUT, 0);
+		try (InputStream body = response.body()) {
+			assertEquals(200, response.statusCode());
+			assertEquals("{\"status\":200}", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+		}
+		assertEquals(3, requests.get());
+		assertEquals(throttled + 1, limiter.getThrottledCount());
+	}
+
+	@Test
+	@DisplayName("Should return the last response once retries are exhausted")
+	void shouldGiveUpAfterMaxRetries() throws Exception {
+		HttpTransport.setMaxRetries(1);
+		statuses.add(502);
+		statuses.add(502);
+		statuses.add(502);
+
+		HttpResponse<InputStream> response = HttpTransport.send(uri, false, TIMEOUT, 0);
+		response.body().close();
+
+		assertEquals(502, response.statusCode());
+		assertEquals(2, requests.get());
+	}
+
+	@Test
+	@DisplayName("Should not retry client errors")
+	void shouldNotRetryClientErrors() throws Exception {
+		statuses.add(404);
+
+		HttpResponse<InputStream> response = HttpTransport.send(uri, false, TIMEOUT, 0);
+		response.body().close();
+
+		assertEquals(404, response.statusCode());
+		assertEquals(1, requests.get());
+	}
+
+	@Test
+	@DisplayName("Should retry asynchronous requests")
+	void shouldRetryAsync() throws Exception {
+		statuses.add(429);
+		statuses.add(500);
+
+		HttpResponse<byte[]> response = HttpTransport.sendAsync(uri, false, TIMEOUT, 0, ForkJoinPool.commonPool())
+				.get(5, TimeUnit.SECONDS);
+
+		assertEquals(200, response.statusCode());
+		assertEquals(3, requests.get());
+	}
+}
@@ -0,0 +1,104 @@
+package yahoofinance.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RateLimiter Tests")
+class RateLimiterTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	@DisplayName("Should let the burst pass and then space requests at the rate")
+	void shouldSpaceRequestsAfterBurst() {
+		ManualClock clock = new ManualClock();
+		RateLimiter limiter = new RateLimiter("test", 10, 3, clock);
+
+		assertEquals(0, limiter.reserve());
+		assertEquals(0, limiter.reserve());
+		assertEquals(0, limiter.reserve());
+		assertEquals(SECOND / 10, limiter.reserve());
+		assertEquals(2 * SECOND / 10, limiter.reserve());
+
+		clock.now += SECOND;
+		assertEquals(0, limiter.reserve());
+	}
+
+	@Test
+	@DisplayName("Should not save up more than the burst while idle")
+	void shouldCapTokensAtBurst() {
+		ManualClock clock = new ManualClock();
+		RateLimiter limiter = new RateLimiter("test", 10, 2, clock);
+		clock.now += 60 * SECOND;
+
+		assertEquals(0, limiter.reserve());
+		assertEquals(0, limiter.reserve());
+		assertEquals(SECOND / 10, limiter.reserve());
+	}
+
+	@Test
+	@DisplayName("Should halve the rate and pause for Retry-After when throttled")
+	void shouldSlowDownWhenThrottled() {
+		RateLimiter limiter = new RateLimiter("test", 10, 5, new ManualClock());
+
+		limiter.onThrottled(Duration.ofSeconds(2));
+
+		assertEquals(5, limiter.getRate(), 1e-9);
+		assertEquals(1, limiter.getThrottledCount());
+		assertEquals(2 * SECOND + SECOND / 5, limiter.reserve());
+	}
+
+	@Test
+	@DisplayName("Should not drop below the minimum rate and recover on success")
+	void shouldRecoverAfterThrottling() {
+		RateLimiter limiter = new RateLimiter("test", 10, 5, new ManualClock());
+		for (int i = 0; i < 10; i++) {
+			limiter.onThrottled(null);
+		}
+		assertEquals(RateLimiter.DEFAULT_MIN_RATE, limiter.getRate(), 1e-9);
+
+		for (int i = 0; i < 10; i++) {
+			limiter.onSuccess();
+		}
+		assertEquals(RateLimiter.DEFAULT_MIN_RATE + 2, limiter.getRate(), 1e-9);
+
+		for (int i = 0; i < 100; i++) {
+			limiter.onSuccess();
+		}
+		assertEquals(10, limiter.getRate(), 1e-9);
+	}
+
+	@Test
+	@DisplayName("Should parse Retry-After in seconds and as HTTP date")
+	void shouldParseRetryAfter() {
+		assertEquals(Duration.ofSeconds(120), RateLimiter.parseRetryAfter(" 120 "));
+		assertEquals(Duration.ZERO, RateLimiter.parseRetryAfter("-5"));
+		assertNull(RateLimiter.parseRetryAfter(null));
+		assertNull(RateLimiter.parseRetryAfter("soon"));
+
+		String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(30));
+		Duration delay = RateLimiter.parseRetryAfter(date);
+		assertNotNull(delay);
+		assertTrue(delay.compareTo(Duration.ofSeconds(25)) > 0 && delay.compareTo(Duration.ofSeconds(31)) < 0);
+
+		String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().minusHours(1));
+		assertEquals(Duration.ZERO, RateLimiter.parseRetryAfter(past));
+	}
+
+	private static final class ManualClock implements LongSupplier {
+		private long now;
+
+		@Override
+		public long getAsLong() {
+			return now;
+		}
+	}
+}
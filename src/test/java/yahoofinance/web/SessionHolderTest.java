@@ -0,0 +1,198 @@
+package yahoofinance.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.exception.CookieException;
+import yahoofinance.exception.CrumbException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SessionHolder Tests")
+class SessionHolderTest {
+
+	private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+	private final Queue<Runnable> tasks = new ArrayDeque<>();
+	private final AtomicInteger fetches = new AtomicInteger();
+	private volatile boolean failing;
+	private ManualSessionHolder holder;
+
+	@BeforeEach
+	void setUp() {
+		holder = new ManualSessionHolder();
+		holder.setLifetime(Duration.ofHours(24), Duration.ofHours(1));
+	}
+
+	@Test
+	@DisplayName("Should fetch the first session and reuse it")
+	void shouldFetchFirstSession() throws Exception {
+		CompletableFuture<Session> first = CompletableFuture.supplyAsync(this::getQuietly);
+		CompletableFuture<Session> second = CompletableFuture.supplyAsync(this::getQuietly);
+		awaitTasks(1);
+		runTasks();
+
+		Session session = first.get(5, TimeUnit.SECONDS);
+		assertSame(session, second.get(5, TimeUnit.SECONDS));
+		assertSame(session, holder.get());
+		assertEquals("A3=1", session.getCookie());
+		assertEquals("crumb-1", session.getCrumb());
+		assertEquals(1, fetches.get());
+	}
+
+	@Test
+	@DisplayName("Should refresh in the background before expiry and keep serving the old session")
+	void shouldRefreshAhead() throws Exception {
+		Session old = fetchFirst();
+
+		holder.now += 23 * HOUR + 1;
+		assertSame(old, holder.get());
+		assertSame(old, holder.get());
+		assertEquals(1, tasks.size(), "one refresh for any number of callers");
+
+		runTasks();
+		Session fresh = holder.get();
+		assertNotSame(old, fresh);
+		assertEquals("crumb-2", fresh.getCrumb());
+		assertTrue(tasks.isEmpty());
+	}
+
+	@Test
+	@DisplayName("Should keep the old session and back off when the background refresh fails")
+	void shouldBackOffAfterFailedRefresh() throws Exception {
+		Session old = fetchFirst();
+		failing = true;
+
+		holder.now += 23 * HOUR + 1;
+		assertSame(old, holder.get());
+		runTasks();
+
+		Session current = holder.get();
+		assertEquals("crumb-1", current.getCrumb());
+		assertTrue(tasks.isEmpty(), "no refresh until the retry delay passed");
+
+		holder.now += SessionHolder.REFRESH_RETRY_DELAY.toNanos();
+		holder.get();
+		assertEquals(1, tasks.size());
+	}
+
+	@Test
+	@DisplayName("Should fetch a new session when the current one has expired")
+	void shouldFetchAfterExpiry() throws Exception {
+		fetchFirst();
+		holder.now += 24 * HOUR;
+
+		CompletableFuture<Session> next = CompletableFuture.supplyAsync(this::getQuietly);
+		awaitTasks(1);
+		runTasks();
+
+		assertEquals("crumb-2", next.get(5, TimeUnit.SECONDS).getCrumb());
+	}
+
+	@Test
+	@DisplayName("Should invalidate only the rejected session")
+	void shouldInvalidateRejectedSession() throws Exception {
+		Session rejected = fetchFirst();
+		holder.invalidate(rejected);
+		assertNull(holder.peek());
+
+		CompletableFuture<Session> next = CompletableFuture.supplyAsync(this::getQuietly);
+		awaitTasks(1);
+		runTasks();
+		Session fresh = next.get(5, TimeUnit.SECONDS);
+
+		holder.invalidate(rejected);
+		assertSame(fresh, holder.peek(), "a late 401 of the old session must not drop the new one");
+	}
+
+	@Test
+	@DisplayName("Should propagate fetch failures to waiting callers")
+	void shouldPropagateFailure() throws Exception {
+		failing = true;
+		CompletableFuture<Session> first = CompletableFuture.supplyAsync(this::getQuietly);
+		awaitTasks(1);
+		runTasks();
+
+		Exception e = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(CookieException.class, e.getCause().getCause());
+		assertNull(holder.peek());
+	}
+
+	private Session fetchFirst() throws Exception {
+		CompletableFuture<Session> first = CompletableFuture.supplyAsync(this::getQuietly);
+		awaitTasks(1);
+		runTasks();
+		return first.get(5, TimeUnit.SECONDS);
+	}
+
+	private Session getQuietly() {
+		try {
+			return holder.get();
+		} catch (CookieException | CrumbException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void awaitTasks(int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (true) {
+			synchronized (tasks) {
+				if (tasks.size() >= count) {
+					return;
+				}
+			}
+			assertTrue(System.currentTimeMillis() < deadline, "refresh was not scheduled");
+			Thread.sleep(5);
+		}
+	}
+
+	private void runTasks() {
+		Runnable task;
+		while (true) {
+			synchronized (tasks) {
+				task = tasks.poll();
+			}
+			if (task == null) {
+				return;
+			}
+			task.run();
+		}
+	}
+
+	private class ManualSessionHolder extends SessionHolder {
+		private volatile long now = 1;
+
+		private ManualSessionHolder() {
+			super("test", new Fetcher() {
+				@Override
+				public String fetchCookie() throws CookieException {
+					if (failing) {
+						throw new CookieException("Yahoo unavailable");
+					}
+					return "A3=" + fetches.incrementAndGet();
+				}
+
+				@Override
+				public String fetchCrumb(String cookie) {
+					return "crumb-" + fetches.get();
+				}
+			}, task -> {
+				synchronized (tasks) {
+					tasks.add(task);
+				}
+			});
+		}
+
+		@Override
+		protected long nanoTime() {
+			return now;
+		}
+	}
+}
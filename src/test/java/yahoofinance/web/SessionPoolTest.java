@@ -0,0 +1,266 @@
+package yahoofinance.web;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import yahoofinance.exception.CookieException;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SessionPool Tests")
+class SessionPoolTest {
+
+	@Test
+	@DisplayName("Should hand out the sessions round robin")
+	void shouldRotateSessions() throws Exception {
+		ManualSessionPool pool = new ManualSessionPool(3, SessionPool.Strategy.ROUND_ROBIN);
+
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			try (SessionPool.Lease lease = pool.acquire()) {
+				names.add(lease.getName());
+			}
+		}
+
+		assertEquals(List.of("pool-0", "pool-1", "pool-2", "pool-0", "pool-1", "pool-2"), names);
+	}
+
+	@Test
+	@DisplayName("Should lease the session with the fewest requests in flight")
+	void shouldPreferLeastLoadedSession() {
+		ManualSessionPool pool = new ManualSessionPool(3, SessionPool.Strategy.LEAST_LOAD);
+
+		SessionPool.Lease first = pool.acquire();
+		SessionPool.Lease second = pool.acquire();
+		SessionPool.Lease third = pool.acquire();
+		assertEquals(3, Set.of(first.getName(), second.getName(), third.getName()).size());
+
+		second.close();
+		for (int i = 0; i < 3; i++) {
+			try (SessionPool.Lease lease = pool.acquire()) {
+				assertEquals(second.getName(), lease.getName());
+			}
+		}
+		first.close();
+		third.close();
+		assertTrue(pool.getStats().stream().allMatch(stats -> stats.getInFlight() == 0));
+	}
+
+	@Test
+	@DisplayName("Should give every session its own cookie and crumb")
+	void shouldIsolateSessions() throws Exception {
+		ManualSessionPool pool = new ManualSessionPool(3, SessionPool.Strategy.ROUND_ROBIN);
+
+		Set<String> cookies = new HashSet<>();
+		Session rejected = null;
+		for (int i = 0; i < 3; i++) {
+			try (SessionPool.Lease lease = pool.acquire()) {
+				Session session = lease.getSession();
+				cookies.add(session.getCookie());
+				if (i == 0) {
+					rejected = session;
+					lease.invalidate(session);
+				}
+			}
+		}
+		assertEquals(Set.of("A3=pool-0-1", "A3=pool-1-1", "A3=pool-2-1"), cookies);
+
+		try (SessionPool.Lease lease = pool.acquire()) {
+			Session renewed = lease.getSession();
+			assertEquals("pool-0", lease.getName());
+			assertNotEquals(rejected.getCrumb(), renewed.getCrumb());
+			assertEquals("pool-0-2", renewed.getCrumb());
+		}
+		try (SessionPool.Lease lease = pool.acquire()) {
+			assertEquals("pool-1-1", lease.getSession().getCrumb());
+		}
+	}
+
+	@Test
+	@DisplayName("Should skip a throttled session until its quarantine ends")
+	void shouldQuarantineThrottledSession() {
+		ManualSessionPool pool = new ManualSessionPool(2, SessionPool.Strategy.ROUND_ROBIN);
+		pool.setQuarantine(Duration.ofMinutes(1));
+
+		try (SessionPool.Lease lease = pool.acquire()) {
+			assertEquals("pool-0", lease.getName());
+			lease.onThrottled(Duration.ofSeconds(5));
+		}
+		for (int i = 0; i < 4; i++) {
+			try (SessionPool.Lease lease = pool.acquire()) {
+				assertEquals("pool-1", lease.getName());
+			}
+		}
+		assertEquals(Duration.ofMinutes(1), pool.getStats().get(0).getQuarantine());
+		assertEquals(1, pool.getStats().get(0).getThrottledCount());
+
+		pool.now += TimeUnit.MINUTES.toNanos(1);
+		Set<String> names = new HashSet<>();
+		for (int i = 0; i < 2; i++) {
+			try (SessionPool.Lease lease = pool.acquire()) {
+				names.add(lease.getName());
+			}
+		}
+		assertEquals(Set.of("pool-0", "pool-1"), names);
+	}
+
+	@Test
+	@DisplayName("Should use the session released first when all are quarantined")
+	void shouldFallBackWhenAllQuarantined() {
+		ManualSessionPool pool = new ManualSessionPool(2, SessionPool.Strategy.LEAST_LOAD);
+		pool.setQuarantine(Duration.ofSeconds(10));
+
+		try (SessionPool.Lease lease = pool.acquire()) {
+			lease.onThrottled(Duration.ofMinutes(5));
+		}
+		try (SessionPool.Lease lease = pool.acquire()) {
+			lease.onThrottled(null);
+		}
+
+		try (SessionPool.Lease lease = pool.acquire()) {
+			assertEquals("pool-1", lease.getName());
+		}
+	}
+
+	@Test
+	@DisplayName("Should authenticate transport requests with pooled sessions and renew a rejected one")
+	void shouldSendWithPooledSession() throws Exception {
+		AtomicInteger rejected = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			String query = exchange.getRequestURI().getQuery();
+			String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+			int status = 200;
+			if (query.contains("crumb=pool-0-1")) {
+				rejected.incrementAndGet();
+				status = 401;
+			}
+			byte[] body = (cookie + " " + query).getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		ManualSessionPool pool = new ManualSessionPool(1, SessionPool.Strategy.ROUND_ROBIN);
+		HttpTransport.setSessionPool(pool);
+		try {
+			URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/quote?symbols=AAPL");
+
+			HttpResponse<InputStream> response = HttpTransport.send(uri, true, Duration.ofSeconds(5), 0);
+			try (InputStream body = response.body()) {
+				assertEquals(200, response.statusCode());
+				assertEquals("A3=pool-0-2 symbols=AAPL&crumb=pool-0-2",
+						new String(body.readAllBytes(), StandardCharsets.UTF_8));
+			}
+			assertEquals(1, rejected.get());
+
+			HttpResponse<byte[]> async = HttpTransport.sendAsync(uri, true, Duration.ofSeconds(5), 0, Runnable::run)
+					.get(5, TimeUnit.SECONDS);
+			assertEquals(200, async.statusCode());
+			assertEquals(1, rejected.get());
+			assertEquals(2, pool.getStats().get(0).getRequestCount());
+			assertEquals(0, pool.getStats().get(0).getInFlight());
+		} finally {
+			HttpTransport.setSessionPool(null);
+			server.stop(0);
+		}
+	}
+
+	@Test
+	@DisplayName("Should retry a throttled request with another session of the pool")
+	void shouldRetryThrottledRequestWithAnotherSession() throws Exception {
+		List<String> crumbs = new ArrayList<>();
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			String query = exchange.getRequestURI().getQuery();
+			synchronized (crumbs) {
+				crumbs.add(query.substring(query.indexOf("crumb=") + 6));
+			}
+			int status = query.contains("crumb=pool-0-") ? 429 : 200;
+			byte[] body = String.valueOf(exchange.getRequestHeaders().getFirst("Cookie"))
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		HttpTransport.setRetryDelays(Duration.ofMillis(1), Duration.ofMillis(20));
+		try {
+			URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/quote?symbols=AAPL");
+
+			ManualSessionPool pool = new ManualSessionPool(2, SessionPool.Strategy.ROUND_ROBIN);
+			HttpTransport.setSessionPool(pool);
+			HttpResponse<InputStream> response = HttpTransport.send(uri, true, Duration.ofSeconds(5), 0);
+			try (InputStream body = response.body()) {
+				assertEquals(200, response.statusCode());
+				assertEquals("A3=pool-1-1", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+			}
+			assertEquals(List.of("pool-0-1", "pool-1-1"), crumbs);
+			assertEquals(1, pool.getStats().get(0).getThrottledCount());
+			assertTrue(pool.getStats().stream().allMatch(stats -> stats.getInFlight() == 0));
+
+			crumbs.clear();
+			ManualSessionPool asyncPool = new ManualSessionPool(2, SessionPool.Strategy.ROUND_ROBIN);
+			HttpTransport.setSessionPool(asyncPool);
+			HttpResponse<byte[]> async = HttpTransport.sendAsync(uri, true, Duration.ofSeconds(5), 0, Runnable::run)
+					.get(5, TimeUnit.SECONDS);
+			assertEquals(200, async.statusCode());
+			assertEquals("A3=pool-1-1", new String(async.body(), StandardCharsets.UTF_8));
+			assertEquals(List.of("pool-0-1", "pool-1-1"), crumbs);
+			assertTrue(asyncPool.getStats().stream().allMatch(stats -> stats.getInFlight() == 0));
+		} finally {
+			HttpTransport.setSessionPool(null);
+			HttpTransport.setRetryDelays(Duration.ofMillis(500), Duration.ofSeconds(30));
+			server.stop(0);
+		}
+	}
+
+	private static List<SessionHolder> holders(int size) {
+		List<SessionHolder> holders = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			String name = "pool-" + i;
+			AtomicInteger fetches = new AtomicInteger();
+			holders.add(new SessionHolder(name, new SessionHolder.Fetcher() {
+				@Override
+				public String fetchCookie() throws CookieException {
+					return "A3=" + name + "-" + fetches.incrementAndGet();
+				}
+
+				@Override
+				public String fetchCrumb(String cookie) {
+					return name + "-" + fetches.get();
+				}
+			}, Runnable::run));
+		}
+		return holders;
+	}
+
+	private static class ManualSessionPool extends SessionPool {
+		private volatile long now = 1;
+
+		private ManualSessionPool(int size, Strategy strategy) {
+			super(strategy, holders(size));
+		}
+
+		@Override
+		protected long nanoTime() {
+			return now;
+		}
+	}
+}